@@ -0,0 +1,215 @@
+package edu.cornell.lassp.houle.RngPack;
+
+/**
+*
+* Arithmetic modulo a polynomial over GF(2),  used to jump ahead
+* generators whose state evolves by a linear map over GF(2)
+* (<TT>MT19937</TT>, <TT>xoshiro</TT>).
+*
+* <P>
+* If <CODE>P</CODE> is the characteristic polynomial of the transition
+* map <CODE>T</CODE> and <CODE>t<SUP>n</SUP> mod P = sum g<SUB>i</SUB> t<SUP>i</SUP></CODE>,
+* then <CODE>T<SUP>n</SUP> = sum g<SUB>i</SUB> T<SUP>i</SUP></CODE>:  the state
+* <CODE>n</CODE> steps ahead is the sum of the states reached after
+* <CODE>i</CODE> steps for the non-zero coefficients <CODE>g<SUB>i</SUB></CODE>,
+* which costs <CODE>deg P</CODE> steps instead of <CODE>n</CODE>.
+*
+* <P>
+* Polynomials are stored as arrays of longs,  bit <CODE>i</CODE> holding the
+* coefficient of <CODE>t<SUP>i</SUP></CODE>.
+*
+* <BR>
+* <B>REFERENCES:</B>
+* <BR>
+* H. Haramoto, M. Matsumoto, T. Nishimura, F. Panneton and P. L'Ecuyer, <CITE>INFORMS Journal on Computing</CITE> <STRONG>20</STRONG> (2008) p 385-390
+*/
+
+final class F2Polynomial {
+
+    private final int degree;
+    private final int words;
+    // modulus shifted left by 0..63 bits
+    private final long[][] shifted;
+
+/**
+* @param p the modulus
+*/
+
+    F2Polynomial(long[] p) {
+	degree = degree(p);
+	if (degree < 1)
+	    throw new IllegalArgumentException("modulus must have a positive degree");
+	words = (degree >>> 6) + 1;
+	shifted = new long[64][words + 1];
+	for (int s = 0; s < 64; s++)
+	    for (int w = 0; w < words; w++) {
+		long x = w < p.length ? p[w] : 0L;
+		shifted[s][w] |= x << s;
+		if (s > 0)
+		    shifted[s][w + 1] |= x >>> (64 - s);
+	    }
+    }
+
+/**
+* @return the degree of the modulus
+*/
+
+    int degree() {
+	return degree;
+    }
+
+/**
+* @param e exponent
+* @return <CODE>t<SUP>e</SUP></CODE> modulo this polynomial
+*/
+
+    long[] xPower(long e) {
+	if (e < 0)
+	    throw new IllegalArgumentException("negative exponent: " + e);
+	long[] r = new long[words];
+	r[0] = 1L;
+	for (int b = 63 - Long.numberOfLeadingZeros(e); b >= 0; b--) {
+	    r = squareMod(r);
+	    if (((e >>> b) & 1L) != 0)
+		timesXMod(r);
+	}
+	return r;
+    }
+
+    private long[] squareMod(long[] a) {
+	long[] s = new long[2 * words + 1];
+	for (int w = 0; w < words; w++) {
+	    s[2 * w] = spread((int) a[w]);
+	    s[2 * w + 1] = spread((int) (a[w] >>> 32));
+	}
+	for (int i = 2 * degree - 2; i >= degree; i--)
+	    if (((s[i >>> 6] >>> (i & 63)) & 1L) != 0) {
+		int shift = i - degree;
+		long[] p = shifted[shift & 63];
+		int offset = shift >>> 6;
+		for (int w = 0; w <= words && offset + w < s.length; w++)
+		    s[offset + w] ^= p[w];
+	    }
+	long[] r = new long[words];
+	System.arraycopy(s, 0, r, 0, words);
+	return r;
+    }
+
+    private void timesXMod(long[] a) {
+	for (int w = words - 1; w > 0; w--)
+	    a[w] = (a[w] << 1) | (a[w - 1] >>> 63);
+	a[0] <<= 1;
+	if (((a[degree >>> 6] >>> (degree & 63)) & 1L) != 0)
+	    for (int w = 0; w < words; w++)
+		a[w] ^= shifted[0][w];
+    }
+
+    // insert a zero bit after each bit of x
+    private static long spread(int x) {
+	long v = x & 0xffffffffL;
+	v = (v | (v << 16)) & 0x0000ffff0000ffffL;
+	v = (v | (v << 8)) & 0x00ff00ff00ff00ffL;
+	v = (v | (v << 4)) & 0x0f0f0f0f0f0f0f0fL;
+	v = (v | (v << 2)) & 0x3333333333333333L;
+	v = (v | (v << 1)) & 0x5555555555555555L;
+	return v;
+    }
+
+/**
+* @param p a polynomial
+* @return its degree,  -1 for the zero polynomial
+*/
+
+    static int degree(long[] p) {
+	for (int w = p.length - 1; w >= 0; w--)
+	    if (p[w] != 0)
+		return 64 * w + 63 - Long.numberOfLeadingZeros(p[w]);
+	return -1;
+    }
+
+/**
+* @param p a polynomial
+* @param i index of a coefficient
+* @return true if the coefficient of <CODE>t<SUP>i</SUP></CODE> is one
+*/
+
+    static boolean coefficient(long[] p, int i) {
+	return (i >>> 6) < p.length && ((p[i >>> 6] >>> (i & 63)) & 1L) != 0;
+    }
+
+/**
+*
+* Berlekamp-Massey algorithm:  the characteristic polynomial of the
+* shortest linear recurrence generating a bit sequence.  For a sequence
+* extracted from a generator whose characteristic polynomial of degree
+* <CODE>k</CODE> is irreducible,  <CODE>2k</CODE> bits give that polynomial.
+*
+* @param bits the sequence,  bit <CODE>i</CODE> of the array being term <CODE>i</CODE>
+* @param n length of the sequence
+* @return the characteristic polynomial of the recurrence
+*
+*/
+
+    static long[] minimalPolynomial(long[] bits, int n) {
+	int nw = (n >>> 6) + 2;
+	// reversed sequence:  bit k of rev is term n-1-k
+	long[] rev = new long[nw + 2];
+	for (int k = 0; k < n; k++)
+	    if (coefficient(bits, n - 1 - k))
+		rev[k >>> 6] |= 1L << (k & 63);
+
+	long[] c = new long[nw];
+	long[] b = new long[nw];
+	long[] t = new long[nw];
+	c[0] = 1L;
+	b[0] = 1L;
+	int l = 0;
+	int m = 1;
+	for (int j = 0; j < n; j++) {
+	    // discrepancy:  sum of c_i * s_(j-i),  s_(j-i) is bit (n-1-j+i) of rev
+	    int offset = n - 1 - j;
+	    int q = offset >>> 6;
+	    int r = offset & 63;
+	    long d = 0;
+	    int cw = (l >>> 6) + 1;
+	    for (int w = 0; w < cw; w++) {
+		long x = rev[q + w] >>> r;
+		if (r != 0)
+		    x |= rev[q + w + 1] << (64 - r);
+		d ^= c[w] & x;
+	    }
+	    if ((Long.bitCount(d) & 1) == 0) {
+		m++;
+		continue;
+	    }
+	    boolean grow = 2 * l <= j;
+	    if (grow)
+		System.arraycopy(c, 0, t, 0, nw);
+	    // c = c + t^m b
+	    int wq = m >>> 6;
+	    int wr = m & 63;
+	    for (int w = nw - 1; w >= wq; w--) {
+		long x = b[w - wq] << wr;
+		if (wr != 0 && w - wq - 1 >= 0)
+		    x |= b[w - wq - 1] >>> (64 - wr);
+		c[w] ^= x;
+	    }
+	    if (grow) {
+		l = j + 1 - l;
+		long[] swap = b;
+		b = t;
+		t = swap;
+		m = 1;
+	    } else {
+		m++;
+	    }
+	}
+	// characteristic polynomial:  p_k = c_(l-k)
+	long[] p = new long[(l >>> 6) + 1];
+	for (int k = 0; k <= l; k++)
+	    if (coefficient(c, l - k))
+		p[k >>> 6] |= 1L << (k & 63);
+	return p;
+    }
+
+};
@@ -61,7 +61,9 @@ import java.io.Serializable;
  */
 
 
-public class RanMT extends RandomSeedable implements Serializable {
+public class RanMT extends RandomSplittable implements Serializable {
+
+    private static final long serialVersionUID = -363055342199329477L;
 
     private static final int N = 624;
     private static final int M = 397;
@@ -168,23 +170,8 @@ public class RanMT extends RandomSeedable implements Serializable {
 	int y;
 	int z;
 	
-	if (mti >= N) {   // generate N words at one time
-	    
-	    int kk;
-	    
-	    for (kk = 0; kk < N - M; kk++) {
-		y = (mt[kk] & UPPER_MASK) | (mt[kk+1] & LOWER_MASK);
-		mt[kk] = mt[kk+M] ^ (y >>> 1) ^ mag01[y & 0x1];
-	    }
-	    for (; kk < N-1; kk++) {
-		y = (mt[kk] & UPPER_MASK) | (mt[kk+1] & LOWER_MASK);
-		mt[kk] = mt[kk+(M-N)] ^ (y >>> 1) ^ mag01[y & 0x1];
-	    }
-	    y = (mt[N-1] & UPPER_MASK) | (mt[0] & LOWER_MASK);
-	    mt[N-1] = mt[M-1] ^ (y >>> 1) ^ mag01[y & 0x1];
-	    
-	    mti = 0;
-	}
+	if (mti >= N)   // generate N words at one time
+	    generate();
   
 	y = mt[mti++];
 	y ^= y >>> 11;                          // TEMPERING_SHIFT_U(y)
@@ -192,22 +179,8 @@ public class RanMT extends RandomSeedable implements Serializable {
 	y ^= (y << 15) & TEMPERING_MASK_C;      // TEMPERING_SHIFT_T(y)
 	y ^= (y >>> 18);                        // TEMPERING_SHIFT_L(y)
 	
-	if (mti >= N) {  // generate N words at one time
-	    int kk;
-	    
-	    for (kk = 0; kk < N - M; kk++) {
-		z = (mt[kk] & UPPER_MASK) | (mt[kk+1] & LOWER_MASK);
-		mt[kk] = mt[kk+M] ^ (z >>> 1) ^ mag01[z & 0x1];
-	    }
-	    for (; kk < N-1; kk++) {
-		z = (mt[kk] & UPPER_MASK) | (mt[kk+1] & LOWER_MASK);
-		mt[kk] = mt[kk+(M-N)] ^ (z >>> 1) ^ mag01[z & 0x1];
-	    }
-	    z = (mt[N-1] & UPPER_MASK) | (mt[0] & LOWER_MASK);
-	    mt[N-1] = mt[M-1] ^ (z >>> 1) ^ mag01[z & 0x1];
-	    
-	    mti = 0;
-	}
+	if (mti >= N)   // generate N words at one time
+	    generate();
 	
 	z = mt[mti++];
 	z ^= z >>> 11;                          // TEMPERING_SHIFT_U(z)
@@ -218,4 +191,196 @@ public class RanMT extends RandomSeedable implements Serializable {
 	/* derived from nextDouble documentation in jdk 1.2 docs, see top */
 	return ((((long)(y >>> 6)) << 27) + (z >>> 5)) / (double)(1L << 53);
     }
+
+    /**
+     *
+     * Fill part or all of an array with doubles.  The words of each
+     * 624 words block are tempered and converted in a single loop,  so the
+     * block boundary is tested once per block instead of twice per number.
+     *
+     * @param d array to be filled
+     * @param n number of doubles to generate
+     *
+     */
+
+    public final void raw(double d[], int n) {
+	int i = 0;
+	while (i < n) {
+	    if (mti >= N)
+		generate();
+	    int end = i + Math.min(n - i, (N - mti) >> 1);
+	    int k = mti;
+	    for (; i < end; i++) {
+		int y = temper(mt[k++]);
+		int z = temper(mt[k++]);
+		d[i] = ((((long)(y >>> 6)) << 27) + (z >>> 5)) / (double)(1L << 53);
+	    }
+	    mti = k;
+	    if (i < n && mti == N - 1)
+		d[i++] = raw();   // the pair straddles two blocks
+	}
+    }
+
+    private void generate() {
+	int kk;
+	int y;
+
+	for (kk = 0; kk < N - M; kk++) {
+	    y = (mt[kk] & UPPER_MASK) | (mt[kk+1] & LOWER_MASK);
+	    mt[kk] = mt[kk+M] ^ (y >>> 1) ^ mag01[y & 0x1];
+	}
+	for (; kk < N-1; kk++) {
+	    y = (mt[kk] & UPPER_MASK) | (mt[kk+1] & LOWER_MASK);
+	    mt[kk] = mt[kk+(M-N)] ^ (y >>> 1) ^ mag01[y & 0x1];
+	}
+	y = (mt[N-1] & UPPER_MASK) | (mt[0] & LOWER_MASK);
+	mt[N-1] = mt[M-1] ^ (y >>> 1) ^ mag01[y & 0x1];
+
+	mti = 0;
+    }
+
+    private static int temper(int y) {
+	y ^= y >>> 11;                          // TEMPERING_SHIFT_U(y)
+	y ^= (y << 7) & TEMPERING_MASK_B;       // TEMPERING_SHIFT_S(y)
+	y ^= (y << 15) & TEMPERING_MASK_C;      // TEMPERING_SHIFT_T(y)
+	y ^= (y >>> 18);                        // TEMPERING_SHIFT_L(y)
+	return y;
+    }
+
+    /**
+     * Number of values reserved for each substream by <CODE>split()</CODE>:
+     * 2<SUP>61</SUP>.
+     */
+    public static final long SPLIT_STRIDE = 1L << 61;
+
+    // characteristic polynomial of the MT19937 transition,  computed once
+    private static F2Polynomial characteristic;
+    // last power of t computed,  reused by repeated splits
+    private static long lastExponent = -1;
+    private static long[] lastPower;
+
+    /**
+     *
+     * Jump ahead by <CODE>n</CODE> numbers.
+     *
+     * <P>
+     * The Mersenne Twister state is advanced with the polynomial jump of
+     * Haramoto et al.:  <CODE>t<SUP>k</SUP></CODE> is reduced modulo the
+     * characteristic polynomial (of degree 19937) of the transition,  in
+     * O(log n) polynomial squarings,  and the state <CODE>k</CODE> words
+     * ahead is then obtained as a sum of at most 19937 successive states.
+     * The characteristic polynomial itself is computed once,  with the
+     * Berlekamp-Massey algorithm,  the first time a generator jumps.
+     *
+     * @param n number of values to skip
+     *
+     */
+
+    public void jump(long n) {
+	if (n < 0)
+	    throw new IllegalArgumentException("cannot jump backwards: " + n);
+	// each raw() consumes two 32 bits words
+	final long max = (Long.MAX_VALUE - 2 * N) / 2;
+	while (n > max) {
+	    jumpWords(2 * max);
+	    n -= max;
+	}
+	jumpWords(2 * n);
+    }
+
+    /**
+     *
+     * Split off a substream of <CODE>SPLIT_STRIDE</CODE> numbers.
+     *
+     * @see RandomSplittable#split()
+     *
+     */
+
+    public RandomSplittable split() {
+	RandomSplittable s = copy();
+	jumpWords(2 * SPLIT_STRIDE);
+	return s;
+    }
+
+    RandomSplittable copy() {
+	RanMT r = (RanMT) super.copy();
+	r.mt = mt.clone();
+	r.mag01 = mag01.clone();
+	return r;
+    }
+
+    /*
+     * Skip w words of the untempered sequence.  The array mt holds the
+     * 624 words of the current block,  mti is the next word to output.
+     * Moving the block q*624 words ahead is done by stepping it once and
+     * applying t^(624q-1) mod P,  so only words generated by the
+     * recurrence enter the sum.
+     */
+
+    private void jumpWords(long w) {
+	if (w == 0)
+	    return;
+	long k = mti + w;
+	long q = k / N;
+	int r = (int) (k % N);
+	if (q == 0) {
+	    mti = r;
+	    return;
+	}
+	long[] g = power(q * N - 1);
+
+	int[] cur = mt.clone();
+	int p = step(cur, 0);
+	int[] acc = new int[N];
+	for (int i = 0; i < 19937; i++) {
+	    if (F2Polynomial.coefficient(g, i)) {
+		for (int j = p; j < N; j++)
+		    acc[j - p] ^= cur[j];
+		for (int j = 0; j < p; j++)
+		    acc[N - p + j] ^= cur[j];
+	    }
+	    p = step(cur, p);
+	}
+	mt = acc;
+	mti = r;
+    }
+
+    /*
+     * One step of the recurrence on a circular buffer starting at p:
+     * the oldest word is replaced by the next one.
+     */
+
+    private static int step(int[] s, int p) {
+	int p1 = p + 1 == N ? 0 : p + 1;
+	int pm = p + M < N ? p + M : p + M - N;
+	int y = (s[p] & UPPER_MASK) | (s[p1] & LOWER_MASK);
+	s[p] = s[pm] ^ (y >>> 1) ^ ((y & 0x1) == 0 ? 0 : MATRIX_A);
+	return p1;
+    }
+
+    private static synchronized F2Polynomial characteristic() {
+	if (characteristic == null) {
+	    // 2*19937 bits of the recurrence from an arbitrary non-zero state
+	    int bits = 2 * 19937;
+	    long[] sequence = new long[(bits >>> 6) + 1];
+	    int[] s = new RanMT(5489).mt;
+	    int p = 0;
+	    for (int i = 0; i < bits; i++) {
+		p = step(s, p);
+		int newest = s[p == 0 ? N - 1 : p - 1];
+		if ((newest & 1) != 0)
+		    sequence[i >>> 6] |= 1L << (i & 63);
+	    }
+	    characteristic = new F2Polynomial(F2Polynomial.minimalPolynomial(sequence, bits));
+	}
+	return characteristic;
+    }
+
+    private static synchronized long[] power(long e) {
+	if (e != lastExponent) {
+	    lastPower = characteristic().xPower(e);
+	    lastExponent = e;
+	}
+	return lastPower;
+    }
 }
@@ -0,0 +1,313 @@
+package edu.cornell.lassp.houle.RngPack;
+import java.util.*;
+import java.io.Serializable;
+
+/**
+*
+* <TT>Philox4x32-10</TT> counter-based random number generator.
+*
+* <P>
+* The <CODE>n</CODE>-th block of four 32 bits words is a bijective
+* function (ten rounds of multiplications and xors) of the 128 bits
+* counter <CODE>n</CODE> and of the 64 bits key,  so it can be computed
+* without generating the blocks before it:  <CODE>jump()</CODE> and
+* <CODE>setCounter()</CODE> cost O(1),  and <CODE>split()</CODE> hands out
+* substreams by incrementing the high word of the counter,  which leaves
+* 2<SUP>96</SUP> blocks to each of 2<SUP>32</SUP> substreams.  The state
+* is only the key and the counter,  which makes it convenient to give one
+* generator to each thread or to each task of a parallel job.
+*
+* <P>
+* Each <CODE>raw()</CODE> consumes two words and has 53 bits of precision.
+* The words themselves are available with <CODE>rawInt()</CODE>.
+*
+* <BR>
+* <B>REFERENCES:</B>
+* <BR>
+* J. K. Salmon, M. A. Moraes, R. O. Dror and D. E. Shaw, <CITE>Parallel Random Numbers: As Easy as 1, 2, 3</CITE>, Proceedings of SC11 (2011)
+*
+* @see RandomSplittable#split()
+*/
+
+public class RanPhilox extends RandomSplittable implements Serializable {
+
+    private static final long serialVersionUID = -7208975834014719307L;
+
+    private static final int M0 = 0xD2511F53;
+    private static final int M1 = 0xCD9E8D57;
+    private static final int W0 = 0x9E3779B9;
+    private static final int W1 = 0xBB67AE85;
+    private static final int ROUNDS = 10;
+
+    private int key0, key1;
+    // counter of the next block,  low 64 bits and high 64 bits
+    private long counterLo, counterHi;
+    // current block and index of its next unused word (4 when used up)
+    private int buffer[] = new int[4];
+    private int index = 4;
+
+/**
+*
+* Initialize with the default key 0.
+*
+*/
+
+    public RanPhilox() {
+	this(0L);
+    }
+
+/**
+*
+* Initialize with a 64 bits key.
+*
+* @param seed the key
+*
+*/
+
+    public RanPhilox(long seed) {
+	key0 = (int) seed;
+	key1 = (int) (seed >>> 32);
+    }
+
+/**
+*
+* Initialize from the clock.
+*
+* @param d a date,  typically <CODE>new Date()</CODE>
+*
+*/
+
+    public RanPhilox(Date d) {
+	this(ClockSeed(d));
+    }
+
+/**
+*
+* Initialize with a key and a starting counter.
+*
+* @param seed the key
+* @param counter the counter of the first block
+*
+*/
+
+    public RanPhilox(long seed, long counter) {
+	this(seed);
+	counterLo = counter;
+    }
+
+/**
+* @return the key
+*/
+
+    public long getSeed() {
+	return (key0 & 0xffffffffL) | ((long) key1 << 32);
+    }
+
+/**
+* @return low 64 bits of the counter of the next block
+*/
+
+    public long getCounter() {
+	return counterLo;
+    }
+
+/**
+*
+* Random access:  the next numbers will be taken from the block
+* <CODE>counter</CODE> of the current substream.
+*
+* @param counter low 64 bits of the counter
+*
+*/
+
+    public void setCounter(long counter) {
+	counterLo = counter;
+	index = 4;
+    }
+
+/**
+*
+* Compute one block without changing the state of the generator.
+*
+* @param counter low 64 bits of the counter,  the high bits being those of the current substream
+* @param out array receiving the four words
+*
+*/
+
+    public void block(long counter, int out[]) {
+	philox((int) counter, (int) (counter >>> 32), (int) counterHi, (int) (counterHi >>> 32), key0, key1, out, 0);
+    }
+
+/**
+* @return a uniform 32 bits integer
+*/
+
+    public final int rawInt() {
+	if (index == 4)
+	    next();
+	return buffer[index++];
+    }
+
+/**
+*
+* Fill part or all of an array with uniform 32 bits integers.
+*
+* @param d array to be filled
+* @param n number of integers to generate
+*
+*/
+
+    public void rawInt(int d[], int n) {
+	int i = 0;
+	while (i < n && index < 4)
+	    d[i++] = buffer[index++];
+	for (; i + 4 <= n; i += 4)
+	    nextBlock(d, i);
+	if (i < n) {
+	    next();
+	    while (i < n)
+		d[i++] = buffer[index++];
+	}
+    }
+
+/**
+* @see RandomElement#raw
+*/
+
+    public final double raw() {
+	int y = rawInt();
+	int z = rawInt();
+	return ((((long) (y >>> 6)) << 27) + (z >>> 5)) / (double) (1L << 53);
+    }
+
+/**
+*
+* Fill part or all of an array with doubles,  generating whole blocks
+* directly into the array.
+*
+* @param d array to be filled
+* @param n number of doubles to generate
+*
+*/
+
+    public void raw(double d[], int n) {
+	int i = 0;
+	if ((index & 1) != 0) {
+	    // odd number of words used by rawInt():  blocks are never aligned
+	    for (; i < n; i++)
+		d[i] = raw();
+	    return;
+	}
+	while (i < n && index < 4)
+	    d[i++] = raw();
+	int w[] = new int[4];
+	for (; i + 2 <= n; i += 2) {
+	    philox((int) counterLo, (int) (counterLo >>> 32), (int) counterHi, (int) (counterHi >>> 32), key0, key1, w, 0);
+	    increment();
+	    d[i] = ((((long) (w[0] >>> 6)) << 27) + (w[1] >>> 5)) / (double) (1L << 53);
+	    d[i + 1] = ((((long) (w[2] >>> 6)) << 27) + (w[3] >>> 5)) / (double) (1L << 53);
+	}
+	if (i < n)
+	    d[i] = raw();
+    }
+
+/**
+*
+* Jump ahead by <CODE>n</CODE> numbers in O(1),  by adding to the counter.
+*
+* @param n number of values to skip
+*
+*/
+
+    public void jump(long n) {
+	if (n < 0)
+	    throw new IllegalArgumentException("cannot jump backwards: " + n);
+	// back to the start of the block holding the next word
+	int w = 0;
+	if (index != 4) {
+	    w = index;
+	    if (counterLo-- == 0)
+		counterHi--;
+	}
+	// 2n words are n/2 blocks and 0 or 2 words
+	w += 2 * (int) (n & 1);
+	add((n >>> 1) + (w >>> 2));
+	index = 4;
+	if ((w & 3) != 0) {
+	    next();
+	    index = w & 3;
+	}
+    }
+
+/**
+*
+* Split off a substream:  the new generator continues the sequence of
+* this one,  which moves to the next value of the high word of the
+* counter.
+*
+* @see RandomSplittable#split()
+*
+*/
+
+    public RandomSplittable split() {
+	RanPhilox s = (RanPhilox) copy();
+	counterHi = (counterHi & 0xffffffff00000000L) + 0x100000000L;
+	counterLo = 0;
+	index = 4;
+	return s;
+    }
+
+    RandomSplittable copy() {
+	RanPhilox r = (RanPhilox) super.copy();
+	r.buffer = buffer.clone();
+	return r;
+    }
+
+    private void next() {
+	philox((int) counterLo, (int) (counterLo >>> 32), (int) counterHi, (int) (counterHi >>> 32), key0, key1, buffer, 0);
+	increment();
+	index = 0;
+    }
+
+    private void nextBlock(int d[], int offset) {
+	philox((int) counterLo, (int) (counterLo >>> 32), (int) counterHi, (int) (counterHi >>> 32), key0, key1, d, offset);
+	increment();
+    }
+
+    private void increment() {
+	if (++counterLo == 0)
+	    counterHi++;
+    }
+
+    // add an unsigned 64 bits number of blocks to the counter
+    private void add(long blocks) {
+	long lo = counterLo + blocks;
+	if ((lo ^ Long.MIN_VALUE) < (counterLo ^ Long.MIN_VALUE))
+	    counterHi++;
+	counterLo = lo;
+    }
+
+/*
+* Philox4x32 with ten rounds.
+*/
+
+    static void philox(int c0, int c1, int c2, int c3, int k0, int k1, int out[], int offset) {
+	for (int r = 0; r < ROUNDS; r++) {
+	    long p0 = (M0 & 0xffffffffL) * (c0 & 0xffffffffL);
+	    long p1 = (M1 & 0xffffffffL) * (c2 & 0xffffffffL);
+	    int hi0 = (int) (p0 >>> 32);
+	    int hi1 = (int) (p1 >>> 32);
+	    c0 = hi1 ^ c1 ^ k0;
+	    c1 = (int) p1;
+	    c2 = hi0 ^ c3 ^ k1;
+	    c3 = (int) p0;
+	    k0 += W0;
+	    k1 += W1;
+	}
+	out[offset] = c0;
+	out[offset + 1] = c1;
+	out[offset + 2] = c2;
+	out[offset + 3] = c3;
+    }
+
+};
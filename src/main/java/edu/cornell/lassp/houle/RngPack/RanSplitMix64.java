@@ -0,0 +1,155 @@
+package edu.cornell.lassp.houle.RngPack;
+import java.util.*;
+import java.io.Serializable;
+
+/**
+*
+* <TT>SplitMix64</TT> random number generator.
+*
+* <P>
+* The state is a 64 bits counter incremented by a fixed odd constant;  each
+* value is the counter passed through a mixing function,  so the period is
+* 2<SUP>64</SUP> and <CODE>jump()</CODE> is a multiplication.  It is the
+* fastest generator of the package,  and is also used to expand a
+* <CODE>long</CODE> seed into the state of the <TT>xoshiro</TT> generators.
+* Each <CODE>raw()</CODE> has 53 bits of precision.
+*
+* <BR>
+* <B>REFERENCES:</B>
+* <BR>
+* G. L. Steele, D. Lea and C. H. Flood, <CITE>Fast Splittable Pseudorandom Number Generators</CITE>, OOPSLA (2014)
+*
+* @see RanXoshiro256
+*/
+
+public class RanSplitMix64 extends RandomSplittable implements Serializable {
+
+    private static final long serialVersionUID = -7055772121792731048L;
+
+    static final long GAMMA = 0x9E3779B97F4A7C15L;
+
+/**
+* Number of values reserved for each substream by <CODE>split()</CODE>:
+* 2<SUP>40</SUP>.
+*/
+    public static final long SPLIT_STRIDE = 1L << 40;
+
+    private long seed;
+    private long state;
+
+/**
+*
+* Initialize from the clock.
+*
+*/
+
+    public RanSplitMix64() {
+	this(ClockSeed());
+    }
+
+/**
+*
+* Initialize with a long seed.
+*
+* @param seed the seed
+*
+*/
+
+    public RanSplitMix64(long seed) {
+	this.seed = seed;
+	state = seed;
+    }
+
+/**
+*
+* Initialize from a date.
+*
+* @param d a date,  typically <CODE>new Date()</CODE>
+*
+*/
+
+    public RanSplitMix64(Date d) {
+	this(ClockSeed(d));
+    }
+
+/**
+* @return the seed given to the constructor
+*/
+
+    public long getSeed() {
+	return seed;
+    }
+
+/**
+* @return a uniform 64 bits integer
+*/
+
+    public final long rawLong() {
+	return mix(state += GAMMA);
+    }
+
+/**
+* @see RandomElement#raw
+*/
+
+    public final double raw() {
+	return (mix(state += GAMMA) >>> 11) * 0x1.0p-53;
+    }
+
+/**
+* This is an inline version that returns an array of doubles for speed.
+*/
+
+    public final void raw(double d[], int n) {
+	long s = state;
+	for (int i = 0; i < n; i++)
+	    d[i] = (mix(s += GAMMA) >>> 11) * 0x1.0p-53;
+	state = s;
+    }
+
+/**
+*
+* Jump ahead by <CODE>n</CODE> numbers in O(1).
+*
+* @param n number of values to skip
+*
+*/
+
+    public void jump(long n) {
+	if (n < 0)
+	    throw new IllegalArgumentException("cannot jump backwards: " + n);
+	state += n * GAMMA;
+    }
+
+/**
+*
+* Split off a substream of <CODE>SPLIT_STRIDE</CODE> numbers.
+*
+* @see RandomSplittable#split()
+*
+*/
+
+    public RandomSplittable split() {
+	RandomSplittable s = copy();
+	jump(SPLIT_STRIDE);
+	return s;
+    }
+
+/**
+*
+* SplitMix64 finalizer (Stafford's variant 13):  a bijection of the longs
+* turning close inputs,  such as successive integers,  into uncorrelated
+* outputs.
+*
+* @param z value to mix
+* @return mixed value
+*
+*/
+
+    public static long mix(long z) {
+	z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+	z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+	return z ^ (z >>> 31);
+    }
+
+};
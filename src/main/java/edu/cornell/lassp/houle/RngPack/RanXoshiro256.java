@@ -0,0 +1,195 @@
+package edu.cornell.lassp.houle.RngPack;
+import java.util.*;
+import java.io.Serializable;
+
+/**
+*
+* Common part of the <TT>xoshiro256</TT> generators:  a 256 bits state
+* updated by xors, shifts and rotations,  with a period of
+* 2<SUP>256</SUP>-1.  The subclasses differ only by the function turning
+* the state into a 64 bits output.
+*
+* <P>
+* The transition is linear over GF(2),  so the generators can jump ahead:
+* <CODE>jump()</CODE> and <CODE>longJump()</CODE> skip 2<SUP>128</SUP> and
+* 2<SUP>192</SUP> values with the published polynomials,
+* <CODE>jump(n)</CODE> skips any number of values using the characteristic
+* polynomial of the transition,  and <CODE>split()</CODE> hands out
+* substreams 2<SUP>128</SUP> values apart.
+*
+* <BR>
+* <B>REFERENCES:</B>
+* <BR>
+* D. Blackman and S. Vigna, <CITE>ACM Transactions on Mathematical Software</CITE> <STRONG>47</STRONG> (2021) 36
+*
+* @see RanXoshiro256StarStar
+* @see RanXoshiro256Plus
+*/
+
+public abstract class RanXoshiro256 extends RandomSplittable implements Serializable {
+
+    private static final long serialVersionUID = 2195476998265492666L;
+
+    private static final long JUMP[] = {
+	0x180ec6d33cfd0abaL, 0xd5a61266f0c9392cL, 0xa9582618e03fc9aaL, 0x39abdc4529b1661cL };
+    private static final long LONG_JUMP[] = {
+	0x76e15d3efefdcbbfL, 0xc5004e441c522fb3L, 0x77710069854ee241L, 0x39109bb02acbe635L };
+
+    // characteristic polynomial of the transition,  computed once
+    private static F2Polynomial characteristic;
+
+    private long seed;
+    long s0, s1, s2, s3;
+
+/**
+*
+* Initialize with a long seed,  expanded into the 256 bits state by
+* <TT>SplitMix64</TT>.
+*
+* @param seed the seed
+*
+*/
+
+    protected RanXoshiro256(long seed) {
+	this.seed = seed;
+	long z = seed;
+	s0 = RanSplitMix64.mix(z += RanSplitMix64.GAMMA);
+	s1 = RanSplitMix64.mix(z += RanSplitMix64.GAMMA);
+	s2 = RanSplitMix64.mix(z += RanSplitMix64.GAMMA);
+	s3 = RanSplitMix64.mix(z += RanSplitMix64.GAMMA);
+    }
+
+/**
+*
+* Initialize with a full state.
+*
+* @param state four longs,  not all zero
+*
+*/
+
+    protected RanXoshiro256(long state[]) {
+	if (state.length != 4)
+	    throw new IllegalArgumentException("state must have 4 elements");
+	if ((state[0] | state[1] | state[2] | state[3]) == 0)
+	    throw new IllegalArgumentException("state must not be all zero");
+	s0 = state[0];
+	s1 = state[1];
+	s2 = state[2];
+	s3 = state[3];
+	seed = s0;
+    }
+
+/**
+* @return the seed given to the constructor
+*/
+
+    public long getSeed() {
+	return seed;
+    }
+
+/**
+* @return a copy of the 256 bits state
+*/
+
+    public long[] getState() {
+	return new long[] { s0, s1, s2, s3 };
+    }
+
+/**
+*
+* Jump ahead by 2<SUP>128</SUP> numbers.
+*
+*/
+
+    public void jump() {
+	apply(JUMP, 256);
+    }
+
+/**
+*
+* Jump ahead by 2<SUP>192</SUP> numbers.
+*
+*/
+
+    public void longJump() {
+	apply(LONG_JUMP, 256);
+    }
+
+/**
+*
+* Jump ahead by <CODE>n</CODE> numbers in O(log n) operations on
+* polynomials of degree 256.
+*
+* @param n number of values to skip
+*
+*/
+
+    public void jump(long n) {
+	if (n < 0)
+	    throw new IllegalArgumentException("cannot jump backwards: " + n);
+	if (n < 256) {
+	    for (long i = 0; i < n; i++)
+		step();
+	    return;
+	}
+	apply(characteristic().xPower(n), 256);
+    }
+
+/**
+*
+* Split off a substream of 2<SUP>128</SUP> numbers.
+*
+* @see RandomSplittable#split()
+*
+*/
+
+    public RandomSplittable split() {
+	RandomSplittable s = copy();
+	jump();
+	return s;
+    }
+
+    final void step() {
+	long t = s1 << 17;
+	s2 ^= s0;
+	s3 ^= s1;
+	s1 ^= s2;
+	s0 ^= s3;
+	s2 ^= t;
+	s3 = Long.rotateLeft(s3, 45);
+    }
+
+    // state = sum of the states after i steps for the bits i of g
+    private void apply(long g[], int bits) {
+	long a0 = 0, a1 = 0, a2 = 0, a3 = 0;
+	for (int i = 0; i < bits; i++) {
+	    if (F2Polynomial.coefficient(g, i)) {
+		a0 ^= s0;
+		a1 ^= s1;
+		a2 ^= s2;
+		a3 ^= s3;
+	    }
+	    step();
+	}
+	s0 = a0;
+	s1 = a1;
+	s2 = a2;
+	s3 = a3;
+    }
+
+    private static synchronized F2Polynomial characteristic() {
+	if (characteristic == null) {
+	    // 512 bits of the lowest bit of s0,  from an arbitrary state
+	    RanXoshiro256 x = new RanXoshiro256StarStar(1L);
+	    long sequence[] = new long[8];
+	    for (int i = 0; i < 512; i++) {
+		x.step();
+		if ((x.s0 & 1L) != 0)
+		    sequence[i >>> 6] |= 1L << (i & 63);
+	    }
+	    characteristic = new F2Polynomial(F2Polynomial.minimalPolynomial(sequence, 512));
+	}
+	return characteristic;
+    }
+
+};
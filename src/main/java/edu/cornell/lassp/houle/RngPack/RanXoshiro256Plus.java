@@ -0,0 +1,96 @@
+package edu.cornell.lassp.houle.RngPack;
+import java.util.*;
+
+/**
+*
+* <TT>xoshiro256+</TT> random number generator:  the fastest member of the
+* <TT>xoshiro256</TT> family,  whose output is a single addition.  Its
+* lowest bits have low linear complexity,  which does not matter here
+* since <CODE>raw()</CODE> keeps only the 53 highest bits.
+*
+* @see RanXoshiro256
+*/
+
+public class RanXoshiro256Plus extends RanXoshiro256 {
+
+    private static final long serialVersionUID = -202018744984324407L;
+
+/**
+*
+* Initialize from the clock.
+*
+*/
+
+    public RanXoshiro256Plus() {
+	super(ClockSeed());
+    }
+
+/**
+*
+* Initialize with a long seed.
+*
+* @param seed the seed
+*
+*/
+
+    public RanXoshiro256Plus(long seed) {
+	super(seed);
+    }
+
+/**
+*
+* Initialize from a date.
+*
+* @param d a date,  typically <CODE>new Date()</CODE>
+*
+*/
+
+    public RanXoshiro256Plus(Date d) {
+	super(ClockSeed(d));
+    }
+
+/**
+*
+* Initialize with a full state.
+*
+* @param state four longs,  not all zero
+*
+*/
+
+    public RanXoshiro256Plus(long state[]) {
+	super(state);
+    }
+
+/**
+* @see RandomElement#raw
+*/
+
+    public final double raw() {
+	long r = s0 + s3;
+	step();
+	return (r >>> 11) * 0x1.0p-53;
+    }
+
+/**
+* This is an inline version that returns an array of doubles for speed.
+*/
+
+    public final void raw(double d[], int n) {
+	long a = s0, b = s1, c = s2, e = s3;
+	for (int i = 0; i < n; i++) {
+	    d[i] = ((a + e) >>> 11) * 0x1.0p-53;
+	    long t = b << 17;
+	    c ^= a;
+	    e ^= b;
+	    b ^= c;
+	    a ^= e;
+	    c ^= t;
+	    e = Long.rotateLeft(e, 45);
+	}
+	s0 = a;
+	s1 = b;
+	s2 = c;
+	s3 = e;
+    }
+
+};
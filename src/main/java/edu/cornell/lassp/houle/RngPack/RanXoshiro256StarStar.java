@@ -0,0 +1,106 @@
+package edu.cornell.lassp.houle.RngPack;
+import java.util.*;
+
+/**
+*
+* <TT>xoshiro256**</TT> random number generator:  the all-purpose member
+* of the <TT>xoshiro256</TT> family,  whose output function (a rotation
+* between two multiplications) scrambles all the bits.  Each
+* <CODE>raw()</CODE> has 53 bits of precision.
+*
+* @see RanXoshiro256
+*/
+
+public class RanXoshiro256StarStar extends RanXoshiro256 {
+
+    private static final long serialVersionUID = -7198216226073174275L;
+
+/**
+*
+* Initialize from the clock.
+*
+*/
+
+    public RanXoshiro256StarStar() {
+	super(ClockSeed());
+    }
+
+/**
+*
+* Initialize with a long seed.
+*
+* @param seed the seed
+*
+*/
+
+    public RanXoshiro256StarStar(long seed) {
+	super(seed);
+    }
+
+/**
+*
+* Initialize from a date.
+*
+* @param d a date,  typically <CODE>new Date()</CODE>
+*
+*/
+
+    public RanXoshiro256StarStar(Date d) {
+	super(ClockSeed(d));
+    }
+
+/**
+*
+* Initialize with a full state.
+*
+* @param state four longs,  not all zero
+*
+*/
+
+    public RanXoshiro256StarStar(long state[]) {
+	super(state);
+    }
+
+/**
+* @return a uniform 64 bits integer
+*/
+
+    public final long rawLong() {
+	long r = Long.rotateLeft(s1 * 5, 7) * 9;
+	step();
+	return r;
+    }
+
+/**
+* @see RandomElement#raw
+*/
+
+    public final double raw() {
+	long r = Long.rotateLeft(s1 * 5, 7) * 9;
+	step();
+	return (r >>> 11) * 0x1.0p-53;
+    }
+
+/**
+* This is an inline version that returns an array of doubles for speed.
+*/
+
+    public final void raw(double d[], int n) {
+	long a = s0, b = s1, c = s2, e = s3;
+	for (int i = 0; i < n; i++) {
+	    d[i] = (Long.rotateLeft(b * 5, 7) * 9 >>> 11) * 0x1.0p-53;
+	    long t = b << 17;
+	    c ^= a;
+	    e ^= b;
+	    b ^= c;
+	    a ^= e;
+	    c ^= t;
+	    e = Long.rotateLeft(e, 45);
+	}
+	s0 = a;
+	s1 = b;
+	s2 = c;
+	s3 = e;
+    }
+
+};
@@ -1,5 +1,9 @@
 package edu.cornell.lassp.houle.RngPack;
 import java.util.*;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
 
 //
 // RngPack 1.1a by Paul Houle
@@ -15,8 +19,25 @@ import java.util.*;
 * output can be piped to another application.
 * See <A HREF="../RandomApp.txt">RandomApp</A> documentation for
 * how to run it.
-* 
 *
+* <P>
+* Two more modes help to choose a generator:
+* <UL>
+* <LI><TT>benchmark</TT> times each generator (or the selected one) for
+* each distribution (or the selected one),  and prints the ns/sample and
+* samples/sec of the single-value path,  of the bulk path when the
+* distribution has one,  and of both paths run by <TT>threads N</TT>
+* threads,  each with its own generator.  The count is the number of
+* samples per measurement,  10000000 by default,  split evenly between
+* the threads.
+* <LI><TT>output FILE</TT> writes the numbers to FILE as raw big-endian
+* doubles (as <CODE>DataOutputStream</CODE> writes them) through a buffered
+* NIO channel,  instead of printing them.
+* </UL>
+* <PRE>
+* java edu.cornell.lassp.houle.RngPack.RandomApp benchmark threads 4
+* java edu.cornell.lassp.houle.RngPack.RandomApp ranmt gaussian 100000000 output normal.bin
+* </PRE>
 *
 * <P>
 * <A HREF="/RngPack/src/edu/cornell/lassp/houle/RngPack/RandomApp.java">
@@ -31,11 +52,17 @@ import java.util.*;
 
 public class RandomApp {
 
-    static String generators[]={"ranmar","ranecu","ranlux","randomjava","null","ranmt"};
+    static String generators[]={"ranmar","ranecu","ranlux","randomjava","null","ranmt","ranphilox",
+				  "xoshiro256starstar","xoshiro256plus","splitmix64"};
     static String distributions[]={"flat","gaussian","choose1","choose2","coin1","coin2"};
     
-    static final int RANMAR=0,RANECU=1,RANLUX=2,RANJAVA=3,NULL=4,RANMT=5;
+    static final int RANMAR=0,RANECU=1,RANLUX=2,RANJAVA=3,NULL=4,RANMT=5,RANPHILOX=6,
+	XOSHIRO256SS=7,XOSHIRO256P=8,SPLITMIX64=9;
     static final int FLAT=0,GAUSSIAN=1,CHOOSE1=2,CHOOSE2=3,COIN1=4,COIN2=5;
+
+    static final int BENCHMARK_COUNT=10000000;
+    // doubles written per block in binary output mode
+    static final int BLOCK=8192;
     
     public static void main(String args[]) {
 	
@@ -49,6 +76,9 @@ public class RandomApp {
 	boolean seeded=false,gselected=false,dselected=false;
 	boolean noprint=false,numbered=false;
 	boolean luxuryset=false;
+	boolean benchmark=false;
+	int threads=1;
+	String output=null;
 	
 	generator=RANMAR;
 	distribution=FLAT;
@@ -68,6 +98,36 @@ public class RandomApp {
 		    continue;
 		};
 		
+		if (a=="benchmark") {
+		    benchmark=true;
+		    continue;
+		};
+		
+		if (a=="threads") {
+		    if (i==args.length-1) 
+			die("RandomApp: missing number of threads.");
+		    
+		    i++;
+		    try { threads=Integer.parseInt(args[i]); }
+		    catch (NumberFormatException ex) {
+			die("RandomApp: number of threads is not a valid number.");};
+		    
+		    if (threads<1)
+			die("RandomApp: number of threads must be positive.");
+		    continue;
+		};
+		
+		if (a=="output") {
+		    if (output!=null)
+			die("RandomApp: only one output file can be passed");
+		    if (i==args.length-1) 
+			die("RandomApp: missing output file.");
+		    
+		    i++;
+		    output=args[i];
+		    continue;
+		};
+		
 		if (a=="seed") {
 		    if (seeded)
 			die("RandomApp: only one seed can be passed");
@@ -138,40 +198,30 @@ public class RandomApp {
 		    };
 	    };
 	
-	e=null;
+	if (benchmark) {
+	    if (!numbered)
+		n=BENCHMARK_COUNT;
+	    benchmark(gselected ? generator : -1,dselected ? distribution : -1,
+		      n,threads,seed,luxury);
+	    return;
+	};
 	
-	if (generator==RANMAR) {
-	    e=new Ranmar(seed);
-	} else if (generator==RANECU) {
-	    e=new Ranecu(seed);
-	} else if (generator==RANLUX) {
-	    e=new Ranlux(luxury,seed);
-	} else if (generator==RANJAVA) {
-	    e=new RandomJava();
-	} else if (generator==RANMT) {
-	    e=new RanMT(seed);
-	}
+	e=create(generator,seed,luxury);
+	
+	if (output!=null) {
+	    try {
+		write(e,distribution,n,output);
+	    } catch (IOException ex) {
+		die("RandomApp: cannot write "+output+": "+ex.getMessage());
+	    };
+	    return;
+	};
 	
 	for(i=1;i<=n;i++)
 	    {
 		x=0.0;
-		if (generator!=NULL) {
-		    if(distribution==FLAT) {
-			x=e.raw();
-		    } else if(distribution==GAUSSIAN) {
-			x=e.gaussian();
-		    } else if (distribution==CHOOSE1) {
-			x=e.choose(5);
-		    } else if (distribution==CHOOSE2) {
-			x=e.choose(7,10);
-		    } else if (distribution==COIN1) {
-			x=e.coin() ? 1.0 : 0.0;
-		    } else if (distribution==COIN2) {
-			x=e.coin(0.7) ? 1.0 : 0.0;
-		    } else {
-			die("Invalid distribution: "+distribution);
-		    };
-		};
+		if (generator!=NULL) 
+		    x=sample(e,distribution);
 				
 		if(!noprint) System.out.println(x);
 	    };
@@ -179,6 +229,231 @@ public class RandomApp {
 	
     };
     
+/**
+*
+* Build a generator,  null for the <TT>null</TT> generator.
+*
+*/
+
+    static RandomElement create(int generator,long seed,int luxury) {
+	if (generator==RANMAR) {
+	    return new Ranmar(seed);
+	} else if (generator==RANECU) {
+	    return new Ranecu(seed);
+	} else if (generator==RANLUX) {
+	    return new Ranlux(luxury,seed);
+	} else if (generator==RANJAVA) {
+	    return new RandomJava();
+	} else if (generator==RANMT) {
+	    return new RanMT(seed);
+	} else if (generator==RANPHILOX) {
+	    return new RanPhilox(seed);
+	} else if (generator==XOSHIRO256SS) {
+	    return new RanXoshiro256StarStar(seed);
+	} else if (generator==XOSHIRO256P) {
+	    return new RanXoshiro256Plus(seed);
+	} else if (generator==SPLITMIX64) {
+	    return new RanSplitMix64(seed);
+	}
+	return null;
+    };
+    
+    static double sample(RandomElement e,int distribution) {
+	if(distribution==FLAT) {
+	    return e.raw();
+	} else if(distribution==GAUSSIAN) {
+	    return e.gaussian();
+	} else if (distribution==CHOOSE1) {
+	    return e.choose(5);
+	} else if (distribution==CHOOSE2) {
+	    return e.choose(7,10);
+	} else if (distribution==COIN1) {
+	    return e.coin() ? 1.0 : 0.0;
+	} else if (distribution==COIN2) {
+	    return e.coin(0.7) ? 1.0 : 0.0;
+	};
+	die("Invalid distribution: "+distribution);
+	return 0.0;
+    };
+    
+/**
+*
+* Fill part of an array,  with the bulk methods for the distributions
+* which have one.
+*
+*/
+
+    static void fill(RandomElement e,int distribution,double d[],int n) {
+	if (e==null) {
+	    Arrays.fill(d,0,n,0.0);
+	} else if (distribution==FLAT) {
+	    e.raw(d,n);
+	} else if (distribution==GAUSSIAN) {
+	    e.gaussian(d,n);
+	} else {
+	    for(int i=0;i<n;i++)
+		d[i]=sample(e,distribution);
+	};
+    };
+    
+    static boolean hasBulk(int distribution) {
+	return distribution==FLAT || distribution==GAUSSIAN;
+    };
+    
+/**
+*
+* Write n numbers to a file as raw big-endian doubles.
+*
+*/
+
+    static void write(RandomElement e,int distribution,int n,String file)
+	throws IOException {
+	FileOutputStream out=new FileOutputStream(file);
+	try {
+	    FileChannel channel=out.getChannel();
+	    ByteBuffer bytes=ByteBuffer.allocateDirect(8*BLOCK);
+	    DoubleBuffer doubles=bytes.asDoubleBuffer();
+	    double d[]=new double[BLOCK];
+	    for(int done=0;done<n;) {
+		int count=Math.min(BLOCK,n-done);
+		fill(e,distribution,d,count);
+		doubles.clear();
+		doubles.put(d,0,count);
+		bytes.clear();
+		bytes.limit(8*count);
+		while(bytes.hasRemaining())
+		    channel.write(bytes);
+		done+=count;
+	    };
+	} finally {
+	    out.close();
+	};
+    };
+    
+/**
+*
+* Time the generators and print one line per generator,  distribution
+* and path.  A negative generator or distribution selects all of them.
+*
+*/
+
+    static void benchmark(int generator,int distribution,int n,int threads,
+			  long seed,int luxury) {
+	System.out.println("generator           distribution  path         ns/sample      samples/sec");
+	for(int g=0;g<generators.length;g++) {
+	    if (g==NULL || (generator>=0 && g!=generator))
+		continue;
+	    for(int dist=0;dist<distributions.length;dist++) {
+		if (distribution>=0 && dist!=distribution)
+		    continue;
+		report(g,dist,"single",timeSingle(create(g,seed,luxury),dist,n),n);
+		if (hasBulk(dist))
+		    report(g,dist,"bulk",timeBulk(create(g,seed,luxury),dist,n),n);
+		if (threads>1 && n>=threads) {
+		    // each thread draws n/threads samples
+		    int drawn=threads*(n/threads);
+		    report(g,dist,threads+" threads",timeThreads(g,dist,n,threads,seed,luxury,false),drawn);
+		    if (hasBulk(dist))
+			report(g,dist,threads+" thr bulk",timeThreads(g,dist,n,threads,seed,luxury,true),drawn);
+		};
+	    };
+	};
+    };
+    
+    static void report(int g,int dist,String path,long nanos,int n) {
+	double ns=nanos/(double) n;
+	System.out.println(pad(generators[g],20)+pad(distributions[dist],14)+pad(path,13)
+			   +pad(String.valueOf(Math.round(ns*100)/100.0),15)
+			   +Math.round(1e9/ns));
+    };
+    
+    static String pad(String s,int width) {
+	StringBuffer b=new StringBuffer(s);
+	while(b.length()<width)
+	    b.append(' ');
+	return b.toString();
+    };
+    
+    // sums are accumulated here so the loops are not optimized away
+    static double sink;
+    
+    static long timeSingle(RandomElement e,int distribution,int n) {
+	// warm up the compiler first
+	single(e,distribution,Math.min(n,1000000));
+	long start=System.nanoTime();
+	sink+=single(e,distribution,n);
+	return System.nanoTime()-start;
+    };
+    
+    static double single(RandomElement e,int distribution,int n) {
+	double sum=0.0;
+	for(int i=0;i<n;i++)
+	    sum+=sample(e,distribution);
+	return sum;
+    };
+    
+    static long timeBulk(RandomElement e,int distribution,int n) {
+	double d[]=new double[BLOCK];
+	bulk(e,distribution,d,Math.min(n,1000000));
+	long start=System.nanoTime();
+	sink+=bulk(e,distribution,d,n);
+	return System.nanoTime()-start;
+    };
+    
+    static double bulk(RandomElement e,int distribution,double d[],int n) {
+	double sum=0.0;
+	for(int done=0;done<n;done+=d.length) {
+	    int count=Math.min(d.length,n-done);
+	    fill(e,distribution,d,count);
+	    sum+=d[count-1];
+	};
+	return sum;
+    };
+    
+/**
+*
+* Time n samples split between threads,  each with its own generator
+* seeded with seed+t,  with the single-value or the bulk methods.  Each
+* thread draws n/threads samples.  Returns the wall-clock time.
+*
+*/
+
+    static long timeThreads(final int generator,final int distribution,int n,
+			    int threads,long seed,int luxury,final boolean bulk) {
+	Thread workers[]=new Thread[threads];
+	final double sums[]=new double[threads];
+	long start=0;
+	for(int pass=0;pass<2;pass++) {
+	    // the first pass warms up the compiler
+	    final int count=pass==0 ? Math.min(n,1000000)/threads : n/threads;
+	    for(int t=0;t<threads;t++) {
+		final int k=t;
+		final RandomElement e=create(generator,seed+t,luxury);
+		workers[t]=new Thread() {
+		    public void run() {
+			if (bulk)
+			    sums[k]=bulk(e,distribution,new double[BLOCK],count);
+			else
+			    sums[k]=single(e,distribution,count);
+		    }
+		};
+	    };
+	    start=System.nanoTime();
+	    for(int t=0;t<threads;t++)
+		workers[t].start();
+	    try {
+		for(int t=0;t<threads;t++)
+		    workers[t].join();
+	    } catch (InterruptedException ex) {
+		die("RandomApp: interrupted");
+	    };
+	};
+	long elapsed=System.nanoTime()-start;
+	for(int t=0;t<threads;t++)
+	    sink+=sums[t];
+	return elapsed;
+    };
+    
     static void die(String s) {
 	System.err.println(s);
 	System.exit(-1);
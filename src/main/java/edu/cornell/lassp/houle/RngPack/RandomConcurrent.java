@@ -0,0 +1,162 @@
+package edu.cornell.lassp.houle.RngPack;
+
+import java.util.*;
+
+/**
+*
+* RandomConcurrent is a thread-safe <CODE>RandomElement</CODE> that does
+* not lock:  each thread draws from its own substream,  split from a
+* master generator.  Where <CODE>RandomSynchronized</CODE> makes threads
+* wait for each other on every number,  the throughput of
+* RandomConcurrent grows with the number of threads.
+*
+* <P>
+* Substream <CODE>k</CODE> is always the generator returned by the
+* <CODE>k+1</CODE>-th <CODE>split()</CODE> of the master,  so the numbers
+* are reproducible for a given seed as soon as the assignment of threads
+* to substreams is:  a thread which does not call <CODE>bind()</CODE> gets
+* the lowest substream not held by another thread the first time it draws
+* a number,  which depends on the scheduling;  bind each task to a fixed
+* substream when this matters,  before any unbound thread draws.  A
+* substream is held by one thread at a time:  binding a thread to a
+* substream held by another one throws an
+* <CODE>IllegalStateException</CODE>,  and a thread releases its
+* substream only when it is bound to another one.
+*
+* <PRE>
+* final RandomConcurrent e=new RandomConcurrent(new RanXoshiro256StarStar(seed));
+* // in task k
+* e.bind(k);
+* double x=e.gaussian();
+* </PRE>
+*
+* @see RandomSynchronized
+* @see RandomSplittable#split()
+*/
+
+public class RandomConcurrent extends RandomElement {
+
+    private final RandomSplittable master;
+    // substreams already split from the master,  in order
+    private final List<RandomSplittable> streams=new ArrayList<RandomSplittable>();
+    // substreams held by a thread
+    private final BitSet claimed=new BitSet();
+
+    // substream of the thread,  null until it is bound or draws a number
+    private final ThreadLocal<Integer> held=new ThreadLocal<Integer>();
+    private final ThreadLocal<RandomSeedable> local=new ThreadLocal<RandomSeedable>() {
+	protected RandomSeedable initialValue() {
+	    return claim(-1);
+	}
+    };
+
+/**
+* @param master generator to split.  It is copied,  so it can still be
+* used by the caller.
+*/
+
+    public RandomConcurrent(RandomSplittable master) {
+	this.master=master.copy();
+    }
+
+/**
+*
+* Substream number <CODE>index</CODE>,  split from the master when first
+* requested.  Synchronized,  like the binding of a thread to a substream,
+* which happens once per thread.  The generator is the one used by the
+* thread holding the substream,  if any.
+*
+* @param index number of the substream
+* @return the generator of the substream
+*
+*/
+
+    public synchronized RandomSeedable stream(int index) {
+	if (index<0)
+	    throw new IllegalArgumentException("negative substream: "+index);
+	while (streams.size()<=index)
+	    streams.add(master.split());
+	return streams.get(index);
+    }
+
+/**
+*
+* Bind the calling thread to a substream,  releasing the one it held.
+*
+* @param index number of the substream
+* @throws IllegalStateException if another thread holds the substream
+*
+*/
+
+    public void bind(int index) {
+	if (index<0)
+	    throw new IllegalArgumentException("negative substream: "+index);
+	local.set(claim(index));
+    }
+
+    // claims a substream for the calling thread,  the lowest free one if
+    // index is negative
+    private synchronized RandomSeedable claim(int index) {
+	Integer previous=held.get();
+	if (index<0)
+	    index=claimed.nextClearBit(0);
+	else if (claimed.get(index) && (previous==null || previous.intValue()!=index))
+	    throw new IllegalStateException("substream "+index+" is held by another thread");
+	if (previous!=null)
+	    claimed.clear(previous.intValue());
+	claimed.set(index);
+	held.set(Integer.valueOf(index));
+	return stream(index);
+    }
+
+/**
+* @return the generator of the calling thread
+*/
+
+    public RandomSeedable current() {
+	return local.get();
+    }
+
+/**
+* @see RandomElement#raw
+*/
+
+    public double raw() {
+	return local.get().raw();
+    }
+
+/**
+* @see RandomElement#raw(double[],int)
+*/
+
+    public void raw(double d[],int n) {
+	local.get().raw(d,n);
+    }
+
+/**
+* @see RandomElement#choose(int,int)
+*/
+
+    public int choose(int lo,int hi) {
+	return local.get().choose(lo,hi);
+    }
+
+/**
+* Delegated so that each thread uses the state of its own substream.
+*
+* @see RandomElement#gaussian()
+*/
+
+    public double gaussian() {
+	return local.get().gaussian();
+    }
+
+/**
+* @see RandomElement#gaussian(double[],int)
+*/
+
+    public void gaussian(double d[],int n) {
+	local.get().gaussian(d,n);
+    }
+
+};
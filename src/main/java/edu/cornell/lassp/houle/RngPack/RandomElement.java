@@ -28,8 +28,6 @@ import java.util.*;
 
 public abstract class RandomElement extends Object implements Cloneable {
 
-    Double BMoutput;                // constant needed by Box-Mueller algorithm
-
 /**
  * The abstract method that must be defined to make a working RandomElement.
  * See the class <CODE>RandomJava</CODE> for an example of how to do this.
@@ -123,32 +121,29 @@ public abstract class RandomElement extends Object implements Cloneable {
     }
 
 /** 
-gaussian() uses the Box-Muller algorithm to transform raw()'s into
-gaussian deviates.
+gaussian() uses the Ziggurat method of Marsaglia and Tsang to transform
+raw()'s into gaussian deviates.  No state is kept between calls, so
+nothing is allocated and the generator can be cloned or wrapped at any
+time.
 
 @return a random real with a gaussian distribution,  standard deviation 
-
+@see Ziggurat
 */
  
     public double gaussian() {
-	double out,x,y,r,z;
-	
-	if (BMoutput != null)    
-	    {
-		out = BMoutput.doubleValue();
-		BMoutput = null;
-		return(out);
-	    };
-	
-	do {
-	    x=uniform(-1,1);
-	    y=uniform(-1,1);
-	    r=x*x+y*y;
-	} while (r >= 1.0);
-	
-	z=Math.sqrt(-2.0*Math.log(r)/r);
-	BMoutput=new Double(x*z);
-	return(y*z); 
+	return Ziggurat.normal(this);
+    }
+
+/**
+* Fill part or all of an array with gaussian deviates.  The uniform
+* numbers are drawn by blocks with <CODE>raw(double d[],int n)</CODE>.
+*
+* @param d array to be filled
+* @param n number of deviates to generate
+*/
+
+    public void gaussian(double d[],int n) {
+	Ziggurat.normal(this,d,n);
     }
     
 
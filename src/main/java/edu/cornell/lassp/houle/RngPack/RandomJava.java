@@ -41,5 +41,15 @@ public class RandomJava extends RandomElement {
   	return Math.random();
   };	
 
+/**
+* Fill part or all of an array with <CODE>Math.random()</CODE>,  without
+* a virtual call per element.
+@see RandomElement#raw(double[],int)
+*/
+  public void raw(double d[],int n) {
+	for(int i=0;i<n;i++)
+		d[i]=Math.random();
+  };
+
 };
 
@@ -74,6 +74,43 @@ public abstract class RandomSeedable extends RandomElement {
    {
       return ClockSeed(new Date());
    };
+
+/**
+*
+* Advance the generator by <CODE>n</CODE> numbers,  as if
+* <CODE>raw()</CODE> had been called <CODE>n</CODE> times.  This default
+* implementation does call <CODE>raw()</CODE> <CODE>n</CODE> times;
+* generators with a jump-ahead algorithm override it.
+*
+* @param n number of values to skip,  positive
+*
+*/
+
+   public void jump(long n)
+   {
+      if (n < 0)
+         throw new IllegalArgumentException("cannot jump backwards: " + n);
+      for (long i = 0; i < n; i++)
+         raw();
+   };
+
+/**
+*
+* Copy of this generator with a state independent from this one.
+*
+* @return a generator that will produce the same numbers as this one
+*
+*/
+
+   RandomSeedable copy()
+   {
+      try {
+         return (RandomSeedable) clone();
+      } catch (CloneNotSupportedException e) {
+         // RandomElement is Cloneable
+         throw new AssertionError(e);
+      }
+   };
 };
 
 
@@ -74,6 +74,40 @@ public double raw() {
 	return random;
 };
 
+/**
+* Fill part or all of an array.  When the two generators are distinct,
+* the choices and the replacement numbers are drawn by blocks with their
+* own <CODE>raw(double d[],int n)</CODE>,  which gives the same sequence
+* as calling <CODE>raw()</CODE> <CODE>n</CODE> times.
+*
+* @see RandomElement#raw(double[],int)
+*/
+
+public void raw(double d[],int n) {
+	if (generatorA==generatorB) {
+		super.raw(d,n);
+		return;
+	};
+
+	int block=Math.min(n,256);
+	double choice[]=new double[block];
+	double fresh[]=new double[block];
+	int hi=decksize-1;
+	for(int start=0;start<n;start+=block) {
+		int count=Math.min(block,n-start);
+		generatorB.raw(choice,count);
+		generatorA.raw(fresh,count);
+		for(int k=0;k<count;k++) {
+			// same as generatorB.choose(0,decksize-1)
+			int i=(int) (hi*choice[k]);
+			if (i>hi)
+				i=hi;
+			d[start+k]=deck[i];
+			deck[i]=fresh[k];
+		};
+	};
+};
+
 private void stackdeck() {
 
         int i;
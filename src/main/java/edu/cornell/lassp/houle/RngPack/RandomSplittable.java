@@ -0,0 +1,39 @@
+package edu.cornell.lassp.houle.RngPack;
+
+/**
+*
+* <CODE>RandomSplittable</CODE> is an abstract class that extends the
+* <CODE>RandomSeedable</CODE> class with the ability to split off
+* disjoint substreams,  for instance one per parallel job.  Generators
+* with a jump-ahead algorithm,  or a counter,  extend it;  it is the
+* type required by <CODE>RandomConcurrent</CODE>.
+*
+* @see RandomConcurrent
+* @see RanMT
+* @see Ranecu
+* @see Ranmar
+* @see RanPhilox
+* @see RanXoshiro256
+* @see RanSplitMix64
+*/
+
+public abstract class RandomSplittable extends RandomSeedable {
+
+/**
+*
+* Split off a substream.  Returns a new generator starting at the current
+* state of this one,  then jumps this generator past the numbers reserved
+* for the new one,  so that the two sequences cannot overlap.  Calling
+* <CODE>split()</CODE> k times hands out k disjoint substreams.
+*
+* @return a generator for the substream split off
+*
+*/
+
+   public abstract RandomSplittable split();
+
+   RandomSplittable copy()
+   {
+      return (RandomSplittable) super.copy();
+   };
+};
@@ -31,6 +31,8 @@ import java.io.ObjectInputStream;
 
 public abstract class RandomSynchronized extends RandomElement implements Serializable {
 
+    private static final long serialVersionUID = -2514604227445974488L;
+
     private RandomElement rng;
 
     public RandomSynchronized(RandomElement rng) {
@@ -79,7 +81,7 @@ public abstract class RandomSynchronized extends RandomElement implements Serial
     
 /** 
  *
- * Must be synchronized because state is stored in BMoutput
+ * Wrapped so generators can override.
  *
  * @return a random real with a gaussian distribution,  standard deviation 
  *
@@ -89,6 +91,20 @@ public abstract class RandomSynchronized extends RandomElement implements Serial
 	return rng.gaussian();
     }
 
+/**
+ *
+ * Fill part or all of an array with gaussian deviates,  holding the lock
+ * once for the whole array.
+ *
+ * @param d array to be filled with gaussian deviates
+ * @param n number of deviates to generate
+ *
+ */
+
+    synchronized public void gaussian(double d[],int n) {
+	rng.gaussian(d,n);
+    }
+
 /**
  *
  * We wouldn't want some sneaky person to serialize this in the middle
@@ -31,7 +31,9 @@ import java.io.Serializable;
 */
 
 
-public class Ranecu extends RandomSeedable implements Serializable {
+public class Ranecu extends RandomSplittable implements Serializable {
+
+private static final long serialVersionUID = -4437743408395807931L;
 
 int iseed1,iseed2;                 
 
@@ -170,6 +172,69 @@ final public void raw(double d[],int n)
 
 public long getSeed() { return iseed1*(long) Integer.MAX_VALUE + iseed2; };
 
+/**
+* Number of values reserved for each substream by <CODE>split()</CODE>:
+* 2<SUP>40</SUP>,  which leaves room for about two million substreams
+* within the period.
+*/
+public static final long SPLIT_STRIDE = 1L << 40;
+
+/**
+*
+* Jump ahead by <CODE>n</CODE> numbers in O(log n) operations,  by modular
+* exponentiation of the multipliers of the two underlying linear
+* congruential generators.
+*
+* @param n number of values to skip
+*
+*/
+
+public void jump(long n) {
+    if (n < 0)
+	throw new IllegalArgumentException("cannot jump backwards: " + n);
+    if (n == 0)
+	return;
+
+    // one regular step brings seeds into [0,m) where the step is exactly a*s mod m
+    int k;
+    k=iseed1/53668;
+    iseed1=40014*(iseed1-k*53668)-k*12211;
+    if (iseed1<0) iseed1=iseed1+2147483563;
+
+    k=iseed2/52774;
+    iseed2=40692*(iseed2-k*52774)-k*3791;
+    if (iseed2<0) iseed2=iseed2+2147483399;
+
+    iseed1 = (int) (powMod(40014, n - 1, 2147483563) * iseed1 % 2147483563);
+    iseed2 = (int) (powMod(40692, n - 1, 2147483399) * iseed2 % 2147483399);
+};
+
+/**
+*
+* Split off a substream of <CODE>SPLIT_STRIDE</CODE> numbers.
+*
+* @see RandomSplittable#split()
+*
+*/
+
+public RandomSplittable split() {
+    RandomSplittable s = copy();
+    jump(SPLIT_STRIDE);
+    return s;
+};
+
+private static long powMod(long a, long e, long m) {
+    long r = 1;
+    a %= m;
+    while (e > 0) {
+	if ((e & 1) != 0)
+	    r = r * a % m;
+	a = a * a % m;
+	e >>>= 1;
+    }
+    return r;
+};
+
 };
 
 
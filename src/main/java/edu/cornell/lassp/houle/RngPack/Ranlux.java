@@ -91,6 +91,8 @@ import java.io.Serializable;
 
 public class Ranlux extends RandomSeedable implements Serializable {
 
+private static final long serialVersionUID = 9031187211664670376L;
+
 /**
 * Maximum luxury level: <CODE>maxlev=4</CODE>
 */
@@ -292,6 +294,63 @@ public final double raw() {
     return out;
 };
 
+/**
+* This is an inline version that returns an array of doubles for speed.
+* The state is kept in local variables during the loop and the skipped
+* numbers are generated once every 24 values,  as in <CODE>raw()</CODE>.
+*/
+
+public final void raw(double d[],int n) {
+    int i,k;
+    float uni,out;
+    float s[]=seeds;
+    float c=carry;
+    int p=i24,q=j24,m=in24;
+
+    for(i=0;i<n;i++) {
+        uni=s[q]-s[p]-c;
+        if (uni < (float) 0.0) {
+            uni=uni+ (float) 1.0;
+            c = twom24;
+        } else c = (float) 0.0;
+        s[p]=uni;
+        p=next[p];
+        q=next[q];
+
+        out=uni;
+        if (uni<twom12)
+            out += twom24*s[q];
+
+        if (out==0.0) out = twom24*twom24;
+        d[i]=out;
+
+        m++;
+        if(m == 24) {
+            m=0;
+            kount += nskip;
+            for(k=1;k<=nskip;k++) {
+                uni=s[q]-s[p]-c;
+                if (uni < (float) 0.0) {
+                    uni=uni+ (float) 1.0;
+                    c = twom24;
+                } else c = (float) 0.0;
+                s[p]=uni;
+                p=next[p];
+                q=next[q];
+            }
+        }
+        kount++;
+        if (kount>=igiga) {
+            mkount++;
+            kount -= igiga;
+        };
+    };
+    carry=c;
+    i24=p;
+    j24=q;
+    in24=m;
+};
+
 private void init_arrays() {
 
 /*
@@ -34,7 +34,9 @@ import java.io.Serializable;
 */
 
 
-public class Ranmar extends RandomSeedable implements Serializable {
+public class Ranmar extends RandomSplittable implements Serializable {
+
+private static final long serialVersionUID = -4951639217166389550L;
 
 double c,cd,cm,u[],uvec[] ;
 int i97,j97 ;
@@ -211,6 +213,120 @@ final public void raw(double d[],int n) {
 	};
 };
 
+/**
+* Number of values reserved for each substream by <CODE>split()</CODE>:
+* 2<SUP>62</SUP>.
+*/
+public static final long SPLIT_STRIDE = 1L << 62;
+
+/**
+*
+* Jump ahead by <CODE>n</CODE> numbers in O(log n) polynomial operations.
+*
+* <P>
+* <TT>RANMAR</TT> combines two generators.  All its values are multiples
+* of 2<SUP>-24</SUP>,  so the lagged Fibonacci part
+* <CODE>x(k)=x(k-97)-x(k-33) mod 1</CODE> is a linear recurrence over the
+* integers modulo 2<SUP>24</SUP>:  the lags of the state
+* <CODE>n</CODE> steps ahead are combinations of the current lags whose
+* coefficients are those of <CODE>t<SUP>n</SUP></CODE> modulo the
+* characteristic polynomial <CODE>t<SUP>97</SUP>+t<SUP>64</SUP>-1</CODE>.
+* The arithmetic sequence <CODE>c(k)=c(k-1)-cd mod cm</CODE> is advanced
+* directly.
+*
+* @param n number of values to skip
+*
+*/
+
+public void jump(long n) {
+	if (n < 0)
+	    throw new IllegalArgumentException("cannot jump backwards: " + n);
+	if (n == 0)
+	    return;
+
+	// x(k-97+j) for j=0..96,  in units of 2^-24
+	long x[] = new long[97];
+	for (int j = 0; j < 97; j++)
+	    x[j] = Math.round(u[(i97 - j + 97) % 97] * 16777216.0);
+
+	long g[] = lagPolynomial(n);
+	long y[] = new long[97];
+	for (int j = 0; j < 97; j++) {
+	    long sum = 0;
+	    for (int i = 0; i < 97; i++)
+		sum = (sum + g[i] * x[i]) & 0xffffff;
+	    y[j] = sum;
+	    lagTimesT(g);
+	}
+
+	int shift = (int) (n % 97);
+	i97 = (i97 - shift + 97) % 97;
+	j97 = (j97 - shift + 97) % 97;
+	for (int j = 0; j < 97; j++)
+	    u[(i97 - j + 97) % 97] = y[j] / 16777216.0;
+
+	long ic = Math.round(c * 16777216.0);
+	long icd = Math.round(cd * 16777216.0);
+	long icm = Math.round(cm * 16777216.0);
+	ic = ((ic - (n % icm) * icd % icm) % icm + icm) % icm;
+	c = ic / 16777216.0;
+};
+
+/**
+*
+* Split off a substream of <CODE>SPLIT_STRIDE</CODE> numbers.
+*
+* @see RandomSplittable#split()
+*
+*/
+
+public RandomSplittable split() {
+	RandomSplittable s = copy();
+	jump(SPLIT_STRIDE);
+	return s;
+};
+
+RandomSplittable copy() {
+	Ranmar r = (Ranmar) super.copy();
+	r.u = u.clone();
+	r.uvec = uvec.clone();
+	return r;
+};
+
+/*
+* t^n modulo t^97+t^64-1,  coefficients modulo 2^24
+*/
+
+private static long[] lagPolynomial(long n) {
+	long r[] = new long[97];
+	r[0] = 1;
+	for (int b = 63 - Long.numberOfLeadingZeros(n); b >= 0; b--) {
+	    long s[] = new long[2 * 97 - 1];
+	    for (int i = 0; i < 97; i++)
+		if (r[i] != 0)
+		    for (int j = 0; j < 97; j++)
+			s[i + j] += r[i] * r[j];
+	    for (int k = s.length - 1; k >= 97; k--) {
+		long a = s[k] & 0xffffff;
+		s[k - 97] += a;
+		s[k - 33] -= a;
+	    }
+	    for (int i = 0; i < 97; i++)
+		r[i] = s[i] & 0xffffff;
+	    if (((n >>> b) & 1) != 0)
+		lagTimesT(r);
+	}
+	return r;
+};
+
+private static void lagTimesT(long r[]) {
+	long top = r[96];
+	for (int i = 96; i > 0; i--)
+	    r[i] = r[i - 1];
+	r[0] = top;
+	r[64] = (r[64] - top) & 0xffffff;
+};
+
 
 };
 
@@ -0,0 +1,206 @@
+package edu.cornell.lassp.houle.RngPack;
+
+/**
+*
+* <CODE>Ziggurat</CODE> turns the uniform deviates of any
+* <CODE>RandomElement</CODE> into standard normal and exponential deviates
+* with the table-driven Ziggurat method of Marsaglia and Tsang.  About 99%
+* of the samples cost two calls to <CODE>raw()</CODE>, one multiplication
+* and one comparison:  no logarithm, square root or trigonometric function
+* is evaluated outside of the rare wedge and tail cases.
+*
+* <P>
+* The tables are built once, in double precision, following the
+* floating point formulation of Doornik.  One <CODE>raw()</CODE> selects the
+* layer (and the sign for normal deviates),  another one the abscissa,  so
+* generators with only 24 or 32 bits of precision such as <TT>RANMAR</TT>
+* or <TT>RANECU</TT> can be used.
+*
+* <BR>
+* <B>REFERENCES:</B>
+* <BR>
+* G. Marsaglia and W.-W. Tsang, <CITE>Journal of Statistical Software</CITE> <STRONG>5</STRONG> (2000) 8
+* <BR>
+* J. A. Doornik, <CITE>An Improved Ziggurat Method to Generate Normal Random Samples</CITE> (2005)
+*
+* @see RandomElement#gaussian()
+*/
+
+public final class Ziggurat {
+
+    private static final int NORMAL_LAYERS = 128;
+    private static final double NORMAL_R = 3.442619855899;
+    private static final double NORMAL_V = 9.91256303526217e-3;
+
+    private static final int EXP_LAYERS = 256;
+
+    // number of deviates generated from one block of uniform numbers
+    private static final int BLOCK = 256;
+    private static final double EXP_R = 7.69711747013104972;
+    private static final double EXP_V = 3.949659822581572e-3;
+
+    // layer abscissae x[i] (decreasing, x[LAYERS]=0), ratios x[i+1]/x[i]
+    // and density at the abscissae
+    private static final double normalX[] = new double[NORMAL_LAYERS + 1];
+    private static final double normalRatio[] = new double[NORMAL_LAYERS];
+    private static final double normalF[] = new double[NORMAL_LAYERS + 1];
+
+    private static final double expX[] = new double[EXP_LAYERS + 1];
+    private static final double expRatio[] = new double[EXP_LAYERS];
+    private static final double expF[] = new double[EXP_LAYERS + 1];
+
+    static {
+	double f = Math.exp(-0.5 * NORMAL_R * NORMAL_R);
+	normalX[0] = NORMAL_V / f;
+	normalX[1] = NORMAL_R;
+	normalX[NORMAL_LAYERS] = 0;
+	for (int i = 2; i < NORMAL_LAYERS; i++) {
+	    normalX[i] = Math.sqrt(-2 * Math.log(NORMAL_V / normalX[i - 1] + f));
+	    f = Math.exp(-0.5 * normalX[i] * normalX[i]);
+	}
+	for (int i = 0; i < NORMAL_LAYERS; i++)
+	    normalRatio[i] = normalX[i + 1] / normalX[i];
+	for (int i = 0; i <= NORMAL_LAYERS; i++)
+	    normalF[i] = Math.exp(-0.5 * normalX[i] * normalX[i]);
+
+	f = Math.exp(-EXP_R);
+	expX[0] = EXP_V / f;
+	expX[1] = EXP_R;
+	expX[EXP_LAYERS] = 0;
+	for (int i = 2; i < EXP_LAYERS; i++) {
+	    expX[i] = -Math.log(EXP_V / expX[i - 1] + f);
+	    f = Math.exp(-expX[i]);
+	}
+	for (int i = 0; i < EXP_LAYERS; i++)
+	    expRatio[i] = expX[i + 1] / expX[i];
+	for (int i = 0; i <= EXP_LAYERS; i++)
+	    expF[i] = Math.exp(-expX[i]);
+    }
+
+    private Ziggurat() {
+    }
+
+/**
+* @param e generator of uniform deviates
+* @return a standard normal deviate (mean 0, standard deviation 1)
+*/
+
+    public static double normal(RandomElement e) {
+	for (;;) {
+	    double x = normal(e, e.raw(), e.raw());
+	    if (x == x)
+		return x;
+	}
+    }
+
+/**
+* Fill part or all of an array with standard normal deviates.  The two
+* uniform numbers of each try are drawn by blocks with
+* <CODE>raw(double d[],int n)</CODE>;  the rare tries rejected by the
+* fast test continue with single calls to <CODE>raw()</CODE>.
+*
+* @param e generator of uniform deviates
+* @param d array to be filled
+* @param n number of deviates to generate
+*/
+
+    public static void normal(RandomElement e, double d[], int n) {
+	double u[] = new double[2 * Math.min(n, BLOCK)];
+	for (int start = 0; start < n; start += BLOCK) {
+	    int count = Math.min(BLOCK, n - start);
+	    e.raw(u, 2 * count);
+	    for (int i = 0; i < count; i++) {
+		double x = normal(e, u[2 * i], u[2 * i + 1]);
+		d[start + i] = (x == x) ? x : normal(e);
+	    }
+	}
+    }
+
+/*
+* One try from the uniform numbers selecting the layer and the abscissa,
+* NaN if it is rejected.
+*/
+
+    private static double normal(RandomElement e, double layer, double u) {
+	int k = (int) (layer * (2 * NORMAL_LAYERS));
+	if (k >= 2 * NORMAL_LAYERS)
+	    k = 2 * NORMAL_LAYERS - 1;   // raw() may return exactly 1
+	int i = k & (NORMAL_LAYERS - 1);
+	if (u < normalRatio[i]) {
+	    double x = u * normalX[i];
+	    return (k < NORMAL_LAYERS) ? x : -x;
+	}
+	if (i == 0) {
+	    // base layer: sample from the tail beyond R
+	    double x, y;
+	    do {
+		x = Math.log(nonZero(e)) / NORMAL_R;
+		y = Math.log(nonZero(e));
+	    } while (-2 * y < x * x);
+	    return (k < NORMAL_LAYERS) ? NORMAL_R - x : x - NORMAL_R;
+	}
+	// wedge between layers i and i+1
+	double x = u * normalX[i];
+	if (normalF[i] + e.raw() * (normalF[i + 1] - normalF[i]) < Math.exp(-0.5 * x * x))
+	    return (k < NORMAL_LAYERS) ? x : -x;
+	return Double.NaN;
+    }
+
+/**
+* @param e generator of uniform deviates
+* @return an exponential deviate with mean 1
+*/
+
+    public static double exponential(RandomElement e) {
+	for (;;) {
+	    double x = exponential(e, e.raw(), e.raw());
+	    if (x == x)
+		return x;
+	}
+    }
+
+/**
+* Fill part or all of an array with exponential deviates of mean 1,
+* drawing the uniform numbers by blocks.
+*
+* @param e generator of uniform deviates
+* @param d array to be filled
+* @param n number of deviates to generate
+*/
+
+    public static void exponential(RandomElement e, double d[], int n) {
+	double u[] = new double[2 * Math.min(n, BLOCK)];
+	for (int start = 0; start < n; start += BLOCK) {
+	    int count = Math.min(BLOCK, n - start);
+	    e.raw(u, 2 * count);
+	    for (int i = 0; i < count; i++) {
+		double x = exponential(e, u[2 * i], u[2 * i + 1]);
+		d[start + i] = (x == x) ? x : exponential(e);
+	    }
+	}
+    }
+
+    private static double exponential(RandomElement e, double layer, double u) {
+	int i = (int) (layer * EXP_LAYERS);
+	if (i >= EXP_LAYERS)
+	    i = EXP_LAYERS - 1;
+	if (u < expRatio[i])
+	    return u * expX[i];
+	if (i == 0)
+	    // the exponential tail beyond R is R plus an exponential deviate
+	    return EXP_R - Math.log(nonZero(e));
+	double x = u * expX[i];
+	if (expF[i] + e.raw() * (expF[i + 1] - expF[i]) < Math.exp(-x))
+	    return x;
+	return Double.NaN;
+    }
+
+    private static double nonZero(RandomElement e) {
+	double u;
+	do {
+	    u = e.raw();
+	} while (u <= 0.0);
+	return u;
+    }
+
+};
@@ -1,8 +1,12 @@
 package org.math.array;
 
+import java.util.Arrays;
+
 import org.math.array.util.Function;
 import org.math.array.util.IndexFunction;
 import org.math.array.util.Random;
+import org.math.array.util.RadixSort;
+import org.math.array.util.Selection;
 import org.math.array.util.Sorting;
 
 /**
@@ -1727,9 +1731,34 @@ public class DoubleArray {
 	 * @return Sorted version of input array.
 	 */
 	public static double[] sort(double[] values) {
+		int[] index = RadixSort.order(values);
+		double[] sorted_values = new double[values.length];
+		for (int i = 0; i < sorted_values.length; i++)
+			sorted_values[i] = values[index[i]];
+		return sorted_values;
+	}
+
+	/**
+	 * Gives the ascending order of an array, without sorting it. The sort is
+	 * stable, and NaN values are put last, as with Sorting.getIndex().
+	 * @param values Input array
+	 * @return Index of the values in sorted order.
+	 */
+	public static int[] sortIndex(double[] values) {
+		return RadixSort.order(values);
+	}
+
+	/**
+	 * Sorts an array in ascending order, using several threads for large
+	 * arrays. The result is the same as with sort(values).
+	 * @param values Input array
+	 * @param threads Number of threads.
+	 * @return Sorted version of input array.
+	 */
+	public static double[] sort(double[] values, int threads) {
 		double[] sorted_values = new double[values.length];
 		System.arraycopy(values, 0, sorted_values, 0, values.length);
-		new Sorting(sorted_values, false);
+		new Sorting(sorted_values, false, threads);
 		return sorted_values;
 	}
 
@@ -1756,14 +1785,210 @@ public class DoubleArray {
 	 * @return Matrix whose rows have been shuffled around.
 	 */
 	public static double[][] sort(double[][] values, int column) {
-		double[][] sorted_values = new double[values.length][values[0].length];
-		Sorting s = new Sorting(getColumnCopy(values, column), false);
-		for (int i = 0; i < sorted_values.length; i++)
-			System.arraycopy(values[s.getIndex(i)], 0, sorted_values[i], 0, values[s.getIndex(i)].length);
+		return sort(values, new int[] { column });
+	}
+
+	/**
+	 * Sorts the rows of a matrix in ascending lexicographic order of several
+	 * columns: by the first column, rows with equal values by the second one,
+	 * and so on. The sort is stable: rows with equal keys keep their order.
+	 * @param values Input matrix
+	 * @param columns Indexes of the columns to be used as the sorting keys.
+	 * @return Matrix whose rows have been shuffled around.
+	 */
+	public static double[][] sort(double[][] values, int... columns) {
+		boolean[] ascending = new boolean[columns.length];
+		Arrays.fill(ascending, true);
+		return sort(values, columns, ascending);
+	}
 
+	/**
+	 * Sorts the rows of a matrix in lexicographic order of several columns,
+	 * each one ascending or descending. The sort is stable, and NaN values
+	 * are put last in both orders.
+	 * @param values Input matrix
+	 * @param columns Indexes of the columns to be used as the sorting keys.
+	 * @param ascending Order of each column.
+	 * @return Matrix whose rows have been shuffled around.
+	 */
+	public static double[][] sort(double[][] values, int[] columns, boolean[] ascending) {
+		int[] index = sortIndex(values, columns, ascending);
+		double[][] sorted_values = new double[values.length][];
+		for (int i = 0; i < sorted_values.length; i++) {
+			sorted_values[i] = new double[values[index[i]].length];
+			System.arraycopy(values[index[i]], 0, sorted_values[i], 0, values[index[i]].length);
+		}
 		return sorted_values;
 	}
 
+	/**
+	 * Sorts the rows of a matrix in place, like sort(values, columns,
+	 * ascending), by permuting the row references: neither rows nor the
+	 * matrix are copied.
+	 * @param values Input matrix, whose rows are reordered.
+	 * @param columns Indexes of the columns to be used as the sorting keys.
+	 * @param ascending Order of each column.
+	 * @return Initial index of each row.
+	 */
+	public static int[] sortRows(double[][] values, int[] columns, boolean[] ascending) {
+		int[] index = sortIndex(values, columns, ascending);
+		// follow the cycles of the permutation, marking the visited entries
+		for (int start = 0; start < index.length; start++) {
+			if (index[start] < 0 || index[start] == start)
+				continue;
+			double[] first = values[start];
+			int i = start;
+			while (index[i] != start) {
+				int next = index[i];
+				values[i] = values[next];
+				index[i] = ~next;
+				i = next;
+			}
+			values[i] = first;
+			index[i] = ~start;
+		}
+		for (int i = 0; i < index.length; i++)
+			if (index[i] < 0)
+				index[i] = ~index[i];
+		return index;
+	}
+
+	/**
+	 * Gives the order of the rows of a matrix in lexicographic order of
+	 * several columns, each one ascending or descending, without moving them.
+	 * The sort is stable, and NaN values are put last in both orders.
+	 * @param values Input matrix
+	 * @param columns Indexes of the columns to be used as the sorting keys.
+	 * @param ascending Order of each column.
+	 * @return Index of the rows in sorted order.
+	 */
+	public static int[] sortIndex(double[][] values, int[] columns, boolean[] ascending) {
+		if (columns.length != ascending.length)
+			throw new IllegalArgumentException("One order is needed per column : " + columns.length + " columns, " + ascending.length + " orders.");
+		int n = values.length;
+		int[] index = new int[n];
+		for (int i = 0; i < n; i++)
+			index[i] = i;
+		// least significant key first: each stable pass keeps the order of
+		// the previous ones among equal keys
+		double[] key = new double[n];
+		int[] previous = new int[n];
+		for (int k = columns.length - 1; k >= 0; k--) {
+			int c = columns[k];
+			for (int i = 0; i < n; i++)
+				key[i] = ascending[k] ? values[index[i]][c] : -values[index[i]][c];
+			int[] order = new Sorting(key, false).getIndex();
+			System.arraycopy(index, 0, previous, 0, n);
+			for (int i = 0; i < n; i++)
+				index[i] = previous[order[i]];
+		}
+		return index;
+	}
+
+	/**
+	 * Finds the k smallest values of an array, without sorting it all.
+	 * @param values Input array
+	 * @param k Number of values.
+	 * @return The min(k, n) smallest values in ascending order, NaN last.
+	 */
+	public static double[] smallest(double[] values, int k) {
+		return getCopy(values, Selection.smallest(values, k));
+	}
+
+	/**
+	 * Finds the index of the k smallest values of an array, without sorting
+	 * it all. Equal values keep their order, as with sortIndex(values).
+	 * @param values Input array
+	 * @param k Number of values.
+	 * @return Index of the min(k, n) smallest values in ascending order.
+	 */
+	public static int[] smallestIndex(double[] values, int k) {
+		return Selection.smallest(values, k);
+	}
+
+	/**
+	 * Finds the k largest values of an array, without sorting it all.
+	 * @param values Input array
+	 * @param k Number of values.
+	 * @return The min(k, n) largest values in descending order, NaN last.
+	 */
+	public static double[] largest(double[] values, int k) {
+		return getCopy(values, Selection.largest(values, k));
+	}
+
+	/**
+	 * Finds the index of the k largest values of an array, without sorting
+	 * it all. Equal values keep their order.
+	 * @param values Input array
+	 * @param k Number of values.
+	 * @return Index of the min(k, n) largest values in descending order.
+	 */
+	public static int[] largestIndex(double[] values, int k) {
+		return Selection.largest(values, k);
+	}
+
+	/**
+	 * Finds the k smallest values of each column of a matrix.
+	 * @param values Input matrix
+	 * @param k Number of values.
+	 * @return min(k, m) x n matrix whose columns hold the smallest values of
+	 * the columns of the input matrix, in ascending order.
+	 */
+	public static double[][] smallest(double[][] values, int k) {
+		return getColumnsValues(values, smallestIndex(values, k));
+	}
+
+	/**
+	 * Finds the row index of the k smallest values of each column of a matrix.
+	 * @param values Input matrix
+	 * @param k Number of values.
+	 * @return min(k, m) x n matrix of row indexes, column by column.
+	 */
+	public static int[][] smallestIndex(double[][] values, int k) {
+		int[][] index = new int[Math.min(k, values.length)][values[0].length];
+		for (int j = 0; j < values[0].length; j++) {
+			int[] column = Selection.smallest(getColumnCopy(values, j), k);
+			for (int i = 0; i < index.length; i++)
+				index[i][j] = column[i];
+		}
+		return index;
+	}
+
+	/**
+	 * Finds the k largest values of each column of a matrix.
+	 * @param values Input matrix
+	 * @param k Number of values.
+	 * @return min(k, m) x n matrix whose columns hold the largest values of
+	 * the columns of the input matrix, in descending order.
+	 */
+	public static double[][] largest(double[][] values, int k) {
+		return getColumnsValues(values, largestIndex(values, k));
+	}
+
+	/**
+	 * Finds the row index of the k largest values of each column of a matrix.
+	 * @param values Input matrix
+	 * @param k Number of values.
+	 * @return min(k, m) x n matrix of row indexes, column by column.
+	 */
+	public static int[][] largestIndex(double[][] values, int k) {
+		int[][] index = new int[Math.min(k, values.length)][values[0].length];
+		for (int j = 0; j < values[0].length; j++) {
+			int[] column = Selection.largest(getColumnCopy(values, j), k);
+			for (int i = 0; i < index.length; i++)
+				index[i][j] = column[i];
+		}
+		return index;
+	}
+
+	private static double[][] getColumnsValues(double[][] values, int[][] index) {
+		double[][] selected = new double[index.length][values[0].length];
+		for (int i = 0; i < index.length; i++)
+			for (int j = 0; j < selected[i].length; j++)
+				selected[i][j] = values[index[i][j]][j];
+		return selected;
+	}
+
 	/**
 	 * Transposes an mxn matrix into an nxm matrix. Each row of the input matrix becomes a column in the
 	 * output matrix.
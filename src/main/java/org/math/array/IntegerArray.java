@@ -1,5 +1,7 @@
 package org.math.array;
 
+import org.math.array.util.RadixSort;
+
 /**
  * A collection of static methods for generating, modifying, and reading
  * arrays and matrices of integers.
@@ -1219,6 +1221,47 @@ public class IntegerArray {
 		return str.toString();
 	}
 
+	// sort methods
+
+	/**
+	 * Sorts an array in ascending order.
+	 * @param values Input array
+	 * @return Sorted version of input array.
+	 */
+	public static int[] sort(int[] values) {
+		return RadixSort.sort(values);
+	}
+
+	/**
+	 * Gives the ascending order of an array, without sorting it. The sort is
+	 * stable: equal values keep their order.
+	 * @param values Input array
+	 * @return Index of the values in sorted order.
+	 */
+	public static int[] sortIndex(int[] values) {
+		return RadixSort.argsort(values);
+	}
+
+	/**
+	 * Sorts the rows of a matrix using a specified column as the key. The
+	 * sort is stable: rows with equal keys keep their order.
+	 * @param values Input matrix
+	 * @param column Index of column to be used as the sorting key.
+	 * @return Matrix whose rows have been shuffled around.
+	 */
+	public static int[][] sort(int[][] values, int column) {
+		int[] key = new int[values.length];
+		for (int i = 0; i < key.length; i++)
+			key[i] = values[i][column];
+		int[] index = RadixSort.argsort(key);
+		int[][] sorted_values = new int[values.length][];
+		for (int i = 0; i < sorted_values.length; i++) {
+			sorted_values[i] = new int[values[index[i]].length];
+			System.arraycopy(values[index[i]], 0, sorted_values[i], 0, values[index[i]].length);
+		}
+		return sorted_values;
+	}
+
 	// transpose
 
 	/**
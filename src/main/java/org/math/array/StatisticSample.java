@@ -20,8 +20,7 @@ public class StatisticSample extends DoubleArray {
     protected static int[][] randomInt(int m, int n, int i0, int i1) {
         int[][] A = new int[m][n];
         for (int i = 0; i < A.length; i++)
-            for (int j = 0; j < A[i].length; j++)
-                A[i][j] = Random.randInt(i0, i1);
+            Random.randInt(A[i], n, i0, i1);
         return A;
     }
 
@@ -34,8 +33,7 @@ public class StatisticSample extends DoubleArray {
 	 */
     protected static int[] randomInt(int m, int i0, int i1) {
         int[] A = new int[m];
-        for (int i = 0; i < A.length; i++)
-            A[i] = Random.randInt(i0, i1);
+        Random.randInt(A, m, i0, i1);
         return A;
     }
 
@@ -50,8 +48,7 @@ public class StatisticSample extends DoubleArray {
     public static double[][] randomUniform(int m, int n, double min, double max) {
         double[][] A = new double[m][n];
         for (int i = 0; i < A.length; i++)
-            for (int j = 0; j < A[i].length; j++)
-                A[i][j] = Random.uniform(min, max);
+            Random.uniform(A[i], n, min, max);
         return A;
     }
 
@@ -64,23 +61,21 @@ public class StatisticSample extends DoubleArray {
 	 */
     public static double[] randomUniform(int m, double min, double max) {
         double[] A = new double[m];
-        for (int i = 0; i < A.length; i++)
-            A[i] = Random.uniform(min, max);
+        Random.uniform(A, m, min, max);
         return A;
     }
 
     public static double[][] randomDirac(int m, int n, double[] values, double[] prob) {
+        AliasSampler sampler = new AliasSampler(values, prob);
         double[][] A = new double[m][n];
         for (int i = 0; i < A.length; i++)
-            for (int j = 0; j < A[i].length; j++)
-                A[i][j] = Random.dirac(values, prob);
+            sampler.fill(A[i], n);
         return A;
     }
 
     public static double[] randomDirac(int m, double[] values, double[] prob) {
         double[] A = new double[m];
-        for (int i = 0; i < A.length; i++)
-            A[i] = Random.dirac(values, prob);
+        new AliasSampler(values, prob).fill(A, m);
         return A;
     }
 
@@ -94,8 +89,7 @@ public class StatisticSample extends DoubleArray {
     public static double[][] randomNormal(int m, int n, double mu, double sigma) {
         double[][] A = new double[m][n];
         for (int i = 0; i < A.length; i++)
-            for (int j = 0; j < A[i].length; j++)
-                A[i][j] = Random.normal(mu, sigma);
+            Random.normal(A[i], n, mu, sigma);
         return A;
     }
 
@@ -107,8 +101,7 @@ public class StatisticSample extends DoubleArray {
 	 */
     public static double[] randomNormal(int m, double mu, double sigma) {
         double[] A = new double[m];
-        for (int i = 0; i < A.length; i++)
-            A[i] = Random.normal(mu, sigma);
+        Random.normal(A, m, mu, sigma);
         return A;
     }
 
@@ -129,61 +122,58 @@ public class StatisticSample extends DoubleArray {
 
     public static double[][] randomLogNormal(int m, int n, double mu, double sigma) {
         double[][] A = new double[m][n];
-        for (int i = 0; i < A.length; i++)
+        for (int i = 0; i < A.length; i++) {
+            Random.normal(A[i], n, mu, sigma);
             for (int j = 0; j < A[i].length; j++)
-                A[i][j] = Random.logNormal(mu, sigma);
+                A[i][j] = Math.exp(A[i][j]);
+        }
         return A;
     }
 
     public static double[] randomLogNormal(int m, double mu, double sigma) {
         double[] A = new double[m];
+        Random.normal(A, m, mu, sigma);
         for (int i = 0; i < A.length; i++)
-            A[i] = Random.logNormal(mu, sigma);
+            A[i] = Math.exp(A[i]);
         return A;
     }
 
     public static double[][] randomExponential(int m, int n, double lambda) {
         double[][] A = new double[m][n];
         for (int i = 0; i < A.length; i++)
-            for (int j = 0; j < A[i].length; j++)
-                A[i][j] = Random.exponential(lambda);
+            Random.exponential(A[i], n, lambda);
         return A;
     }
 
     public static double[] randomExponential(int m, double lambda) {
         double[] A = new double[m];
-        for (int i = 0; i < A.length; i++)
-            A[i] = Random.exponential(lambda);
+        Random.exponential(A, m, lambda);
         return A;
     }
 
     public static double[][] randomTriangular(int m, int n, double min, double max) {
         double[][] A = new double[m][n];
         for (int i = 0; i < A.length; i++)
-            for (int j = 0; j < A[i].length; j++)
-                A[i][j] = Random.triangular(min, max);
+            Random.triangular(A[i], n, min, max);
         return A;
     }
 
     public static double[] randomTriangular(int m, double min, double max) {
         double[] A = new double[m];
-        for (int i = 0; i < A.length; i++)
-            A[i] = Random.triangular(min, max);
+        Random.triangular(A, m, min, max);
         return A;
     }
 
     public static double[][] randomTriangular(int m, int n, double min, double med, double max) {
         double[][] A = new double[m][n];
         for (int i = 0; i < A.length; i++)
-            for (int j = 0; j < A[i].length; j++)
-                A[i][j] = Random.triangular(min, med, max);
+            Random.triangular(A[i], n, min, med, max);
         return A;
     }
 
     public static double[] randomTriangular(int m, double min, double med, double max) {
         double[] A = new double[m];
-        for (int i = 0; i < A.length; i++)
-            A[i] = Random.triangular(min, med, max);
+        Random.triangular(A, m, min, med, max);
         return A;
     }
 
@@ -202,36 +192,125 @@ public class StatisticSample extends DoubleArray {
         return A;
     }
 
-    public static double[][] randomCauchy(int m, int n, double mu, double sigma) {
+	/**
+	 * Create an m x n matrix of Gamma distributed random numbers.
+	 * @param m Number of rows in matrix
+	 * @param n Number of columns in matrix
+	 * @param shape Shape parameter of the Gamma distribution.
+	 * @param scale Scale parameter of the Gamma distribution.
+	 */
+    public static double[][] randomGamma(int m, int n, double shape, double scale) {
         double[][] A = new double[m][n];
         for (int i = 0; i < A.length; i++)
             for (int j = 0; j < A[i].length; j++)
-                A[i][j] = Random.cauchy(mu, sigma);
+                A[i][j] = Random.gamma(shape, scale);
         return A;
     }
 
-    public static double[] randomCauchy(int m, double mu, double sigma) {
+	/**
+	 * Create an array of Gamma distributed random numbers.
+	 * @param m Number of elements in the array
+	 * @param shape Shape parameter of the Gamma distribution.
+	 * @param scale Scale parameter of the Gamma distribution.
+	 */
+    public static double[] randomGamma(int m, double shape, double scale) {
         double[] A = new double[m];
         for (int i = 0; i < A.length; i++)
-            A[i] = Random.cauchy(mu, sigma);
+            A[i] = Random.gamma(shape, scale);
         return A;
     }
 
-    public static double[][] randomWeibull(int m, int n, double lambda, double c) {
+	/**
+	 * Create an m x n matrix of Poisson distributed random numbers.
+	 * @param m Number of rows in matrix
+	 * @param n Number of columns in matrix
+	 * @param lambda Mean of the Poisson distribution.
+	 */
+    public static double[][] randomPoisson(int m, int n, double lambda) {
         double[][] A = new double[m][n];
         for (int i = 0; i < A.length; i++)
             for (int j = 0; j < A[i].length; j++)
-                A[i][j] = Random.weibull(lambda, c);
+                A[i][j] = Random.poisson(lambda);
         return A;
     }
 
-    public static double[] randomWeibull(int m, double lambda, double c) {
+	/**
+	 * Create an array of Poisson distributed random numbers.
+	 * @param m Number of elements in the array
+	 * @param lambda Mean of the Poisson distribution.
+	 */
+    public static double[] randomPoisson(int m, double lambda) {
+        double[] A = new double[m];
+        for (int i = 0; i < A.length; i++)
+            A[i] = Random.poisson(lambda);
+        return A;
+    }
+
+	/**
+	 * Create an m x n matrix of binomially distributed random numbers.
+	 * @param m Number of rows in matrix
+	 * @param n Number of columns in matrix
+	 * @param trials Number of trials of the binomial distribution.
+	 * @param p Probability of success of each trial.
+	 */
+    public static double[][] randomBinomial(int m, int n, int trials, double p) {
+        double[][] A = new double[m][n];
+        for (int i = 0; i < A.length; i++)
+            for (int j = 0; j < A[i].length; j++)
+                A[i][j] = Random.binomial(trials, p);
+        return A;
+    }
+
+	/**
+	 * Create an array of binomially distributed random numbers.
+	 * @param m Number of elements in the array
+	 * @param trials Number of trials of the binomial distribution.
+	 * @param p Probability of success of each trial.
+	 */
+    public static double[] randomBinomial(int m, int trials, double p) {
+        double[] A = new double[m];
+        for (int i = 0; i < A.length; i++)
+            A[i] = Random.binomial(trials, p);
+        return A;
+    }
+
+    public static double[][] randomCauchy(int m, int n, double mu, double sigma) {
+        double[][] A = new double[m][n];
+        for (int i = 0; i < A.length; i++)
+            Random.cauchy(A[i], n, mu, sigma);
+        return A;
+    }
+
+    public static double[] randomCauchy(int m, double mu, double sigma) {
         double[] A = new double[m];
+        Random.cauchy(A, m, mu, sigma);
+        return A;
+    }
+
+    public static double[][] randomWeibull(int m, int n, double lambda, double c) {
+        double[][] A = new double[m][n];
         for (int i = 0; i < A.length; i++)
-            A[i] = Random.weibull(lambda, c);
+            Random.weibull(A[i], n, lambda, c);
+        return A;
+    }
+
+    public static double[] randomWeibull(int m, double lambda, double c) {
+        double[] A = new double[m];
+        Random.weibull(A, m, lambda, c);
         return A;
     }
 
+	/**
+	 * Create an m x n matrix of random numbers following a bounded density,
+	 * by rejection from the flat envelope maxFun.
+	 * @param m Number of rows in matrix
+	 * @param n Number of columns in matrix
+	 * @param fun Density function (may be not normalized).
+	 * @param maxFun Max of the function.
+	 * @param min Min of the random variable.
+	 * @param max Max of the random variable.
+	 * @see #randomEnvelopeRejection(int, int, Function, double, double, double)
+	 */
     public static double[][] randomRejection(int m, int n, Function fun, double maxFun, double min, double max) {
         double[][] A = new double[m][n];
         for (int i = 0; i < A.length; i++)
@@ -240,6 +319,16 @@ public class StatisticSample extends DoubleArray {
         return A;
     }
 
+	/**
+	 * Create an array of random numbers following a bounded density, by
+	 * rejection from the flat envelope maxFun.
+	 * @param m Number of elements in the array
+	 * @param fun Density function (may be not normalized).
+	 * @param maxFun Max of the function.
+	 * @param min Min of the random variable.
+	 * @param max Max of the random variable.
+	 * @see #randomEnvelopeRejection(int, Function, double, double, double)
+	 */
     public static double[] randomRejection(int m, Function fun, double maxFun, double min, double max) {
         double[] A = new double[m];
         for (int i = 0; i < A.length; i++)
@@ -247,6 +336,168 @@ public class StatisticSample extends DoubleArray {
         return A;
     }
 
+	/**
+	 * Create an m x n matrix of random numbers following a bounded density,
+	 * by rejection from an adaptive envelope built once for all the values.
+	 * Much faster than randomRejection for a peaked density, but the values
+	 * follow the density only if it is monotone between the nodes of the
+	 * grid of EnvelopeRejection.DEFAULT_CELLS cells (and of the nodes added
+	 * later): a density oscillating within a cell gives biased values.
+	 * @param m Number of rows in matrix
+	 * @param n Number of columns in matrix
+	 * @param fun Density function (may be not normalized).
+	 * @param maxFun Max of the function.
+	 * @param min Min of the random variable.
+	 * @param max Max of the random variable.
+	 * @see EnvelopeRejection
+	 */
+    public static double[][] randomEnvelopeRejection(int m, int n, Function fun, double maxFun, double min, double max) {
+        EnvelopeRejection sampler = new EnvelopeRejection(fun, maxFun, min, max);
+        double[][] A = new double[m][n];
+        for (int i = 0; i < A.length; i++)
+            sampler.fill(A[i], n);
+        return A;
+    }
+
+	/**
+	 * Create an array of random numbers following a bounded density, by
+	 * rejection from an adaptive envelope built once for all the values.
+	 * Much faster than randomRejection for a peaked density, but the values
+	 * follow the density only if it is monotone between the nodes of the
+	 * grid of EnvelopeRejection.DEFAULT_CELLS cells (and of the nodes added
+	 * later): a density oscillating within a cell gives biased values.
+	 * @param m Number of elements in the array
+	 * @param fun Density function (may be not normalized).
+	 * @param maxFun Max of the function.
+	 * @param min Min of the random variable.
+	 * @param max Max of the random variable.
+	 * @see EnvelopeRejection
+	 */
+    public static double[] randomEnvelopeRejection(int m, Function fun, double maxFun, double min, double max) {
+        double[] A = new double[m];
+        new EnvelopeRejection(fun, maxFun, min, max).fill(A, m);
+        return A;
+    }
+
+	/**
+	 * Create an m x n matrix of random numbers following a log-concave
+	 * density, by adaptive rejection sampling.
+	 * @param m Number of rows in matrix
+	 * @param n Number of columns in matrix
+	 * @param logDensity Logarithm of the density (may be not normalized).
+	 * @param min Min of the random variable.
+	 * @param max Max of the random variable.
+	 * @see AdaptiveRejection
+	 */
+    public static double[][] randomLogConcave(int m, int n, Function logDensity, double min, double max) {
+        AdaptiveRejection sampler = new AdaptiveRejection(logDensity, min, max);
+        double[][] A = new double[m][n];
+        for (int i = 0; i < A.length; i++)
+            sampler.fill(A[i], n);
+        return A;
+    }
+
+	/**
+	 * Create an array of random numbers following a log-concave density, by
+	 * adaptive rejection sampling.
+	 * @param m Number of elements in the array
+	 * @param logDensity Logarithm of the density (may be not normalized).
+	 * @param min Min of the random variable.
+	 * @param max Max of the random variable.
+	 * @see AdaptiveRejection
+	 */
+    public static double[] randomLogConcave(int m, Function logDensity, double min, double max) {
+        double[] A = new double[m];
+        new AdaptiveRejection(logDensity, min, max).fill(A, m);
+        return A;
+    }
+
+    // Design of experiments methods
+
+	/**
+	 * Create a Latin hypercube design: m points of [0, 1]^n such that each of
+	 * the m intervals of width 1/m holds exactly one point in every coordinate.
+	 * Map it through any distribution with InverseCDF.apply.
+	 * @param m Number of points.
+	 * @param n Dimension.
+	 * @return An m x n matrix.
+	 * @see InverseCDF
+	 */
+    public static double[][] randomLatinHypercube(int m, int n) {
+        return LatinHypercube.random(m, n, Random.engine());
+    }
+
+	/**
+	 * Create a Latin hypercube design whose columns follow given distributions.
+	 * @param m Number of points.
+	 * @param marginals Inverse CDF of each column, see InverseCDF.
+	 * @return An m x marginals.length matrix.
+	 */
+    public static double[][] randomLatinHypercube(int m, Function[] marginals) {
+        return InverseCDF.apply(randomLatinHypercube(m, marginals.length), marginals);
+    }
+
+	/**
+	 * Create a Latin hypercube design with points at the center of their cells.
+	 * @param m Number of points.
+	 * @param n Dimension.
+	 * @return An m x n matrix.
+	 */
+    public static double[][] centeredLatinHypercube(int m, int n) {
+        return LatinHypercube.centered(m, n, Random.engine());
+    }
+
+	/**
+	 * Create a Latin hypercube design spreading its points as far as possible
+	 * from each other, optimized by independent restarts on all processors.
+	 * @param m Number of points.
+	 * @param n Dimension.
+	 * @param restarts Number of independent optimizations.
+	 * @param iterations Number of exchanges tried by each optimization.
+	 * @return An m x n matrix.
+	 * @see LatinHypercube#maximin(int, int, boolean, int, int, edu.cornell.lassp.houle.RngPack.RandomElement)
+	 */
+    public static double[][] maximinLatinHypercube(int m, int n, int restarts, int iterations) {
+        return LatinHypercube.maximin(m, n, false, restarts, iterations, Random.engine());
+    }
+
+	/**
+	 * Create a stratified sample of [0, 1]^n: the unit cube is split in
+	 * strata[0] x ... x strata[n-1] cells of equal size, and each cell gets k
+	 * uniformly distributed points.
+	 * @param strata Number of strata in each dimension.
+	 * @param k Number of points per cell.
+	 * @return A (k x product of strata) x n matrix, cell by cell, the last
+	 * dimension varying fastest.
+	 */
+    public static double[][] randomStratified(int[] strata, int k) {
+        int n = strata.length;
+        long cells = 1;
+        for (int j = 0; j < n; j++) {
+            if (strata[j] < 1)
+                throw new IllegalArgumentException("Number of strata must be positive : " + strata[j]);
+            cells *= strata[j];
+        }
+        if (k < 1 || cells * k > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("Invalid number of points : " + cells + " cells x " + k);
+        double[][] A = new double[(int) cells * k][];
+        int[] cell = new int[n];
+        int i = 0;
+        for (long c = 0; c < cells; c++) {
+            for (int p = 0; p < k; p++) {
+                A[i] = new double[n];
+                Random.uniform(A[i], n, 0, 1);
+                for (int j = 0; j < n; j++)
+                    A[i][j] = (cell[j] + A[i][j]) / strata[j];
+                i++;
+            }
+            // next cell, as an odometer
+            for (int j = n - 1; j >= 0 && ++cell[j] == strata[j]; j--)
+                cell[j] = 0;
+        }
+        return A;
+    }
+
     // Statistics sample methods
 
     public static double mean(double[] v) {
@@ -440,6 +691,68 @@ public class StatisticSample extends DoubleArray {
         return X;
     }
 
+	/**
+	 * Ranks of the values of an array, from 1, equal values getting the
+	 * mean of their ranks.
+	 * @param v Input array.
+	 * @return Array of the ranks.
+	 */
+    public static double[] rank(double[] v) {
+        return Ranking.rank(v, Ranking.AVERAGE);
+    }
+
+	/**
+	 * Ranks of the values of an array, from 1.
+	 * @param v Input array.
+	 * @param ties Ranking.AVERAGE, Ranking.MIN or Ranking.DENSE.
+	 * @return Array of the ranks.
+	 */
+    public static double[] rank(double[] v, int ties) {
+        return Ranking.rank(v, ties);
+    }
+
+	/**
+	 * Ranks of the values of each column of a matrix, from 1.
+	 * @param v Input matrix.
+	 * @param ties Ranking.AVERAGE, Ranking.MIN or Ranking.DENSE.
+	 * @return Matrix of the ranks.
+	 */
+    public static double[][] rank(double[][] v, int ties) {
+        return Ranking.rank(v, ties);
+    }
+
+	/**
+	 * Spearman's rank correlation of two samples.
+	 * @see Ranking#spearman(double[], double[])
+	 */
+    public static double spearman(double[] v1, double[] v2) {
+        return Ranking.spearman(v1, v2);
+    }
+
+	/**
+	 * Spearman's rank correlation matrix of the columns of a matrix, computed
+	 * on all processors.
+	 */
+    public static double[][] spearman(double[][] v) {
+        return Ranking.spearman(v);
+    }
+
+	/**
+	 * Kendall's tau-b rank correlation of two samples, in O(n log n).
+	 * @see Ranking#kendall(double[], double[])
+	 */
+    public static double kendall(double[] v1, double[] v2) {
+        return Ranking.kendall(v1, v2);
+    }
+
+	/**
+	 * Kendall's tau-b rank correlation matrix of the columns of a matrix,
+	 * computed on all processors.
+	 */
+    public static double[][] kendall(double[][] v) {
+        return Ranking.kendall(v);
+    }
+
 //  histograms functions
 
     public static double[][] histogram_classes(double[] values, double[] bounds) {
@@ -0,0 +1,356 @@
+package org.math.array.util;
+
+import edu.cornell.lassp.houle.RngPack.RandomElement;
+
+/**
+ * Sampler of a log-concave density by adaptive rejection, without derivatives
+ * (Gilks).
+ * <P>
+ * The log density h is known at abscissae x_0 &lt; ... &lt; x_k. Since h is
+ * concave, the chords between consecutive abscissae, extended outside their
+ * interval, lie above h: the minimum of the chords of the neighbouring
+ * intervals is an upper hull of h, and the chord of an interval is a lower
+ * hull (squeeze) inside it. Draws are taken from the piecewise exponential
+ * envelope exp(upper hull) and accepted without evaluating the density when
+ * they fall below the squeeze. Each evaluation of h adds its abscissa to the
+ * hull, so the envelope tightens as draws go on, and the acceptance rate
+ * quickly exceeds 95 percent for usual densities.
+ * <P>
+ * Build one sampler and reuse it for all the draws: the envelope is kept
+ * between calls. A sampler is not thread-safe.
+ * <P>
+ * Reference: W. R. Gilks, <i>Derivative-free adaptive rejection sampling for
+ * Gibbs sampling</i>, Bayesian Statistics 4 (1992) 641-649.
+ * <P>
+ * BSD License
+ *
+ * @see EnvelopeRejection
+ */
+public class AdaptiveRejection {
+
+	// maximal number of abscissae, the envelope is then frozen
+	private static final int MAX_POINTS = 128;
+
+	private final Function logDensity;
+
+	private final double min;
+
+	private final double max;
+
+	// abscissae and log density
+	private double[] x = new double[MAX_POINTS];
+
+	private double[] h = new double[MAX_POINTS];
+
+	private int k;
+
+	// pieces of the upper hull: on [start[i], start[i+1]], the hull is the
+	// chord number chord[i], and area[i] is the integral of its exponential,
+	// relative to exp(scale), up to piece i included
+	private double[] start = new double[2 * MAX_POINTS + 2];
+
+	private int[] chord = new int[2 * MAX_POINTS + 1];
+
+	private double[] area = new double[2 * MAX_POINTS + 1];
+
+	private int pieces;
+
+	private double scale;
+
+	/**
+	 * Build a sampler on a bounded interval, starting from 5 abscissae evenly
+	 * spread inside it.
+	 *
+	 * @param logDensity
+	 *            Logarithm of the density (may be not normalized), concave.
+	 * @param min
+	 *            Min of the random variable.
+	 * @param max
+	 *            Max of the random variable.
+	 */
+	public AdaptiveRejection(Function logDensity, double min, double max) {
+		this(logDensity, new double[] { min + 0.1 * (max - min), min + 0.3 * (max - min), min + 0.5 * (max - min), min + 0.7 * (max - min),
+				min + 0.9 * (max - min) }, min, max);
+	}
+
+	/**
+	 * Build a sampler.
+	 *
+	 * @param logDensity
+	 *            Logarithm of the density (may be not normalized), concave.
+	 * @param initial
+	 *            At least 3 increasing starting abscissae, where the log
+	 *            density is finite. If min is infinite, the log density must
+	 *            increase between the first two of them; if max is infinite,
+	 *            it must decrease between the last two of them: place them on
+	 *            both sides of the mode.
+	 * @param min
+	 *            Min of the random variable, may be Double.NEGATIVE_INFINITY.
+	 * @param max
+	 *            Max of the random variable, may be Double.POSITIVE_INFINITY.
+	 */
+	public AdaptiveRejection(Function logDensity, double[] initial, double min, double max) {
+		if (!(min < max))
+			throw new IllegalArgumentException("Min must be lower than max : " + min + ", " + max);
+		if (initial.length < 3 || initial.length > MAX_POINTS)
+			throw new IllegalArgumentException("Between 3 and " + MAX_POINTS + " initial abscissae are needed : " + initial.length);
+		this.logDensity = logDensity;
+		this.min = min;
+		this.max = max;
+		for (int i = 0; i < initial.length; i++) {
+			if (!(initial[i] > min && initial[i] < max) || (i > 0 && !(initial[i] > initial[i - 1])))
+				throw new IllegalArgumentException("Initial abscissae must be increasing and inside ]" + min + ", " + max + "[.");
+			x[i] = initial[i];
+			h[i] = logDensity.f(initial[i]);
+			if (Double.isNaN(h[i]) || Double.isInfinite(h[i]))
+				throw new IllegalArgumentException("Log density is not finite at " + initial[i] + " : " + h[i]);
+		}
+		k = initial.length;
+		if (min == Double.NEGATIVE_INFINITY && !(h[1] > h[0]))
+			throw new IllegalArgumentException("Log density must increase between the first two abscissae when min is infinite.");
+		if (max == Double.POSITIVE_INFINITY && !(h[k - 1] < h[k - 2]))
+			throw new IllegalArgumentException("Log density must decrease between the last two abscissae when max is infinite.");
+		checkConcave();
+		build();
+	}
+
+	/**
+	 * @return Number of abscissae of the hull.
+	 */
+	public int size() {
+		return k;
+	}
+
+	/**
+	 * Draw a value using the Random engine.
+	 *
+	 * @return A double.
+	 */
+	public double next() {
+		return next(Random.engine());
+	}
+
+	/**
+	 * Draw a value.
+	 *
+	 * @param e
+	 *            Random number generator.
+	 * @return A double.
+	 * @throws IllegalArgumentException
+	 *             If the log density turns out not to be concave. The
+	 *             envelope is left unchanged.
+	 */
+	public double next(RandomElement e) {
+		while (true) {
+			double t = envelope(e.raw(), e.raw());
+			// log of the acceptance threshold, relative to the upper hull
+			double w = Math.log(e.raw()) + upper(t);
+			if (w <= lower(t))
+				return t;
+			double ht = logDensity.f(t);
+			if (!Double.isNaN(ht) && !Double.isInfinite(ht))
+				add(t, ht);
+			if (w <= ht)
+				return t;
+		}
+	}
+
+	/**
+	 * Fill an array with values drawn using the Random engine.
+	 *
+	 * @param d
+	 *            Array to fill.
+	 * @param n
+	 *            Number of values to draw.
+	 */
+	public void fill(double[] d, int n) {
+		fill(Random.engine(), d, n);
+	}
+
+	/**
+	 * Fill an array with drawn values.
+	 *
+	 * @param e
+	 *            Random number generator.
+	 * @param d
+	 *            Array to fill.
+	 * @param n
+	 *            Number of values to draw.
+	 */
+	public void fill(RandomElement e, double[] d, int n) {
+		for (int i = 0; i < n; i++)
+			d[i] = next(e);
+	}
+
+	// draw from the normalized exponential of the upper hull, by inversion
+	private double envelope(double u1, double u2) {
+		double target = u1 * area[pieces - 1];
+		int lo = 0;
+		int hi = pieces - 1;
+		while (lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if (area[mid] > target)
+				hi = mid;
+			else
+				lo = mid + 1;
+		}
+		double a = start[lo];
+		double b = start[lo + 1];
+		double s = chordSlope(chord[lo]);
+		double t;
+		if (a == Double.NEGATIVE_INFINITY)
+			t = b + Math.log(u2) / s;
+		else if (b == Double.POSITIVE_INFINITY)
+			t = a + Math.log1p(-u2) / s;
+		else if (Math.abs(s * (b - a)) < 1e-12)
+			t = a + u2 * (b - a);
+		else if (s > 0)
+			t = b + Math.log(u2 + (1 - u2) * Math.exp(-s * (b - a))) / s;
+		else
+			t = a + Math.log1p(u2 * Math.expm1(s * (b - a))) / s;
+		// rounding may put t just outside its piece
+		return Math.max(start[lo], Math.min(start[lo + 1], t));
+	}
+
+	// upper hull at t
+	private double upper(double t) {
+		int lo = 0;
+		int hi = pieces - 1;
+		while (lo < hi) {
+			int mid = (lo + hi + 1) >>> 1;
+			if (start[mid] <= t)
+				lo = mid;
+			else
+				hi = mid - 1;
+		}
+		return chord(chord[lo], t);
+	}
+
+	// squeeze at t: chord of the interval holding t, -infinity outside the
+	// abscissae
+	private double lower(double t) {
+		if (t < x[0] || t > x[k - 1])
+			return Double.NEGATIVE_INFINITY;
+		return chord(interval(t), t);
+	}
+
+	// index i such that x[i] <= t <= x[i+1], for x[0] <= t <= x[k-1]
+	private int interval(double t) {
+		int lo = 0;
+		int hi = k - 2;
+		while (lo < hi) {
+			int mid = (lo + hi + 1) >>> 1;
+			if (x[mid] <= t)
+				lo = mid;
+			else
+				hi = mid - 1;
+		}
+		return lo;
+	}
+
+	private double chordSlope(int i) {
+		return (h[i + 1] - h[i]) / (x[i + 1] - x[i]);
+	}
+
+	private double chord(int i, double t) {
+		return h[i] + chordSlope(i) * (t - x[i]);
+	}
+
+	private void add(double t, double ht) {
+		if (k == MAX_POINTS)
+			return;
+		int i = t < x[0] ? -1 : t > x[k - 1] ? k - 1 : interval(t);
+		if ((i >= 0 && t == x[i]) || (i + 1 < k && t == x[i + 1]))
+			return;
+		System.arraycopy(x, i + 1, x, i + 2, k - i - 1);
+		System.arraycopy(h, i + 1, h, i + 2, k - i - 1);
+		x[i + 1] = t;
+		h[i + 1] = ht;
+		k++;
+		try {
+			checkConcave();
+		} catch (IllegalArgumentException ex) {
+			// keep the hull of the previous abscissae, so the sampler can
+			// still be used
+			k--;
+			System.arraycopy(x, i + 2, x, i + 1, k - i - 1);
+			System.arraycopy(h, i + 2, h, i + 1, k - i - 1);
+			throw ex;
+		}
+		build();
+	}
+
+	private void checkConcave() {
+		for (int i = 0; i + 2 < k; i++)
+			if (chordSlope(i + 1) > chordSlope(i) + 1e-9 * (1 + Math.abs(chordSlope(i))))
+				throw new IllegalArgumentException("Density is not log-concave around " + x[i + 1] + ".");
+	}
+
+	// pieces of the upper hull, from the chords
+	private void build() {
+		pieces = 0;
+		// left tail: extension of the first chord
+		if (min < x[0])
+			addPiece(min, x[0], 0, -1);
+		// [x0, x1] and [x(k-2), x(k-1)] only have one neighbouring chord
+		addPiece(x[0], x[1], 1, -1);
+		for (int i = 1; i + 2 < k; i++)
+			addPiece(x[i], x[i + 1], i - 1, i + 1);
+		addPiece(x[k - 2], x[k - 1], k - 3, -1);
+		// right tail: extension of the last chord
+		if (max > x[k - 1])
+			addPiece(x[k - 1], max, k - 2, -1);
+		start[pieces] = max;
+		scale = Double.NEGATIVE_INFINITY;
+		for (int p = 0; p < pieces; p++) {
+			if (start[p] != Double.NEGATIVE_INFINITY)
+				scale = Math.max(scale, chord(chord[p], start[p]));
+			if (start[p + 1] != Double.POSITIVE_INFINITY)
+				scale = Math.max(scale, chord(chord[p], start[p + 1]));
+		}
+		double sum = 0;
+		for (int p = 0; p < pieces; p++) {
+			double a = start[p];
+			double b = start[p + 1];
+			double s = chordSlope(chord[p]);
+			if (a == Double.NEGATIVE_INFINITY)
+				sum += Math.exp(chord(chord[p], b) - scale) / s;
+			else if (b == Double.POSITIVE_INFINITY)
+				sum -= Math.exp(chord(chord[p], a) - scale) / s;
+			else if (Math.abs(s * (b - a)) < 1e-12)
+				sum += Math.exp(chord(chord[p], a) - scale) * (b - a);
+			else
+				sum += Math.exp(chord(chord[p], a) - scale) * Math.expm1(s * (b - a)) / s;
+			area[p] = sum;
+		}
+	}
+
+	// piece of the upper hull on [a, b], minimum of the chords c1 and c2 (c2
+	// may be -1 for none)
+	private void addPiece(double a, double b, int c1, int c2) {
+		if (c2 < 0) {
+			setPiece(a, c1);
+			return;
+		}
+		double s1 = chordSlope(c1);
+		double s2 = chordSlope(c2);
+		// the chord of the left neighbour is steeper, so it is the minimum
+		// on the left of the crossing point
+		double z = s1 == s2 ? b : x[c1] + (chord(c2, x[c1]) - h[c1]) / (s1 - s2);
+		if (!(z > a))
+			setPiece(a, c2);
+		else if (!(z < b))
+			setPiece(a, c1);
+		else {
+			setPiece(a, c1);
+			setPiece(z, c2);
+		}
+	}
+
+	private void setPiece(double a, int c) {
+		start[pieces] = a;
+		chord[pieces] = c;
+		pieces++;
+	}
+
+}
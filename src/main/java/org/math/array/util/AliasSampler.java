@@ -0,0 +1,216 @@
+package org.math.array.util;
+
+import edu.cornell.lassp.houle.RngPack.RandomElement;
+
+import org.math.array.DoubleArray;
+
+/**
+ * Sampler of a discrete random variable using Walker's alias method (Vose's
+ * construction).
+ * <P>
+ * The table is built once in O(k) for k values, then each draw costs two
+ * uniform numbers and O(1) work, whatever k is. Build one sampler and reuse it
+ * instead of calling Random.dirac in a loop.
+ * <P>
+ * Reference: M. D. Vose, <i>A linear algorithm for generating random numbers
+ * with a given distribution</i>, IEEE Trans. Softw. Eng. 17 (1991) 972-975.
+ * <P>
+ * BSD License
+ */
+public class AliasSampler {
+
+	private static final int BUFFER_SIZE = 512;
+
+	private double[] values;
+
+	// probability to keep the drawn column instead of its alias
+	private double[] threshold;
+
+	private int[] alias;
+
+	/**
+	 * Build a sampler returning the index of the drawn value.
+	 *
+	 * @param prob
+	 *            Probability (may be not normalized) of each index.
+	 */
+	public AliasSampler(double[] prob) {
+		this(null, prob);
+	}
+
+	/**
+	 * Build a sampler of a discrete random variable.
+	 *
+	 * @param values
+	 *            Discrete values.
+	 * @param prob
+	 *            Probability (may be not normalized) of each value.
+	 */
+	public AliasSampler(double[] values, double[] prob) {
+		if (values != null)
+			DoubleArray.checkLength(values, prob.length);
+		if (prob.length == 0)
+			throw new IllegalArgumentException("At least one probability is needed.");
+		this.values = values == null ? null : DoubleArray.copy(values);
+
+		int k = prob.length;
+		double sum = 0;
+		for (int i = 0; i < k; i++) {
+			if (!(prob[i] >= 0) || Double.isInfinite(prob[i]))
+				throw new IllegalArgumentException("Probability " + i + " is not a positive number : " + prob[i]);
+			sum += prob[i];
+		}
+		if (sum <= 0)
+			throw new IllegalArgumentException("Probabilities sum to zero.");
+
+		threshold = new double[k];
+		alias = new int[k];
+
+		// scaled probabilities, split into the "small" (< 1) and "large"
+		// (>= 1) columns, both stacks sharing one work array
+		double[] scaled = new double[k];
+		int[] work = new int[k];
+		int small = 0;
+		int large = k;
+		for (int i = 0; i < k; i++) {
+			scaled[i] = prob[i] * k / sum;
+			if (scaled[i] < 1)
+				work[small++] = i;
+			else
+				work[--large] = i;
+		}
+		while (small > 0 && large < k) {
+			int s = work[--small];
+			int l = work[large++];
+			threshold[s] = scaled[s];
+			alias[s] = l;
+			scaled[l] = (scaled[l] + scaled[s]) - 1;
+			if (scaled[l] < 1)
+				work[small++] = l;
+			else
+				work[--large] = l;
+		}
+		// remaining columns are full (up to rounding errors)
+		while (large < k) {
+			int l = work[large++];
+			threshold[l] = 1;
+			alias[l] = l;
+		}
+		while (small > 0) {
+			int s = work[--small];
+			threshold[s] = 1;
+			alias[s] = s;
+		}
+	}
+
+	/**
+	 * @return Number of values of the discrete random variable.
+	 */
+	public int size() {
+		return threshold.length;
+	}
+
+	/**
+	 * Draw an index using the Random engine.
+	 *
+	 * @return An index between 0 and size()-1.
+	 */
+	public int nextIndex() {
+		return nextIndex(Random.engine());
+	}
+
+	/**
+	 * Draw an index.
+	 *
+	 * @param e
+	 *            Random number generator.
+	 * @return An index between 0 and size()-1.
+	 */
+	public int nextIndex(RandomElement e) {
+		return index(e.raw(), e.raw());
+	}
+
+	/**
+	 * Draw a value using the Random engine.
+	 *
+	 * @return A double.
+	 */
+	public double next() {
+		return next(Random.engine());
+	}
+
+	/**
+	 * Draw a value.
+	 *
+	 * @param e
+	 *            Random number generator.
+	 * @return A double.
+	 */
+	public double next(RandomElement e) {
+		int i = nextIndex(e);
+		return values == null ? i : values[i];
+	}
+
+	/**
+	 * Fill an array with values drawn using the Random engine.
+	 *
+	 * @param d
+	 *            Array to fill.
+	 * @param n
+	 *            Number of values to draw.
+	 */
+	public void fill(double[] d, int n) {
+		fill(Random.engine(), d, n);
+	}
+
+	/**
+	 * Fill an array with drawn values. Uniform numbers are generated by blocks
+	 * with the bulk raw(double[], int) method of the generator.
+	 *
+	 * @param e
+	 *            Random number generator.
+	 * @param d
+	 *            Array to fill.
+	 * @param n
+	 *            Number of values to draw.
+	 */
+	public void fill(RandomElement e, double[] d, int n) {
+		double[] u = new double[2 * Math.min(n, BUFFER_SIZE)];
+		for (int start = 0; start < n; start += BUFFER_SIZE) {
+			int count = Math.min(BUFFER_SIZE, n - start);
+			e.raw(u, 2 * count);
+			for (int i = 0; i < count; i++) {
+				int j = index(u[2 * i], u[2 * i + 1]);
+				d[start + i] = values == null ? j : values[j];
+			}
+		}
+	}
+
+	/**
+	 * Fill an array with indexes drawn using the Random engine.
+	 *
+	 * @param d
+	 *            Array to fill.
+	 * @param n
+	 *            Number of indexes to draw.
+	 */
+	public void fillIndexes(int[] d, int n) {
+		RandomElement e = Random.engine();
+		double[] u = new double[2 * Math.min(n, BUFFER_SIZE)];
+		for (int start = 0; start < n; start += BUFFER_SIZE) {
+			int count = Math.min(BUFFER_SIZE, n - start);
+			e.raw(u, 2 * count);
+			for (int i = 0; i < count; i++)
+				d[start + i] = index(u[2 * i], u[2 * i + 1]);
+		}
+	}
+
+	private int index(double u1, double u2) {
+		int k = threshold.length;
+		int i = (int) (u1 * k);
+		if (i >= k)
+			i = k - 1;
+		return u2 < threshold[i] ? i : alias[i];
+	}
+
+}
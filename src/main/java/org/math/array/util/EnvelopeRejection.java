@@ -0,0 +1,248 @@
+package org.math.array.util;
+
+import edu.cornell.lassp.houle.RngPack.RandomElement;
+
+/**
+ * Sampler of a bounded density on an interval, by rejection from an adaptive
+ * piecewise constant envelope.
+ * <P>
+ * The density f is evaluated on a grid of the interval. Between two nodes
+ * where the grid values are monotone, f is assumed to be monotone too, so the
+ * larger of the two values bounds f on the cell and the smaller one is a
+ * squeeze: draws below it are accepted without evaluating f. The cells next
+ * to a node holding a local maximum of the grid values may contain a mode,
+ * so they are bounded by maxFun, as in Random.rejection. Each evaluation of f
+ * adds a node, which refines the envelope around the modes, and repairs it
+ * where f turns out to be above the bound of its cell.
+ * <P>
+ * For a peaked density the acceptance rate goes from the ratio of the mean to
+ * the max of f, with the flat envelope of Random.rejection, to nearly one
+ * after a few hundred draws. The assumption holds for any density that is
+ * monotone between its modes when the modes and antimodes are at least two
+ * cells apart: choose the number of cells accordingly. When it does not hold,
+ * for instance for a density oscillating within a cell, the squeeze accepts
+ * values where f is lower than assumed and the draws are biased: use the
+ * flat envelope of Random.rejection instead.
+ * <P>
+ * Build one sampler and reuse it for all the draws: the envelope is kept
+ * between calls. A sampler is not thread-safe.
+ * <P>
+ * BSD License
+ *
+ * @see AdaptiveRejection
+ * @see Random#rejection(Function, double, double, double)
+ */
+public class EnvelopeRejection {
+
+	/**
+	 * Default number of cells of the initial grid.
+	 */
+	public static final int DEFAULT_CELLS = 64;
+
+	// maximal number of nodes added to the initial grid
+	private static final int MAX_ADDED = 1024;
+
+	private final Function density;
+
+	private final double maxFun;
+
+	// nodes and density
+	private double[] x;
+
+	private double[] f;
+
+	private int nodes;
+
+	private int maxNodes;
+
+	// bound and squeeze of each cell, cumulative areas of the envelope
+	private double[] bound;
+
+	private double[] squeeze;
+
+	private double[] area;
+
+	/**
+	 * Build a sampler with DEFAULT_CELLS cells.
+	 *
+	 * @param density
+	 *            Density function (may be not normalized) of the random
+	 *            variable.
+	 * @param maxFun
+	 *            Max of the function.
+	 * @param min
+	 *            Min of the random variable.
+	 * @param max
+	 *            Max of the random variable.
+	 */
+	public EnvelopeRejection(Function density, double maxFun, double min, double max) {
+		this(density, maxFun, min, max, DEFAULT_CELLS);
+	}
+
+	/**
+	 * Build a sampler.
+	 *
+	 * @param density
+	 *            Density function (may be not normalized) of the random
+	 *            variable.
+	 * @param maxFun
+	 *            Max of the function.
+	 * @param min
+	 *            Min of the random variable.
+	 * @param max
+	 *            Max of the random variable.
+	 * @param cells
+	 *            Number of cells of the initial grid.
+	 */
+	public EnvelopeRejection(Function density, double maxFun, double min, double max, int cells) {
+		if (!(min < max) || Double.isInfinite(max - min))
+			throw new IllegalArgumentException("Min and max must be finite, min lower than max : " + min + ", " + max);
+		if (!(maxFun > 0))
+			throw new IllegalArgumentException("Max of the function must be positive : " + maxFun);
+		if (cells < 1)
+			throw new IllegalArgumentException("Number of cells must be positive : " + cells);
+		this.density = density;
+		this.maxFun = maxFun;
+		maxNodes = cells + 1 + MAX_ADDED;
+		x = new double[maxNodes];
+		f = new double[maxNodes];
+		bound = new double[maxNodes];
+		squeeze = new double[maxNodes];
+		area = new double[maxNodes];
+		nodes = cells + 1;
+		for (int i = 0; i < nodes; i++) {
+			x[i] = i == cells ? max : min + (max - min) * i / cells;
+			f[i] = value(x[i]);
+		}
+		build();
+	}
+
+	/**
+	 * @return Number of cells of the envelope.
+	 */
+	public int size() {
+		return nodes - 1;
+	}
+
+	/**
+	 * @return Ratio of the integrals of the envelope and of the squeeze,
+	 *         which bounds the mean number of draws from the envelope per
+	 *         accepted value.
+	 */
+	public double ratio() {
+		double s = 0;
+		for (int c = 0; c < nodes - 1; c++)
+			s += squeeze[c] * (x[c + 1] - x[c]);
+		return s == 0 ? Double.POSITIVE_INFINITY : area[nodes - 2] / s;
+	}
+
+	/**
+	 * Draw a value using the Random engine.
+	 *
+	 * @return A double.
+	 */
+	public double next() {
+		return next(Random.engine());
+	}
+
+	/**
+	 * Draw a value.
+	 *
+	 * @param e
+	 *            Random number generator.
+	 * @return A double.
+	 */
+	public double next(RandomElement e) {
+		while (true) {
+			double target = e.raw() * area[nodes - 2];
+			int lo = 0;
+			int hi = nodes - 2;
+			while (lo < hi) {
+				int mid = (lo + hi) >>> 1;
+				if (area[mid] > target)
+					hi = mid;
+				else
+					lo = mid + 1;
+			}
+			double t = x[lo] + e.raw() * (x[lo + 1] - x[lo]);
+			double y = e.raw() * bound[lo];
+			if (y <= squeeze[lo])
+				return t;
+			double ft = value(t);
+			add(lo, t, ft);
+			if (y <= ft)
+				return t;
+		}
+	}
+
+	/**
+	 * Fill an array with values drawn using the Random engine.
+	 *
+	 * @param d
+	 *            Array to fill.
+	 * @param n
+	 *            Number of values to draw.
+	 */
+	public void fill(double[] d, int n) {
+		fill(Random.engine(), d, n);
+	}
+
+	/**
+	 * Fill an array with drawn values.
+	 *
+	 * @param e
+	 *            Random number generator.
+	 * @param d
+	 *            Array to fill.
+	 * @param n
+	 *            Number of values to draw.
+	 */
+	public void fill(RandomElement e, double[] d, int n) {
+		for (int i = 0; i < n; i++)
+			d[i] = next(e);
+	}
+
+	// density, 0 where it is not defined
+	private double value(double t) {
+		double v = density.f(t);
+		return v > 0 ? v : 0;
+	}
+
+	// insert node t in cell c
+	private void add(int c, double t, double ft) {
+		if (nodes == maxNodes || !(t > x[c] && t < x[c + 1]))
+			return;
+		System.arraycopy(x, c + 1, x, c + 2, nodes - c - 1);
+		System.arraycopy(f, c + 1, f, c + 2, nodes - c - 1);
+		x[c + 1] = t;
+		f[c + 1] = ft;
+		nodes++;
+		build();
+	}
+
+	private void build() {
+		double sum = 0;
+		for (int c = 0; c < nodes - 1; c++) {
+			if (peak(c) || peak(c + 1)) {
+				bound[c] = maxFun;
+				squeeze[c] = 0;
+			} else {
+				bound[c] = Math.min(maxFun, Math.max(f[c], f[c + 1]));
+				squeeze[c] = Math.min(f[c], f[c + 1]);
+			}
+			sum += bound[c] * (x[c + 1] - x[c]);
+			area[c] = sum;
+		}
+		if (!(sum > 0))
+			throw new IllegalArgumentException("Density is zero on the whole grid, more cells are needed.");
+	}
+
+	// whether node i is a local maximum of the grid values, plateaus apart
+	private boolean peak(int i) {
+		boolean left = i == 0 || f[i] >= f[i - 1];
+		boolean right = i == nodes - 1 || f[i] >= f[i + 1];
+		boolean flat = (i == 0 || f[i] == f[i - 1]) && (i == nodes - 1 || f[i] == f[i + 1]);
+		return left && right && !flat;
+	}
+
+}
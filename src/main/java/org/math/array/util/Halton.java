@@ -0,0 +1,216 @@
+package org.math.array.util;
+
+import edu.cornell.lassp.houle.RngPack.RandomElement;
+
+/**
+ * Halton low-discrepancy sequence: coordinate j of point i is the radical
+ * inverse of i in the base of the j-th prime number, optionally with scrambled
+ * digits.
+ * <P>
+ * Like <code>Sobol</code>, any point can be computed directly, so the sequence
+ * can be skipped ahead or split in chunks computed concurrently. It has no
+ * limit on the dimension, but its projections on the coordinates of large
+ * bases are correlated for small sample sizes, so prefer Sobol above ten
+ * dimensions, or use the scrambled version: each base then gets a random
+ * permutation of its digits (keeping 0 fixed), which breaks these
+ * correlations.
+ * <P>
+ * The sequence starts with the origin (index 0).
+ * <P>
+ * BSD License
+ *
+ * @see Sobol
+ * @see InverseCDF
+ */
+public class Halton {
+
+	private final int dimension;
+
+	private final int[] bases;
+
+	// digit permutations, null when the sequence is not scrambled
+	private final int[][] permutations;
+
+	private long index;
+
+	/**
+	 * Build a Halton sequence.
+	 *
+	 * @param dimension
+	 *            Dimension of the points.
+	 */
+	public Halton(int dimension) {
+		this(dimension, null);
+	}
+
+	/**
+	 * Build a scrambled Halton sequence.
+	 *
+	 * @param dimension
+	 *            Dimension of the points.
+	 * @param e
+	 *            Random number generator drawing the digit permutations, null
+	 *            for the original sequence.
+	 */
+	public Halton(int dimension, RandomElement e) {
+		if (dimension < 1)
+			throw new IllegalArgumentException("Dimension must be positive : " + dimension);
+		this.dimension = dimension;
+		bases = primes(dimension);
+		if (e == null) {
+			permutations = null;
+		} else {
+			permutations = new int[dimension][];
+			for (int j = 0; j < dimension; j++) {
+				int b = bases[j];
+				int[] p = new int[b];
+				for (int k = 0; k < b; k++)
+					p[k] = k;
+				// shuffle the non-zero digits
+				for (int k = b - 1; k > 1; k--) {
+					int r = 1 + (int) (e.raw() * k);
+					if (r > k)
+						r = k;
+					int t = p[k];
+					p[k] = p[r];
+					p[r] = t;
+				}
+				permutations[j] = p;
+			}
+		}
+	}
+
+	/**
+	 * @return Dimension of the points.
+	 */
+	public int getDimension() {
+		return dimension;
+	}
+
+	/**
+	 * @return Index of the next point.
+	 */
+	public long getIndex() {
+		return index;
+	}
+
+	/**
+	 * Jump to a given point.
+	 *
+	 * @param index
+	 *            Index of the next point.
+	 */
+	public void setIndex(long index) {
+		if (index < 0)
+			throw new IllegalArgumentException("Index must be positive : " + index);
+		this.index = index;
+	}
+
+	/**
+	 * Skip points.
+	 *
+	 * @param n
+	 *            Number of points to skip.
+	 */
+	public void skip(long n) {
+		setIndex(index + n);
+	}
+
+	/**
+	 * @return The next point.
+	 */
+	public double[] next() {
+		double[] point = new double[dimension];
+		next(point);
+		return point;
+	}
+
+	/**
+	 * Compute the next point.
+	 *
+	 * @param point
+	 *            Array receiving the coordinates.
+	 */
+	public void next(double[] point) {
+		point(index++, point);
+	}
+
+	/**
+	 * Get the next points of the sequence.
+	 *
+	 * @param n
+	 *            Number of points.
+	 * @return An n x dimension matrix.
+	 */
+	public double[][] points(int n) {
+		double[][] P = points(index, n);
+		index += n;
+		return P;
+	}
+
+	/**
+	 * Get a chunk of the sequence, without changing the state of this
+	 * generator. Chunks may be computed concurrently.
+	 *
+	 * @param start
+	 *            Index of the first point.
+	 * @param n
+	 *            Number of points.
+	 * @return An n x dimension matrix.
+	 */
+	public double[][] points(long start, int n) {
+		if (start < 0)
+			throw new IllegalArgumentException("Index must be positive : " + start);
+		double[][] P = new double[n][dimension];
+		for (int i = 0; i < n; i++)
+			point(start + i, P[i]);
+		return P;
+	}
+
+	/**
+	 * Compute one point, without changing the state of this generator.
+	 *
+	 * @param index
+	 *            Index of the point.
+	 * @return The point.
+	 */
+	public double[] point(long index) {
+		double[] point = new double[dimension];
+		point(index, point);
+		return point;
+	}
+
+	private void point(long i, double[] point) {
+		for (int j = 0; j < dimension; j++) {
+			int b = bases[j];
+			int[] p = permutations == null ? null : permutations[j];
+			double inverse = 1.0 / b;
+			double factor = inverse;
+			double r = 0;
+			for (long k = i; k > 0; k /= b) {
+				int digit = (int) (k % b);
+				r += (p == null ? digit : p[digit]) * factor;
+				factor *= inverse;
+			}
+			point[j] = r;
+		}
+	}
+
+	// first n prime numbers
+	private static int[] primes(int n) {
+		int[] p = new int[n];
+		int count = 0;
+		for (int c = 2; count < n; c++) {
+			boolean prime = true;
+			for (int k = 0; k < count && p[k] * p[k] <= c; k++)
+				if (c % p[k] == 0) {
+					prime = false;
+					break;
+				}
+			if (prime)
+				p[count++] = c;
+		}
+		return p;
+	}
+
+}
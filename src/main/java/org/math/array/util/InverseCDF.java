@@ -0,0 +1,622 @@
+package org.math.array.util;
+
+import org.math.array.DoubleArray;
+
+/**
+ * Inverse cumulative distribution functions of the distributions of Random,
+ * as Function objects mapping a number u of [0, 1] to the quantile of order u.
+ * <P>
+ * They turn uniform point sets (Sobol, Halton, Latin hypercube designs) into
+ * samples of any of these distributions while keeping the structure of the
+ * points, which the rejection-based methods of Random would not:
+ * <PRE>
+ * double[][] X = InverseCDF.apply(new Sobol(3).points(1024), new Function[] {
+ * 		InverseCDF.normal(0, 1), InverseCDF.exponential(2), InverseCDF.beta(2, 5) });
+ * </PRE>
+ * <P>
+ * The normal quantile uses algorithm AS 241 of Wichura (relative accuracy
+ * 1e-16). Gamma, chi2 and beta quantiles are computed by Halley iterations on
+ * the regularized incomplete gamma and beta functions, Poisson and binomial
+ * quantiles by a search around the mean.
+ * <P>
+ * BSD License
+ *
+ * @see Random
+ */
+public final class InverseCDF {
+
+	private static final double EPSILON = 1e-14;
+
+	private InverseCDF() {
+	}
+
+	/**
+	 * Map all the coordinates of points through the same inverse CDF.
+	 *
+	 * @param points
+	 *            Points of [0, 1]^d.
+	 * @param icdf
+	 *            Inverse CDF.
+	 * @return A new matrix.
+	 */
+	public static double[][] apply(double[][] points, Function icdf) {
+		double[][] X = new double[points.length][];
+		for (int i = 0; i < points.length; i++) {
+			X[i] = new double[points[i].length];
+			for (int j = 0; j < X[i].length; j++)
+				X[i][j] = icdf.f(points[i][j]);
+		}
+		return X;
+	}
+
+	/**
+	 * Map each coordinate of points through its own inverse CDF.
+	 *
+	 * @param points
+	 *            Points of [0, 1]^d.
+	 * @param icdf
+	 *            Inverse CDF of each coordinate.
+	 * @return A new matrix.
+	 */
+	public static double[][] apply(double[][] points, Function[] icdf) {
+		DoubleArray.checkColumnDimension(points, icdf.length);
+		double[][] X = new double[points.length][icdf.length];
+		for (int i = 0; i < points.length; i++)
+			for (int j = 0; j < icdf.length; j++)
+				X[i][j] = icdf[j].f(points[i][j]);
+		return X;
+	}
+
+	/**
+	 * @param min
+	 *            Min of the random variable.
+	 * @param max
+	 *            Max of the random variable.
+	 * @return Inverse CDF of a uniform random variable.
+	 */
+	public static Function uniform(final double min, final double max) {
+		return new Function() {
+			public double f(double u) {
+				return min + (max - min) * u;
+			}
+		};
+	}
+
+	/**
+	 * @param mu
+	 *            Mean of the random variable.
+	 * @param sigma
+	 *            Standard deviation of the random variable.
+	 * @return Inverse CDF of a normal random variable.
+	 */
+	public static Function normal(final double mu, final double sigma) {
+		return new Function() {
+			public double f(double u) {
+				return mu + sigma * normal(u);
+			}
+		};
+	}
+
+	/**
+	 * @param mu
+	 *            Mean of the Normal random variable.
+	 * @param sigma
+	 *            Standard deviation of the Normal random variable.
+	 * @return Inverse CDF of a LogNormal random variable.
+	 */
+	public static Function logNormal(final double mu, final double sigma) {
+		return new Function() {
+			public double f(double u) {
+				return Math.exp(mu + sigma * normal(u));
+			}
+		};
+	}
+
+	/**
+	 * @param lambda
+	 *            Parameter of the exponential random variable (mean 1/lambda).
+	 * @return Inverse CDF of an exponential random variable.
+	 */
+	public static Function exponential(final double lambda) {
+		return new Function() {
+			public double f(double u) {
+				return -Math.log(1 - u) / lambda;
+			}
+		};
+	}
+
+	/**
+	 * @param min
+	 *            Min of the random variable.
+	 * @param max
+	 *            Max of the random variable.
+	 * @return Inverse CDF of a symetric triangular random variable.
+	 */
+	public static Function triangular(double min, double max) {
+		return triangular(min, (min + max) / 2, max);
+	}
+
+	/**
+	 * @param min
+	 *            Min of the random variable.
+	 * @param med
+	 *            Value of the random variable with max density.
+	 * @param max
+	 *            Max of the random variable.
+	 * @return Inverse CDF of a non-symetric triangular random variable.
+	 */
+	public static Function triangular(final double min, final double med, final double max) {
+		return new Function() {
+			public double f(double u) {
+				return (u < ((med - min) / (max - min))) ? (min + Math.sqrt(u * (max - min) * (med - min)))
+						: (max - Math.sqrt((1 - u) * (max - min) * (max - med)));
+			}
+		};
+	}
+
+	/**
+	 * @param mu
+	 *            Median of the Cauchy random variable.
+	 * @param sigma
+	 *            Second parameter of the Cauchy random variable.
+	 * @return Inverse CDF of a Cauchy random variable.
+	 */
+	public static Function cauchy(final double mu, final double sigma) {
+		return new Function() {
+			public double f(double u) {
+				return sigma * Math.tan(Math.PI * (u - 0.5)) + mu;
+			}
+		};
+	}
+
+	/**
+	 * @param lambda
+	 *            First parameter of the Weibull random variable.
+	 * @param c
+	 *            Second parameter of the Weibull random variable.
+	 * @return Inverse CDF of a Weibull random variable.
+	 */
+	public static Function weibull(final double lambda, final double c) {
+		return new Function() {
+			public double f(double u) {
+				return Math.pow(-Math.log(1 - u), 1 / c) / lambda;
+			}
+		};
+	}
+
+	/**
+	 * @param values
+	 *            Discrete values.
+	 * @param prob
+	 *            Probability (may be not normalized) of each value.
+	 * @return Inverse CDF of a discrete random variable.
+	 */
+	public static Function dirac(double[] values, double[] prob) {
+		DoubleArray.checkLength(values, prob.length);
+		final double[] v = DoubleArray.copy(values);
+		final double[] cumulative = new double[prob.length];
+		double sum = 0;
+		for (int i = 0; i < prob.length; i++) {
+			if (!(prob[i] >= 0))
+				throw new IllegalArgumentException("Probability " + i + " is not a positive number : " + prob[i]);
+			sum += prob[i];
+			cumulative[i] = sum;
+		}
+		if (sum <= 0)
+			throw new IllegalArgumentException("Probabilities sum to zero.");
+		for (int i = 0; i < cumulative.length; i++)
+			cumulative[i] /= sum;
+		return new Function() {
+			public double f(double u) {
+				// first value whose cumulative probability exceeds u
+				int lo = 0;
+				int hi = cumulative.length - 1;
+				while (lo < hi) {
+					int mid = (lo + hi) >>> 1;
+					if (cumulative[mid] > u)
+						hi = mid;
+					else
+						lo = mid + 1;
+				}
+				return v[lo];
+			}
+		};
+	}
+
+	/**
+	 * @param shape
+	 *            Shape of the Gamma random variable.
+	 * @param scale
+	 *            Scale of the Gamma random variable.
+	 * @return Inverse CDF of a Gamma random variable.
+	 */
+	public static Function gamma(final double shape, final double scale) {
+		if (!(shape > 0) || !(scale > 0))
+			throw new IllegalArgumentException("Shape and scale must be positive : " + shape + ", " + scale);
+		return new Function() {
+			public double f(double u) {
+				return scale * gammaQuantile(u, shape);
+			}
+		};
+	}
+
+	/**
+	 * @param n
+	 *            Degrees of freedom of the chi2 random variable.
+	 * @return Inverse CDF of a chi2 random variable.
+	 */
+	public static Function chi2(int n) {
+		return gamma(n / 2.0, 2);
+	}
+
+	/**
+	 * @param a
+	 *            First parameter of the Beta random variable.
+	 * @param b
+	 *            Second parameter of the Beta random variable.
+	 * @return Inverse CDF of a Beta random variable.
+	 */
+	public static Function beta(final double a, final double b) {
+		if (!(a > 0) || !(b > 0))
+			throw new IllegalArgumentException("Parameters must be positive : " + a + ", " + b);
+		return new Function() {
+			public double f(double u) {
+				return betaQuantile(u, a, b);
+			}
+		};
+	}
+
+	/**
+	 * @param lambda
+	 *            Mean of the Poisson random variable.
+	 * @return Inverse CDF of a Poisson random variable.
+	 */
+	public static Function poisson(final double lambda) {
+		if (!(lambda > 0))
+			throw new IllegalArgumentException("Mean must be positive : " + lambda);
+		return new Function() {
+			public double f(double u) {
+				if (u >= 1)
+					return Double.POSITIVE_INFINITY;
+				// P(X <= k) = Q(k + 1, lambda), started at the mean
+				int k = (int) Math.floor(lambda);
+				double cdf = 1 - regularizedGammaP(k + 1, lambda);
+				if (cdf > u) {
+					while (k > 0) {
+						double below = cdf - Math.exp(k * Math.log(lambda) - lambda - logGamma(k + 1));
+						if (below <= u)
+							break;
+						cdf = below;
+						k--;
+					}
+				} else {
+					while (cdf <= u) {
+						double next = cdf + Math.exp((k + 1) * Math.log(lambda) - lambda - logGamma(k + 2));
+						// far in the tail the terms no longer change the sum,
+						// which may stay below u because of rounding errors
+						if (next == cdf)
+							break;
+						k++;
+						cdf = next;
+					}
+				}
+				return k;
+			}
+		};
+	}
+
+	/**
+	 * @param n
+	 *            Number of trials.
+	 * @param p
+	 *            Probability of success.
+	 * @return Inverse CDF of a binomial random variable.
+	 */
+	public static Function binomial(final int n, final double p) {
+		if (n < 0 || !(p >= 0 && p <= 1))
+			throw new IllegalArgumentException("Invalid parameters : " + n + ", " + p);
+		return new Function() {
+			public double f(double u) {
+				if (p == 0 || n == 0)
+					return 0;
+				if (p == 1)
+					return n;
+				// P(X <= k) = I(1-p; n-k, k+1), started at the mean
+				int k = (int) Math.floor(n * p);
+				double cdf = k >= n ? 1 : regularizedBeta(1 - p, n - k, k + 1);
+				if (cdf > u) {
+					while (k > 0) {
+						double below = cdf - pmf(k);
+						if (below <= u)
+							break;
+						cdf = below;
+						k--;
+					}
+				} else {
+					while (cdf <= u && k < n) {
+						k++;
+						cdf += pmf(k);
+					}
+				}
+				return k;
+			}
+
+			private double pmf(int k) {
+				return Math.exp(logGamma(n + 1) - logGamma(k + 1) - logGamma(n - k + 1) + k * Math.log(p) + (n - k) * Math.log1p(-p));
+			}
+		};
+	}
+
+	/**
+	 * Quantile of the standard normal distribution (algorithm AS 241).
+	 *
+	 * @param u
+	 *            Probability.
+	 * @return x such that P(X &lt;= x) = u.
+	 */
+	public static double normal(double u) {
+		if (u <= 0)
+			return u == 0 ? Double.NEGATIVE_INFINITY : Double.NaN;
+		if (u >= 1)
+			return u == 1 ? Double.POSITIVE_INFINITY : Double.NaN;
+		double q = u - 0.5;
+		if (Math.abs(q) <= 0.425) {
+			double r = 0.180625 - q * q;
+			return q
+					* (((((((2.5090809287301226727e3 * r + 3.3430575583588128105e4) * r + 6.7265770927008700853e4) * r + 4.5921953931549871457e4) * r + 1.3731693765509461125e4)
+							* r + 1.9715909503065514427e3)
+							* r + 1.3314166789178437745e2)
+							* r + 3.3871328727963666080e0)
+					/ (((((((5.2264952788528545610e3 * r + 2.8729085735721942674e4) * r + 3.9307895800092710610e4) * r + 2.1213794301586595867e4) * r + 5.3941960214247511077e3)
+							* r + 6.8718700749205790830e2)
+							* r + 4.2313330701600911252e1)
+							* r + 1.0);
+		}
+		double r = Math.sqrt(-Math.log(q < 0 ? u : 1 - u));
+		double x;
+		if (r <= 5) {
+			r -= 1.6;
+			x = (((((((7.74545014278341407640e-4 * r + 2.27238449892691845833e-2) * r + 2.41780725177450611770e-1) * r + 1.27045825245236838258e0) * r + 3.64784832476320460504e0)
+					* r + 5.76949722146069140550e0)
+					* r + 4.63033784615654529590e0)
+					* r + 1.42343711074968357734e0)
+					/ (((((((1.05075007164441684324e-9 * r + 5.47593808499534494600e-4) * r + 1.51986665636164571966e-2) * r + 1.48103976427480074590e-1) * r + 6.89767334985100004550e-1)
+							* r + 1.67638483018380384940e0)
+							* r + 2.05319162663775882187e0)
+							* r + 1.0);
+		} else {
+			r -= 5;
+			x = (((((((2.01033439929228813265e-7 * r + 2.71155556874348757815e-5) * r + 1.24266094738807843860e-3) * r + 2.65321895265761230930e-2) * r + 2.96560571828504891230e-1)
+					* r + 1.78482653991729133580e0)
+					* r + 5.46378491116411436990e0)
+					* r + 6.65790464350110377720e0)
+					/ (((((((2.04426310338993978564e-15 * r + 1.42151175831644588870e-7) * r + 1.84631831751005468180e-5) * r + 7.86869131145613259100e-4) * r + 1.48753612908506148525e-2)
+							* r + 1.36929880922735805310e-1)
+							* r + 5.99832206555887937690e-1)
+							* r + 1.0);
+		}
+		return q < 0 ? -x : x;
+	}
+
+	// quantile of a Gamma(a, 1) random variable
+	static double gammaQuantile(double u, double a) {
+		if (u <= 0)
+			return u == 0 ? 0 : Double.NaN;
+		if (u >= 1)
+			return u == 1 ? Double.POSITIVE_INFINITY : Double.NaN;
+		double gln = logGamma(a);
+		double a1 = a - 1;
+		double lna1 = 0;
+		double afac = 0;
+		double x;
+		// starting point, then Halley iterations (Numerical Recipes, invgammp)
+		if (a > 1) {
+			lna1 = Math.log(a1);
+			afac = Math.exp(a1 * (lna1 - 1) - gln);
+			double pp = u < 0.5 ? u : 1 - u;
+			double t = Math.sqrt(-2 * Math.log(pp));
+			x = (2.30753 + t * 0.27061) / (1 + t * (0.99229 + t * 0.04481)) - t;
+			if (u < 0.5)
+				x = -x;
+			x = Math.max(1e-3, a * Math.pow(1 - 1 / (9 * a) - x / (3 * Math.sqrt(a)), 3));
+		} else {
+			double t = 1 - a * (0.253 + a * 0.12);
+			if (u < t)
+				x = Math.pow(u / t, 1 / a);
+			else
+				x = 1 - Math.log(1 - (u - t) / (1 - t));
+		}
+		for (int j = 0; j < 100; j++) {
+			if (x <= 0)
+				return 0;
+			double err = regularizedGammaP(a, x) - u;
+			double t;
+			if (a > 1)
+				t = afac * Math.exp(-(x - a1) + a1 * (Math.log(x) - lna1));
+			else
+				t = Math.exp(-x + a1 * Math.log(x) - gln);
+			if (t == 0)
+				break;
+			double v = err / t;
+			double step = v / (1 - 0.5 * Math.min(1, v * (a1 / x - 1)));
+			x -= step;
+			if (x <= 0)
+				x = 0.5 * (x + step);
+			if (Math.abs(step) < EPSILON * x)
+				break;
+		}
+		return x;
+	}
+
+	// quantile of a Beta(a, b) random variable
+	static double betaQuantile(double u, double a, double b) {
+		if (u <= 0)
+			return u == 0 ? 0 : Double.NaN;
+		if (u >= 1)
+			return u == 1 ? 1 : Double.NaN;
+		double a1 = a - 1;
+		double b1 = b - 1;
+		double x;
+		// starting point, then Halley iterations (Numerical Recipes, invbetai)
+		if (a >= 1 && b >= 1) {
+			double pp = u < 0.5 ? u : 1 - u;
+			double t = Math.sqrt(-2 * Math.log(pp));
+			x = (2.30753 + t * 0.27061) / (1 + t * (0.99229 + t * 0.04481)) - t;
+			if (u < 0.5)
+				x = -x;
+			double al = (x * x - 3) / 6;
+			double h = 2 / (1 / (2 * a - 1) + 1 / (2 * b - 1));
+			double w = (x * Math.sqrt(al + h) / h) - (1 / (2 * b - 1) - 1 / (2 * a - 1)) * (al + 5. / 6 - 2 / (3 * h));
+			x = a / (a + b * Math.exp(2 * w));
+		} else {
+			double lna = Math.log(a / (a + b));
+			double lnb = Math.log(b / (a + b));
+			double t = Math.exp(a * lna) / a;
+			double w = Math.exp(b * lnb) / b;
+			double s = t + w;
+			if (u < t / s)
+				x = Math.pow(a * s * u, 1 / a);
+			else
+				x = 1 - Math.pow(b * s * (1 - u), 1 / b);
+		}
+		double afac = -logGamma(a) - logGamma(b) + logGamma(a + b);
+		for (int j = 0; j < 100; j++) {
+			if (x == 0 || x == 1)
+				return x;
+			double err = regularizedBeta(x, a, b) - u;
+			double t = Math.exp(a1 * Math.log(x) + b1 * Math.log1p(-x) + afac);
+			if (t == 0)
+				break;
+			double v = err / t;
+			double step = v / (1 - 0.5 * Math.min(1, v * (a1 / x - b1 / (1 - x))));
+			x -= step;
+			if (x <= 0)
+				x = 0.5 * (x + step);
+			if (x >= 1)
+				x = 0.5 * (x + step + 1);
+			if (Math.abs(step) < EPSILON * x && j > 0)
+				break;
+		}
+		return x;
+	}
+
+	/**
+	 * Logarithm of the Gamma function (Lanczos approximation, g = 7).
+	 */
+	static double logGamma(double x) {
+		if (x < 0.5)
+			// reflection formula
+			return Math.log(Math.PI / Math.abs(Math.sin(Math.PI * x))) - logGamma(1 - x);
+		x -= 1;
+		double a = 0.99999999999980993;
+		double t = x + 7.5;
+		a += 676.5203681218851 / (x + 1);
+		a += -1259.1392167224028 / (x + 2);
+		a += 771.32342877765313 / (x + 3);
+		a += -176.61502916214059 / (x + 4);
+		a += 12.507343278686905 / (x + 5);
+		a += -0.13857109526572012 / (x + 6);
+		a += 9.9843695780195716e-6 / (x + 7);
+		a += 1.5056327351493116e-7 / (x + 8);
+		return 0.5 * Math.log(2 * Math.PI) + (x + 0.5) * Math.log(t) - t + Math.log(a);
+	}
+
+	/**
+	 * Regularized lower incomplete Gamma function P(a, x): series for x &lt;
+	 * a + 1, continued fraction otherwise.
+	 */
+	static double regularizedGammaP(double a, double x) {
+		if (x <= 0)
+			return 0;
+		double gln = logGamma(a);
+		if (x < a + 1) {
+			double ap = a;
+			double sum = 1 / a;
+			double del = sum;
+			for (int n = 0; n < 1000; n++) {
+				ap++;
+				del *= x / ap;
+				sum += del;
+				if (Math.abs(del) < Math.abs(sum) * 1e-16)
+					break;
+			}
+			return sum * Math.exp(-x + a * Math.log(x) - gln);
+		}
+		// modified Lentz method for the continued fraction of Q(a, x)
+		double tiny = 1e-300;
+		double b = x + 1 - a;
+		double c = 1 / tiny;
+		double d = 1 / b;
+		double h = d;
+		for (int i = 1; i < 1000; i++) {
+			double an = -i * (i - a);
+			b += 2;
+			d = an * d + b;
+			if (Math.abs(d) < tiny)
+				d = tiny;
+			c = b + an / c;
+			if (Math.abs(c) < tiny)
+				c = tiny;
+			d = 1 / d;
+			double del = d * c;
+			h *= del;
+			if (Math.abs(del - 1) < 1e-16)
+				break;
+		}
+		return 1 - Math.exp(-x + a * Math.log(x) - gln) * h;
+	}
+
+	/**
+	 * Regularized incomplete Beta function I(x; a, b), by its continued
+	 * fraction.
+	 */
+	static double regularizedBeta(double x, double a, double b) {
+		if (x <= 0)
+			return 0;
+		if (x >= 1)
+			return 1;
+		double front = Math.exp(logGamma(a + b) - logGamma(a) - logGamma(b) + a * Math.log(x) + b * Math.log1p(-x));
+		if (x < (a + 1) / (a + b + 2))
+			return front * betaFraction(x, a, b) / a;
+		return 1 - front * betaFraction(1 - x, b, a) / b;
+	}
+
+	private static double betaFraction(double x, double a, double b) {
+		double tiny = 1e-300;
+		double qab = a + b;
+		double qap = a + 1;
+		double qam = a - 1;
+		double c = 1;
+		double d = 1 - qab * x / qap;
+		if (Math.abs(d) < tiny)
+			d = tiny;
+		d = 1 / d;
+		double h = d;
+		for (int m = 1; m < 1000; m++) {
+			int m2 = 2 * m;
+			double aa = m * (b - m) * x / ((qam + m2) * (a + m2));
+			d = 1 + aa * d;
+			if (Math.abs(d) < tiny)
+				d = tiny;
+			c = 1 + aa / c;
+			if (Math.abs(c) < tiny)
+				c = tiny;
+			d = 1 / d;
+			h *= d * c;
+			aa = -(a + m) * (qab + m) * x / ((a + m2) * (qap + m2));
+			d = 1 + aa * d;
+			if (Math.abs(d) < tiny)
+				d = tiny;
+			c = 1 + aa / c;
+			if (Math.abs(c) < tiny)
+				c = tiny;
+			d = 1 / d;
+			double del = d * c;
+			h *= del;
+			if (Math.abs(del - 1) < 1e-16)
+				break;
+		}
+		return h;
+	}
+
+}
@@ -0,0 +1,272 @@
+package org.math.array.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import edu.cornell.lassp.houle.RngPack.RandomElement;
+
+/**
+ * Latin hypercube designs of m points in [0, 1]^n: in each coordinate, each of
+ * the m intervals [k/m, (k+1)/m[ holds exactly one point.
+ * <P>
+ * The maximin designs are optimized for the phi_p criterion of Morris and
+ * Mitchell, a smooth version of the smallest distance between two points. The
+ * optimization exchanges two values of a column, which keeps the Latin
+ * hypercube structure, and only keeps exchanges that improve the criterion.
+ * The squared distances between the points are stored, so an exchange is
+ * evaluated and applied in O(m) instead of O(m^2 n). Independent restarts run
+ * in parallel, each one on its own random stream derived from the given
+ * generator, so the result does not depend on the number of threads.
+ * <P>
+ * Map the designs through any distribution with <code>InverseCDF</code>.
+ * <P>
+ * References: M. D. McKay, R. J. Beckman and W. J. Conover, <i>A comparison
+ * of three methods for selecting values of input variables in the analysis of
+ * output from a computer code</i>, Technometrics 21 (1979) 239-245. M. D.
+ * Morris and T. J. Mitchell, <i>Exploratory designs for computational
+ * experiments</i>, J. Statist. Plann. Inference 43 (1995) 381-402.
+ * <P>
+ * BSD License
+ *
+ * @see InverseCDF
+ */
+public final class LatinHypercube {
+
+	private LatinHypercube() {
+	}
+
+	/**
+	 * Build a Latin hypercube design with uniformly distributed points in
+	 * their cells.
+	 *
+	 * @param m
+	 *            Number of points.
+	 * @param n
+	 *            Dimension.
+	 * @param e
+	 *            Random number generator.
+	 * @return An m x n matrix.
+	 */
+	public static double[][] random(int m, int n, RandomElement e) {
+		return design(m, n, false, e);
+	}
+
+	/**
+	 * Build a Latin hypercube design with points at the center of their cells.
+	 *
+	 * @param m
+	 *            Number of points.
+	 * @param n
+	 *            Dimension.
+	 * @param e
+	 *            Random number generator.
+	 * @return An m x n matrix.
+	 */
+	public static double[][] centered(int m, int n, RandomElement e) {
+		return design(m, n, true, e);
+	}
+
+	/**
+	 * Build a maximin Latin hypercube design, using all the available
+	 * processors.
+	 *
+	 * @param m
+	 *            Number of points.
+	 * @param n
+	 *            Dimension.
+	 * @param centered
+	 *            Whether points are at the center of their cells.
+	 * @param restarts
+	 *            Number of independent optimizations, the best one is kept.
+	 * @param iterations
+	 *            Number of exchanges tried by each optimization.
+	 * @param e
+	 *            Random number generator, used to seed the restarts.
+	 * @return An m x n matrix.
+	 */
+	public static double[][] maximin(int m, int n, boolean centered, int restarts, int iterations, RandomElement e) {
+		return maximin(m, n, centered, restarts, iterations, e, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Build a maximin Latin hypercube design.
+	 *
+	 * @param m
+	 *            Number of points.
+	 * @param n
+	 *            Dimension.
+	 * @param centered
+	 *            Whether points are at the center of their cells.
+	 * @param restarts
+	 *            Number of independent optimizations, the best one is kept.
+	 * @param iterations
+	 *            Number of exchanges tried by each optimization.
+	 * @param e
+	 *            Random number generator, used to seed the restarts.
+	 * @param threads
+	 *            Number of threads.
+	 * @return An m x n matrix.
+	 */
+	public static double[][] maximin(final int m, final int n, final boolean centered, int restarts, final int iterations, RandomElement e, int threads) {
+		if (restarts < 1)
+			throw new IllegalArgumentException("Number of restarts must be positive : " + restarts);
+		if (threads < 1)
+			throw new IllegalArgumentException("Number of threads must be positive : " + threads);
+		checkSize(m, n);
+		final RandomStreams streams = new RandomStreams(seed(e));
+		final Optimization[] results = new Optimization[restarts];
+		List<Runnable> tasks = new ArrayList<Runnable>(restarts);
+		for (int r = 0; r < restarts; r++) {
+			final int stream = r;
+			tasks.add(new Runnable() {
+				public void run() {
+					results[stream] = new Optimization(m, n, centered, iterations, streams.stream(stream));
+				}
+			});
+		}
+		Parallel.run(tasks, threads);
+		// ties are resolved by the restart number
+		Optimization best = results[0];
+		for (int r = 1; r < restarts; r++)
+			if (results[r].phi < best.phi)
+				best = results[r];
+		return best.X;
+	}
+
+	/**
+	 * Smallest distance between two points of a design.
+	 *
+	 * @param X
+	 *            Design.
+	 * @return Euclidean distance.
+	 */
+	public static double minDistance(double[][] X) {
+		double min = Double.POSITIVE_INFINITY;
+		for (int i = 0; i < X.length; i++)
+			for (int j = i + 1; j < X.length; j++)
+				min = Math.min(min, squaredDistance(X[i], X[j]));
+		return Math.sqrt(min);
+	}
+
+	private static void checkSize(int m, int n) {
+		if (m < 1 || n < 1)
+			throw new IllegalArgumentException("Design size must be positive : " + m + " x " + n);
+	}
+
+	private static double[][] design(int m, int n, boolean centered, RandomElement e) {
+		checkSize(m, n);
+		double[][] X = new double[m][n];
+		int[] cells = new int[m];
+		for (int j = 0; j < n; j++) {
+			permutation(cells, e);
+			for (int i = 0; i < m; i++)
+				X[i][j] = (cells[i] + (centered ? 0.5 : e.raw())) / m;
+		}
+		return X;
+	}
+
+	// random permutation of 0..m-1 (Fisher-Yates)
+	private static void permutation(int[] p, RandomElement e) {
+		for (int i = 0; i < p.length; i++)
+			p[i] = i;
+		for (int i = p.length - 1; i > 0; i--) {
+			int k = index(i + 1, e);
+			int t = p[i];
+			p[i] = p[k];
+			p[k] = t;
+		}
+	}
+
+	// uniform integer in 0..n-1: RandomElement.choose(lo, hi) never returns hi
+	private static int index(int n, RandomElement e) {
+		return Math.min(n - 1, (int) (n * e.raw()));
+	}
+
+	private static long seed(RandomElement e) {
+		return ((long) (e.raw() * (1 << 30)) << 30) ^ (long) (e.raw() * (1 << 30));
+	}
+
+	private static double squaredDistance(double[] x, double[] y) {
+		double d = 0;
+		for (int k = 0; k < x.length; k++)
+			d += (x[k] - y[k]) * (x[k] - y[k]);
+		return d;
+	}
+
+	// contribution of a pair of points to the phi_p criterion: d^-p with p = 20,
+	// and d in grid units so that it neither overflows nor underflows
+	private static double term(double d2) {
+		double t = 1 / d2;
+		double t2 = t * t;
+		double t4 = t2 * t2;
+		return t4 * t4 * t2;
+	}
+
+	/**
+	 * One optimization, from a random design.
+	 */
+	private static final class Optimization {
+
+		final double[][] X;
+
+		// sum of the terms of all the pairs of points
+		final double phi;
+
+		Optimization(int m, int n, boolean centered, int iterations, RandomElement e) {
+			X = design(m, n, centered, e);
+			if (m < 3) {
+				phi = m < 2 ? 0 : term(squaredDistance(X[0], X[1]) * m * m);
+				return;
+			}
+			// squared distances between points, in grid units
+			double scale = (double) m * m;
+			double[][] D = new double[m][m];
+			double sum = 0;
+			for (int i = 0; i < m; i++)
+				for (int j = i + 1; j < m; j++) {
+					D[i][j] = D[j][i] = squaredDistance(X[i], X[j]) * scale;
+					sum += term(D[i][j]);
+				}
+			double[] da = new double[m];
+			double[] db = new double[m];
+			for (int it = 0; it < iterations; it++) {
+				int k = index(n, e);
+				int a = index(m, e);
+				int b = index(m - 1, e);
+				if (b >= a)
+					b++;
+				double xa = X[a][k];
+				double xb = X[b][k];
+				double delta = 0;
+				for (int l = 0; l < m; l++) {
+					if (l == a || l == b)
+						continue;
+					double xl = X[l][k];
+					// only the coordinate k of a and b changes
+					double change = ((xb - xl) * (xb - xl) - (xa - xl) * (xa - xl)) * scale;
+					da[l] = D[a][l] + change;
+					db[l] = D[b][l] - change;
+					delta += term(da[l]) + term(db[l]) - term(D[a][l]) - term(D[b][l]);
+				}
+				if (delta < 0) {
+					X[a][k] = xb;
+					X[b][k] = xa;
+					for (int l = 0; l < m; l++) {
+						if (l == a || l == b)
+							continue;
+						D[a][l] = D[l][a] = da[l];
+						D[b][l] = D[l][b] = db[l];
+					}
+					sum += delta;
+				}
+			}
+			// recomputed, rather than accumulated with rounding errors
+			sum = 0;
+			for (int i = 0; i < m; i++)
+				for (int j = i + 1; j < m; j++)
+					sum += term(squaredDistance(X[i], X[j]) * scale);
+			phi = sum;
+		}
+	}
+
+}
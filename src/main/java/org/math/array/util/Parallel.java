@@ -0,0 +1,63 @@
+package org.math.array.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Runs independent tasks on a fixed number of threads, for the multi-threaded
+ * methods of the package.
+ * <P>
+ * BSD License
+ */
+final class Parallel {
+
+	private Parallel() {
+	}
+
+	/**
+	 * Runs tasks on at most threads threads, and waits for their end. With
+	 * one thread or one task, the tasks are run by the calling thread.
+	 * <P>
+	 * If tasks fail, the exception thrown is the one of the first failing
+	 * task of the list, where a sequential loop would have stopped; checked
+	 * exceptions are wrapped in an IllegalStateException, as well as an
+	 * interruption of the calling thread, whose interrupt status is then set.
+	 *
+	 * @param tasks
+	 *            Tasks to run.
+	 * @param threads
+	 *            Number of threads.
+	 */
+	static void run(List<? extends Runnable> tasks, int threads) {
+		if (threads == 1 || tasks.size() < 2) {
+			for (int t = 0; t < tasks.size(); t++)
+				tasks.get(t).run();
+			return;
+		}
+		ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, tasks.size()));
+		try {
+			List<Future<?>> results = new ArrayList<Future<?>>(tasks.size());
+			for (int t = 0; t < tasks.size(); t++)
+				results.add(executor.submit(tasks.get(t)));
+			for (int t = 0; t < results.size(); t++)
+				results.get(t).get();
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while waiting for the tasks.");
+		} catch (ExecutionException ex) {
+			Throwable cause = ex.getCause();
+			if (cause instanceof RuntimeException)
+				throw (RuntimeException) cause;
+			if (cause instanceof Error)
+				throw (Error) cause;
+			throw new IllegalStateException(cause);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+}
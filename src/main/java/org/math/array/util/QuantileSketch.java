@@ -0,0 +1,423 @@
+package org.math.array.util;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Streaming quantile sketch (merging t-digest).
+ * <P>
+ * Values are summarized into at most about <code>compression</code> weighted
+ * centroids, small ones near the tails and large ones near the median, so
+ * that extreme quantiles (p99, p999) stay accurate while memory is bounded
+ * whatever the number of values added. Sketches built on different threads
+ * or hosts can be combined with <code>merge</code>, and shipped around with
+ * <code>toByteArray</code> / <code>fromByteArray</code>.
+ * <P>
+ * Reference: T. Dunning, O. Ertl, <i>Computing extremely accurate quantiles
+ * using t-digests</i> (2019).
+ * <P>
+ * This class is not synchronized: use one sketch per thread and merge them.
+ * <P>
+ * BSD License
+ */
+public class QuantileSketch {
+
+	public final static double DEFAULT_COMPRESSION = 200;
+
+	private final static int SERIAL_VERSION = 1;
+
+	private final double compression;
+
+	// merged centroids, sorted by mean
+	private double[] mean;
+
+	private double[] weight;
+
+	private int numCentroids;
+
+	// values added since the last compression
+	private double[] bufferMean;
+
+	private double[] bufferWeight;
+
+	private int bufferSize;
+
+	private double totalWeight;
+
+	private double min = Double.POSITIVE_INFINITY;
+
+	private double max = Double.NEGATIVE_INFINITY;
+
+	/**
+	 * Build an empty sketch with the default compression.
+	 */
+	public QuantileSketch() {
+		this(DEFAULT_COMPRESSION);
+	}
+
+	/**
+	 * Build an empty sketch.
+	 *
+	 * @param compression
+	 *            Accuracy parameter: the sketch keeps at most about
+	 *            compression centroids. 100 to 500 are typical values.
+	 */
+	public QuantileSketch(double compression) {
+		if (!(compression >= 10))
+			throw new IllegalArgumentException("Compression must be at least 10, found " + compression);
+		this.compression = compression;
+		int size = (int) Math.ceil(compression) + 10;
+		mean = new double[size];
+		weight = new double[size];
+		bufferMean = new double[5 * size];
+		bufferWeight = new double[5 * size];
+	}
+
+	/**
+	 * Build a sketch of all the values of an array.
+	 *
+	 * @param values
+	 *            Values to add.
+	 */
+	public QuantileSketch(double[] values) {
+		this();
+		add(values);
+	}
+
+	/**
+	 * Add one value to the sketch. NaN values are ignored.
+	 *
+	 * @param x
+	 *            Value to add.
+	 */
+	public void add(double x) {
+		add(x, 1);
+	}
+
+	/**
+	 * Add one weighted value to the sketch. NaN values are ignored.
+	 *
+	 * @param x
+	 *            Value to add.
+	 * @param w
+	 *            Weight of the value, strictly positive.
+	 */
+	public void add(double x, double w) {
+		if (Double.isNaN(x))
+			return;
+		if (!(w > 0))
+			throw new IllegalArgumentException("Weight must be strictly positive, found " + w);
+		if (bufferSize == bufferMean.length)
+			compress();
+		bufferMean[bufferSize] = x;
+		bufferWeight[bufferSize] = w;
+		bufferSize++;
+		totalWeight += w;
+		if (x < min)
+			min = x;
+		if (x > max)
+			max = x;
+	}
+
+	/**
+	 * Add all the values of an array to the sketch.
+	 *
+	 * @param values
+	 *            Values to add.
+	 */
+	public void add(double[] values) {
+		for (int i = 0; i < values.length; i++)
+			add(values[i], 1);
+	}
+
+	/**
+	 * Merge another sketch into this one. The other sketch is not modified.
+	 *
+	 * @param other
+	 *            Sketch to merge.
+	 */
+	public void merge(QuantileSketch other) {
+		other.compress();
+		for (int i = 0; i < other.numCentroids; i++)
+			add(other.mean[i], other.weight[i]);
+		// keep exact extremes even if they were merged into centroids
+		if (other.min < min)
+			min = other.min;
+		if (other.max > max)
+			max = other.max;
+	}
+
+	/**
+	 * @return Total weight (number of values if all weights are 1) added so
+	 *         far.
+	 */
+	public double size() {
+		return totalWeight;
+	}
+
+	/**
+	 * @return Smallest value added, NaN if the sketch is empty.
+	 */
+	public double min() {
+		return totalWeight == 0 ? Double.NaN : min;
+	}
+
+	/**
+	 * @return Largest value added, NaN if the sketch is empty.
+	 */
+	public double max() {
+		return totalWeight == 0 ? Double.NaN : max;
+	}
+
+	/**
+	 * @return Number of centroids currently used to summarize the values.
+	 */
+	public int centroidCount() {
+		compress();
+		return numCentroids;
+	}
+
+	/**
+	 * Estimate a quantile.
+	 *
+	 * @param q
+	 *            Probability, between 0 and 1.
+	 * @return Estimated value x such that a fraction q of the values are below
+	 *         x, NaN if the sketch is empty.
+	 */
+	public double quantile(double q) {
+		if (q < 0 || q > 1)
+			throw new IllegalArgumentException("Probability must be between 0 and 1, found " + q);
+		compress();
+		if (numCentroids == 0)
+			return Double.NaN;
+		if (numCentroids == 1)
+			return mean[0];
+
+		double index = q * totalWeight;
+		if (index < 0.5)
+			return min;
+		if (index > totalWeight - 0.5)
+			return max;
+
+		// left tail: between min and the center of the first centroid
+		if (index < weight[0] / 2) {
+			if (weight[0] <= 1)
+				return mean[0];
+			return min + (index - 0.5) / (weight[0] / 2 - 0.5) * (mean[0] - min);
+		}
+		// right tail: between the center of the last centroid and max
+		int last = numCentroids - 1;
+		if (index > totalWeight - weight[last] / 2) {
+			if (weight[last] <= 1)
+				return mean[last];
+			return max - (totalWeight - index - 0.5) / (weight[last] / 2 - 0.5) * (max - mean[last]);
+		}
+
+		double cumulative = weight[0] / 2;
+		for (int i = 0; i < last; i++) {
+			double step = (weight[i] + weight[i + 1]) / 2;
+			if (cumulative + step >= index) {
+				double left = cumulative;
+				double right = cumulative + step;
+				// singletons are exact values: do not interpolate across them
+				if (weight[i] == 1 && index - left < 0.5)
+					return mean[i];
+				if (weight[i + 1] == 1 && right - index <= 0.5)
+					return mean[i + 1];
+				if (weight[i] == 1) {
+					left += 0.5;
+				}
+				if (weight[i + 1] == 1) {
+					right -= 0.5;
+				}
+				return mean[i] + (index - left) / (right - left) * (mean[i + 1] - mean[i]);
+			}
+			cumulative += step;
+		}
+		return mean[last];
+	}
+
+	/**
+	 * Estimate several quantiles at once.
+	 *
+	 * @param q
+	 *            Probabilities, between 0 and 1.
+	 * @return Estimated quantiles.
+	 */
+	public double[] quantiles(double... q) {
+		double[] x = new double[q.length];
+		for (int i = 0; i < q.length; i++)
+			x[i] = quantile(q[i]);
+		return x;
+	}
+
+	/**
+	 * Estimate the cumulative distribution function.
+	 *
+	 * @param x
+	 *            Value.
+	 * @return Estimated fraction of the values lower than or equal to x, NaN
+	 *         if the sketch is empty.
+	 */
+	public double cdf(double x) {
+		compress();
+		if (numCentroids == 0)
+			return Double.NaN;
+		if (x < min)
+			return 0;
+		if (x >= max)
+			return 1;
+		if (numCentroids == 1)
+			return (x - min) / (max - min);
+
+		// left tail
+		if (x < mean[0]) {
+			if (mean[0] - min <= 0)
+				return 0;
+			return (weight[0] / 2 * (x - min) / (mean[0] - min)) / totalWeight;
+		}
+		// right tail
+		int last = numCentroids - 1;
+		if (x >= mean[last]) {
+			if (max - mean[last] <= 0)
+				return 1;
+			return 1 - (weight[last] / 2 * (max - x) / (max - mean[last])) / totalWeight;
+		}
+
+		double cumulative = weight[0] / 2;
+		for (int i = 0; i < last; i++) {
+			if (x < mean[i + 1]) {
+				double step = (weight[i] + weight[i + 1]) / 2;
+				if (mean[i + 1] - mean[i] <= 0)
+					return (cumulative + step) / totalWeight;
+				return (cumulative + step * (x - mean[i]) / (mean[i + 1] - mean[i])) / totalWeight;
+			}
+			cumulative += (weight[i] + weight[i + 1]) / 2;
+		}
+		return 1;
+	}
+
+	/**
+	 * Serialize the sketch into a compact byte array: a small header followed
+	 * by one (mean, weight) pair per centroid.
+	 *
+	 * @return Byte array that can be read back with fromByteArray.
+	 */
+	public byte[] toByteArray() {
+		compress();
+		ByteBuffer buffer = ByteBuffer.allocate(4 + 8 * 4 + 4 + 16 * numCentroids);
+		buffer.putInt(SERIAL_VERSION);
+		buffer.putDouble(compression);
+		buffer.putDouble(totalWeight);
+		buffer.putDouble(min);
+		buffer.putDouble(max);
+		buffer.putInt(numCentroids);
+		for (int i = 0; i < numCentroids; i++) {
+			buffer.putDouble(mean[i]);
+			buffer.putDouble(weight[i]);
+		}
+		return buffer.array();
+	}
+
+	/**
+	 * Rebuild a sketch serialized with toByteArray.
+	 *
+	 * @param bytes
+	 *            Serialized sketch.
+	 * @return A new sketch.
+	 */
+	public static QuantileSketch fromByteArray(byte[] bytes) {
+		ByteBuffer buffer = ByteBuffer.wrap(bytes);
+		int version = buffer.getInt();
+		if (version != SERIAL_VERSION)
+			throw new IllegalArgumentException("Unknown sketch serialization version : " + version);
+		QuantileSketch s = new QuantileSketch(buffer.getDouble());
+		double total = buffer.getDouble();
+		double min = buffer.getDouble();
+		double max = buffer.getDouble();
+		int n = buffer.getInt();
+		for (int i = 0; i < n; i++) {
+			double m = buffer.getDouble();
+			s.add(m, buffer.getDouble());
+		}
+		s.compress();
+		s.totalWeight = total;
+		s.min = min;
+		s.max = max;
+		return s;
+	}
+
+	/**
+	 * Scale function k1 of the t-digest: centroids are allowed to span one
+	 * unit of k, which makes them small near q=0 and q=1.
+	 */
+	private double k(double q) {
+		return compression / (2 * Math.PI) * Math.asin(2 * q - 1);
+	}
+
+	private double kInverse(double k) {
+		if (k >= compression / 4)
+			return 1;
+		return (Math.sin(k * 2 * Math.PI / compression) + 1) / 2;
+	}
+
+	/**
+	 * Merge the buffered values with the current centroids.
+	 */
+	private void compress() {
+		if (bufferSize == 0)
+			return;
+
+		int n = numCentroids + bufferSize;
+		double[] allMean = new double[n];
+		double[] allWeight = new double[n];
+		System.arraycopy(mean, 0, allMean, 0, numCentroids);
+		System.arraycopy(weight, 0, allWeight, 0, numCentroids);
+		System.arraycopy(bufferMean, 0, allMean, numCentroids, bufferSize);
+		System.arraycopy(bufferWeight, 0, allWeight, numCentroids, bufferSize);
+		bufferSize = 0;
+
+		int[] order = new Sorting(allMean, false).getIndex();
+
+		double total = 0;
+		for (int i = 0; i < n; i++)
+			total += allWeight[i];
+
+		numCentroids = 0;
+		double curMean = allMean[0];
+		double curWeight = allWeight[order[0]];
+		double weightSoFar = 0;
+		double limit = total * kInverse(k(0) + 1);
+		for (int i = 1; i < n; i++) {
+			double x = allMean[i];
+			double w = allWeight[order[i]];
+			if (weightSoFar + curWeight + w <= limit) {
+				curWeight += w;
+				curMean += (x - curMean) * w / curWeight;
+			} else {
+				append(curMean, curWeight);
+				weightSoFar += curWeight;
+				limit = total * kInverse(k(weightSoFar / total) + 1);
+				curMean = x;
+				curWeight = w;
+			}
+		}
+		append(curMean, curWeight);
+		totalWeight = total;
+	}
+
+	private void append(double m, double w) {
+		if (numCentroids == mean.length) {
+			double[] newMean = new double[2 * mean.length];
+			double[] newWeight = new double[2 * mean.length];
+			System.arraycopy(mean, 0, newMean, 0, numCentroids);
+			System.arraycopy(weight, 0, newWeight, 0, numCentroids);
+			mean = newMean;
+			weight = newWeight;
+		}
+		mean[numCentroids] = m;
+		weight[numCentroids] = w;
+		numCentroids++;
+	}
+
+}
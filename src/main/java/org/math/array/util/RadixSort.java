@@ -0,0 +1,245 @@
+package org.math.array.util;
+
+/**
+ * Least significant digit radix sort of double and int arrays, giving the
+ * ascending order of the elements in the same format as Sorting.getIndex().
+ * <P>
+ * Doubles are sorted on their IEEE-754 bit pattern, mapped to an unsigned key
+ * whose order is the numeric order: the sign bit is flipped for positive
+ * numbers, all the bits for negative ones. The keys are sorted by digits of
+ * 11 bits, so 6 passes for doubles and 3 passes for ints, each pass being a
+ * counting sort without comparison; passes where all the keys have the same
+ * digit (high bits of values of similar magnitude, for instance) are skipped.
+ * The sort is stable, so the order is exactly the one of Sorting: equal
+ * values, -0.0 and 0.0 included, keep their initial order, and NaN values are
+ * put last.
+ * <P>
+ * The time is O(n) but the memory is 24 bytes per double and 16 bytes per
+ * int: use it for large arrays, from a few thousand elements.
+ * <P>
+ * BSD License
+ *
+ * @see Sorting
+ */
+public final class RadixSort {
+
+	private static final int DIGIT_BITS = 11;
+
+	private static final int RADIX = 1 << DIGIT_BITS;
+
+	private static final int MASK = RADIX - 1;
+
+	// size from which the radix sort is faster than Sorting
+	static final int THRESHOLD = 2048;
+
+	private RadixSort() {
+	}
+
+	/**
+	 * Get the ascending order of an array.
+	 *
+	 * @param values
+	 *            Array to sort, not modified.
+	 * @return Index of the elements in ascending order.
+	 */
+	public static int[] argsort(double[] values) {
+		int n = values.length;
+		long[] keys = new long[n];
+		for (int i = 0; i < n; i++)
+			keys[i] = key(values[i]);
+		return sortIndex(keys, 64);
+	}
+
+	/**
+	 * Get the ascending order of an array.
+	 *
+	 * @param values
+	 *            Array to sort, not modified.
+	 * @return Index of the elements in ascending order.
+	 */
+	public static int[] argsort(int[] values) {
+		int n = values.length;
+		int[] keys = new int[n];
+		for (int i = 0; i < n; i++)
+			keys[i] = values[i] ^ Integer.MIN_VALUE;
+		return sortIndex(keys);
+	}
+
+	/**
+	 * Sort an array.
+	 *
+	 * @param values
+	 *            Array to sort, not modified.
+	 * @return Sorted copy of the array.
+	 */
+	public static double[] sort(double[] values) {
+		int[] index = argsort(values);
+		double[] sorted = new double[values.length];
+		for (int i = 0; i < sorted.length; i++)
+			sorted[i] = values[index[i]];
+		return sorted;
+	}
+
+	/**
+	 * Sort an array.
+	 *
+	 * @param values
+	 *            Array to sort, not modified.
+	 * @return Sorted copy of the array.
+	 */
+	public static int[] sort(int[] values) {
+		int n = values.length;
+		int[] keys = new int[n];
+		for (int i = 0; i < n; i++)
+			keys[i] = values[i] ^ Integer.MIN_VALUE;
+		// the keys are enough, no need for the index
+		int[] sorted = sortKeys(keys);
+		for (int i = 0; i < n; i++)
+			sorted[i] ^= Integer.MIN_VALUE;
+		return sorted;
+	}
+
+	/**
+	 * Get the ascending order of an array, by Sorting when it is small, by a
+	 * radix sort when it is large: the result is the same.
+	 *
+	 * @param values
+	 *            Array to sort, not modified.
+	 * @return Index of the elements in ascending order.
+	 */
+	public static int[] order(double[] values) {
+		if (values.length >= THRESHOLD)
+			return argsort(values);
+		return new Sorting(values, true).getIndex();
+	}
+
+	/**
+	 * Unsigned key in the numeric order of doubles, with -0.0 equal to 0.0
+	 * and all NaN values equal, after positive infinity.
+	 */
+	static long key(double x) {
+		long bits;
+		if (x != x)
+			bits = 0x7ff8000000000000L;
+		else if (x == 0)
+			bits = 0L;
+		else
+			bits = Double.doubleToRawLongBits(x);
+		return bits < 0 ? ~bits : bits ^ Long.MIN_VALUE;
+	}
+
+	private static int[] sortIndex(long[] keys, int bits) {
+		int n = keys.length;
+		int passes = (bits + DIGIT_BITS - 1) / DIGIT_BITS;
+		int[][] counts = new int[passes][RADIX];
+		for (int i = 0; i < n; i++) {
+			long k = keys[i];
+			for (int p = 0; p < passes; p++)
+				counts[p][(int) (k >>> (p * DIGIT_BITS)) & MASK]++;
+		}
+		int[] index = new int[n];
+		for (int i = 0; i < n; i++)
+			index[i] = i;
+		if (n < 2)
+			return index;
+		long[] k2 = new long[n];
+		int[] i2 = new int[n];
+		for (int p = 0; p < passes; p++) {
+			int shift = p * DIGIT_BITS;
+			int[] c = counts[p];
+			if (c[(int) (keys[0] >>> shift) & MASK] == n)
+				continue;
+			offsets(c);
+			for (int i = 0; i < n; i++) {
+				int d = (int) (keys[i] >>> shift) & MASK;
+				int j = c[d]++;
+				k2[j] = keys[i];
+				i2[j] = index[i];
+			}
+			long[] tk = keys;
+			keys = k2;
+			k2 = tk;
+			int[] ti = index;
+			index = i2;
+			i2 = ti;
+		}
+		return index;
+	}
+
+	private static int[] sortIndex(int[] keys) {
+		int n = keys.length;
+		int passes = (32 + DIGIT_BITS - 1) / DIGIT_BITS;
+		int[][] counts = histograms(keys, passes);
+		int[] index = new int[n];
+		for (int i = 0; i < n; i++)
+			index[i] = i;
+		if (n < 2)
+			return index;
+		int[] k2 = new int[n];
+		int[] i2 = new int[n];
+		for (int p = 0; p < passes; p++) {
+			int shift = p * DIGIT_BITS;
+			int[] c = counts[p];
+			if (c[(keys[0] >>> shift) & MASK] == n)
+				continue;
+			offsets(c);
+			for (int i = 0; i < n; i++) {
+				int d = (keys[i] >>> shift) & MASK;
+				int j = c[d]++;
+				k2[j] = keys[i];
+				i2[j] = index[i];
+			}
+			int[] tk = keys;
+			keys = k2;
+			k2 = tk;
+			int[] ti = index;
+			index = i2;
+			i2 = ti;
+		}
+		return index;
+	}
+
+	// sorts the keys, possibly in place, and returns the sorted array
+	private static int[] sortKeys(int[] keys) {
+		int n = keys.length;
+		int passes = (32 + DIGIT_BITS - 1) / DIGIT_BITS;
+		int[][] counts = histograms(keys, passes);
+		if (n < 2)
+			return keys;
+		int[] k2 = new int[n];
+		for (int p = 0; p < passes; p++) {
+			int shift = p * DIGIT_BITS;
+			int[] c = counts[p];
+			if (c[(keys[0] >>> shift) & MASK] == n)
+				continue;
+			offsets(c);
+			for (int i = 0; i < n; i++)
+				k2[c[(keys[i] >>> shift) & MASK]++] = keys[i];
+			int[] tk = keys;
+			keys = k2;
+			k2 = tk;
+		}
+		return keys;
+	}
+
+	private static int[][] histograms(int[] keys, int passes) {
+		int[][] counts = new int[passes][RADIX];
+		for (int i = 0; i < keys.length; i++) {
+			int k = keys[i];
+			for (int p = 0; p < passes; p++)
+				counts[p][(k >>> (p * DIGIT_BITS)) & MASK]++;
+		}
+		return counts;
+	}
+
+	// counts to starting offsets, in place
+	private static void offsets(int[] c) {
+		int sum = 0;
+		for (int d = 0; d < RADIX; d++) {
+			int t = c[d];
+			c[d] = sum;
+			sum += t;
+		}
+	}
+
+}
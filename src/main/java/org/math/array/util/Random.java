@@ -2,6 +2,7 @@ package org.math.array.util;
 
 import edu.cornell.lassp.houle.RngPack.RandomSeedable;
 import edu.cornell.lassp.houle.RngPack.Ranmar;
+import edu.cornell.lassp.houle.RngPack.Ziggurat;
 
 /**
  * BSD License 
@@ -10,15 +11,50 @@ import edu.cornell.lassp.houle.RngPack.Ranmar;
 
 public class Random {
 
+	/**
+	 * Shared generator. Any RandomSeedable may be used, for instance a
+	 * counter-based RanPhilox when the sampling is split across threads.
+	 */
 	public static RandomSeedable RandEngine = new Ranmar();
 
+	// size of the blocks of uniform numbers used by the bulk methods
+	private static final int BUFFER_SIZE = 512;
+
+	private static volatile RandomStreams Streams;
+
+	/**
+	 * Route all the random methods through per-thread generators instead of
+	 * the shared RandEngine.
+	 * @param streams Streams to use, null to come back to RandEngine.
+	 */
+	public static void setStreams(RandomStreams streams) {
+		Streams = streams;
+	}
+
+	/**
+	 * @return Streams used by the random methods, null if RandEngine is used.
+	 */
+	public static RandomStreams getStreams() {
+		return Streams;
+	}
+
+	/**
+	 * Get the generator used by the calling thread: its own stream if
+	 * setStreams was called, RandEngine otherwise.
+	 * @return A generator.
+	 */
+	public static RandomSeedable engine() {
+		RandomStreams streams = Streams;
+		return streams == null ? RandEngine : streams.current();
+	}
+
 	/**
 	 * Generate a random number between 0 and 1.
 	 * maybe changed for a better random  number generator if needed.
 	 * @return A double between 0 and 1.
 	 */
 	public static double raw() {
-		return RandEngine.raw();
+		return engine().raw();
 	}
 
 	/**
@@ -36,6 +72,30 @@ public class Random {
 		return i;
 	}
 
+	/**
+	 * Fill an array with random integers, from uniform numbers generated by
+	 * blocks.
+	 * 
+	 * @param d
+	 *            Array to fill.
+	 * @param n
+	 *            Number of values to generate.
+	 * @param i0
+	 *            Min of the random variable.
+	 * @param i1
+	 *            Max of the random variable.
+	 */
+	public static void randInt(int[] d, int n, int i0, int i1) {
+		RandomSeedable e = engine();
+		double[] u = new double[Math.min(n, BUFFER_SIZE)];
+		for (int start = 0; start < n; start += BUFFER_SIZE) {
+			int count = Math.min(BUFFER_SIZE, n - start);
+			e.raw(u, count);
+			for (int i = 0; i < count; i++)
+				d[start + i] = i0 + (int) Math.floor((i1 - i0 + 1) * u[i]);
+		}
+	}
+
 	/**
 	 * Generate a random number from a uniform random variable.
 	 * 
@@ -51,32 +111,43 @@ public class Random {
 	}
 
 	/**
-	 * Generate a random number from a discrete random variable.
+	 * Fill an array with random numbers from a uniform random variable.
+	 * 
+	 * @param d
+	 *            Array to fill.
+	 * @param n
+	 *            Number of values to generate.
+	 * @param min
+	 *            Min of the random variable.
+	 * @param max
+	 *            Max of the random variable.
+	 */
+	public static void uniform(double[] d, int n, double min, double max) {
+		engine().raw(d, n);
+		if (min != 0 || max != 1)
+			for (int i = 0; i < n; i++)
+				d[i] = min + (max - min) * d[i];
+	}
+
+	/**
+	 * Generate a random number from a discrete random variable. To draw many
+	 * numbers from the same variable, build an AliasSampler once and reuse
+	 * it.
 	 * 
 	 * @param values
 	 *            Discrete values.
 	 * @param prob
 	 *            Probability of each value.
 	 * @return A double.
+	 * @see AliasSampler
 	 */
 	public static double dirac(double[] values, double[] prob) {
-		double[] prob_cumul = new double[values.length];
-		prob_cumul[0] = prob[0];
-		for (int i = 1; i < values.length; i++) {
-			prob_cumul[i] = prob_cumul[i - 1] + prob[i];
-		}
-		double y = raw();
-		double x = 0;
-		for (int i = 0; i < values.length - 1; i++) {
-			if ((y > prob_cumul[i]) && (y < prob_cumul[i + 1])) {
-				x = values[i];
-			}
-		}
-		return x;
+		return new AliasSampler(values, prob).next();
 	}
 
 	/**
-	 * Generate a random number from a Gaussian (Normal) random variable.
+	 * Generate a random number from a Gaussian (Normal) random variable,
+	 * using the Ziggurat method.
 	 * 
 	 * @param mu
 	 *            Mean of the random variable.
@@ -85,24 +156,40 @@ public class Random {
 	 * @return A double.
 	 */
 	public static double normal(double mu, double sigma) {
-		double x = mu + sigma * Math.cos(2 * Math.PI * raw()) * Math.sqrt(-2 * Math.log(raw()));
+		double x = mu + sigma * Ziggurat.normal(engine());
 		return x;
 	}
 
 	/**
-	 * Generate a random number from a Chi-2 random variable.
+	 * Fill an array with random numbers from a Gaussian (Normal) random
+	 * variable, using the Ziggurat method.
+	 * 
+	 * @param d
+	 *            Array to fill.
+	 * @param n
+	 *            Number of values to generate.
+	 * @param mu
+	 *            Mean of the random variable.
+	 * @param sigma
+	 *            Standard deviation of the random variable.
+	 */
+	public static void normal(double[] d, int n, double mu, double sigma) {
+		Ziggurat.normal(engine(), d, n);
+		if (mu != 0 || sigma != 1)
+			for (int i = 0; i < n; i++)
+				d[i] = mu + sigma * d[i];
+	}
+
+	/**
+	 * Generate a random number from a Chi-2 random variable (a Gamma random
+	 * variable of shape n/2 and scale 2).
 	 * 
 	 * @param n
 	 *            Degrees of freedom of the chi2 random variable.
 	 * @return A double.
 	 */
 	public static double chi2(int n) {
-		double x = 0;
-		for (int i = 0; i < n; i++) {
-			double norm = normal(0, 1);
-			x += norm * norm;
-		}
-		return x;
+		return gamma(n / 2.0, 2);
 	}
 
 	/**
@@ -115,23 +202,41 @@ public class Random {
 	 * @return A double.
 	 */
 	public static double logNormal(double mu, double sigma) {
-		double x = mu + sigma * Math.cos(2 * Math.PI * raw()) * Math.sqrt(-2 * Math.log(raw()));
+		double x = mu + sigma * Ziggurat.normal(engine());
 		return Math.exp(x);
 	}
 
 	/**
 	 * Generate a random number from an exponantial random variable (Mean =
-	 * 1/lambda, variance = 1/lambda^2).
+	 * 1/lambda, variance = 1/lambda^2), using the Ziggurat method.
 	 * 
 	 * @param lambda
 	 *            Parmaeter of the exponential random variable.
 	 * @return A double.
 	 */
 	public static double exponential(double lambda) {
-		double x = -1 / lambda * Math.log(raw());
+		double x = Ziggurat.exponential(engine()) / lambda;
 		return x;
 	}
 
+	/**
+	 * Fill an array with random numbers from an exponantial random variable,
+	 * using the Ziggurat method.
+	 * 
+	 * @param d
+	 *            Array to fill.
+	 * @param n
+	 *            Number of values to generate.
+	 * @param lambda
+	 *            Parmaeter of the exponential random variable.
+	 */
+	public static void exponential(double[] d, int n, double lambda) {
+		Ziggurat.exponential(engine(), d, n);
+		if (lambda != 1)
+			for (int i = 0; i < n; i++)
+				d[i] = d[i] / lambda;
+	}
+
 	/**
 	 * Generate a random number from a symetric triangular random variable.
 	 * 
@@ -146,6 +251,30 @@ public class Random {
 		return x;
 	}
 
+	/**
+	 * Fill an array with random numbers from a symetric triangular random
+	 * variable.
+	 * 
+	 * @param d
+	 *            Array to fill.
+	 * @param n
+	 *            Number of values to generate.
+	 * @param min
+	 *            Min of the random variable.
+	 * @param max
+	 *            Max of the random variable.
+	 */
+	public static void triangular(double[] d, int n, double min, double max) {
+		RandomSeedable e = engine();
+		double[] u = new double[2 * Math.min(n, BUFFER_SIZE)];
+		for (int start = 0; start < n; start += BUFFER_SIZE) {
+			int count = Math.min(BUFFER_SIZE, n - start);
+			e.raw(u, 2 * count);
+			for (int i = 0; i < count; i++)
+				d[start + i] = min / 2 + (max - min) * u[2 * i] / 2 + min / 2 + (max - min) * u[2 * i + 1] / 2;
+		}
+	}
+
 	/**
 	 * Generate a random number from a non-symetric triangular random variable.
 	 * 
@@ -167,7 +296,33 @@ public class Random {
 	}
 
 	/**
-	 * Generate a random number from a beta random variable.
+	 * Fill an array with random numbers from a non-symetric triangular random
+	 * variable.
+	 * 
+	 * @param d
+	 *            Array to fill.
+	 * @param n
+	 *            Number of values to generate.
+	 * @param min
+	 *            Min of the random variable.
+	 * @param med
+	 *            Value of the random variable with max density.
+	 * @param max
+	 *            Max of the random variable.
+	 */
+	public static void triangular(double[] d, int n, double min, double med, double max) {
+		engine().raw(d, n);
+		double mode = (med - min) / (max - min);
+		for (int i = 0; i < n; i++) {
+			double y = d[i];
+			d[i] = (y < mode) ? (min + Math.sqrt(y * (max - min) * (med - min)))
+					: (max - Math.sqrt((1 - y) * (max - min) * (max - med)));
+		}
+	}
+
+	/**
+	 * Generate a random number from a beta random variable, as the ratio
+	 * X/(X+Y) of two Gamma random variables of shapes a and b.
 	 * 
 	 * @param a
 	 *            First parameter of the Beta random variable.
@@ -176,13 +331,175 @@ public class Random {
 	 * @return A double.
 	 */
 	public static double beta(double a, double b) {
-		double try_x;
-		double try_y;
-		do {
-			try_x = Math.pow(raw(), 1 / a);
-			try_y = Math.pow(raw(), 1 / b);
-		} while ((try_x + try_y) > 1);
-		return try_x / (try_x + try_y);
+		double x = gamma(a, 1);
+		double y = gamma(b, 1);
+		return x / (x + y);
+	}
+
+	/**
+	 * Generate a random number from a Gamma random variable (Mean =
+	 * shape*scale, variance = shape*scale^2), using the Marsaglia-Tsang
+	 * method. The expected number of uniform and normal numbers used per
+	 * sample is bounded whatever the shape.
+	 * 
+	 * @param shape
+	 *            Shape parameter of the Gamma random variable.
+	 * @param scale
+	 *            Scale parameter of the Gamma random variable.
+	 * @return A double.
+	 */
+	public static double gamma(double shape, double scale) {
+		if (!(shape > 0) || !(scale > 0))
+			throw new IllegalArgumentException("Gamma parameters must be strictly positive : shape=" + shape + " scale=" + scale);
+		if (shape < 1) {
+			// boost: Gamma(a) = Gamma(a+1) * U^(1/a)
+			double u;
+			do {
+				u = raw();
+			} while (u <= 0);
+			return gamma(shape + 1, scale) * Math.pow(u, 1 / shape);
+		}
+		double d = shape - 1.0 / 3.0;
+		double c = 1 / Math.sqrt(9 * d);
+		for (;;) {
+			double x;
+			double v;
+			do {
+				x = Ziggurat.normal(engine());
+				v = 1 + c * x;
+			} while (v <= 0);
+			v = v * v * v;
+			double u = raw();
+			double x2 = x * x;
+			if (u < 1 - 0.0331 * x2 * x2)
+				return scale * d * v;
+			if (u > 0 && Math.log(u) < 0.5 * x2 + d * (1 - v + Math.log(v)))
+				return scale * d * v;
+		}
+	}
+
+	/**
+	 * Generate a random number from a Poisson random variable (Mean = variance
+	 * = lambda). Uses multiplication of uniforms for lambda &lt; 10 and
+	 * Hormann's transformed rejection with squeeze (PTRS) otherwise, so the
+	 * expected cost per sample is bounded whatever lambda.
+	 * 
+	 * @param lambda
+	 *            Mean of the Poisson random variable.
+	 * @return An int.
+	 */
+	public static int poisson(double lambda) {
+		if (!(lambda >= 0))
+			throw new IllegalArgumentException("Poisson mean must be positive : " + lambda);
+		if (lambda == 0)
+			return 0;
+		if (lambda < 10) {
+			double limit = Math.exp(-lambda);
+			double product = raw();
+			int k = 0;
+			while (product > limit) {
+				product *= raw();
+				k++;
+			}
+			return k;
+		}
+		double slam = Math.sqrt(lambda);
+		double loglam = Math.log(lambda);
+		double b = 0.931 + 2.53 * slam;
+		double a = -0.059 + 0.02483 * b;
+		double invalpha = 1.1239 + 1.1328 / (b - 3.4);
+		double vr = 0.9277 - 3.6224 / (b - 2);
+		for (;;) {
+			double u = raw() - 0.5;
+			double v = raw();
+			double us = 0.5 - Math.abs(u);
+			double k = Math.floor((2 * a / us + b) * u + lambda + 0.43);
+			if (us >= 0.07 && v <= vr)
+				return (int) k;
+			if (k < 0 || (us < 0.013 && v > us))
+				continue;
+			if (v > 0 && Math.log(v) + Math.log(invalpha) - Math.log(a / (us * us) + b) <= -lambda + k * loglam - logFactorial(k))
+				return (int) k;
+		}
+	}
+
+	/**
+	 * Generate a random number from a binomial random variable (Mean = n*p,
+	 * variance = n*p*(1-p)). Uses inversion for n*min(p,1-p) &lt; 10 and
+	 * Hormann's transformed rejection with squeeze (BTRS) otherwise, so the
+	 * expected cost per sample is bounded whatever n and p.
+	 * 
+	 * @param n
+	 *            Number of trials.
+	 * @param p
+	 *            Probability of success of each trial.
+	 * @return An int between 0 and n.
+	 */
+	public static int binomial(int n, double p) {
+		if (n < 0 || !(p >= 0 && p <= 1))
+			throw new IllegalArgumentException("Binomial parameters must be n >= 0 and 0 <= p <= 1 : n=" + n + " p=" + p);
+		if (p > 0.5)
+			return n - binomial(n, 1 - p);
+		if (n == 0 || p == 0)
+			return 0;
+		double q = 1 - p;
+		if (n * p < 10) {
+			// inversion, walking the probabilities from 0
+			double s = p / q;
+			double a = (n + 1) * s;
+			double r = Math.exp(n * Math.log(q));
+			double u = raw();
+			int k = 0;
+			while (u > r) {
+				u -= r;
+				k++;
+				if (k > n)
+					// rounding errors: restart
+					return binomial(n, p);
+				r *= (a / k - s);
+			}
+			return k;
+		}
+		double spq = Math.sqrt(n * p * q);
+		double b = 1.15 + 2.53 * spq;
+		double a = -0.0873 + 0.0248 * b + 0.01 * p;
+		double c = n * p + 0.5;
+		double vr = 0.92 - 4.2 / b;
+		double alpha = (2.83 + 5.1 / b) * spq;
+		double lpq = Math.log(p / q);
+		double m = Math.floor((n + 1) * p);
+		double h = logFactorial(m) + logFactorial(n - m);
+		for (;;) {
+			double u = raw() - 0.5;
+			double v = raw();
+			double us = 0.5 - Math.abs(u);
+			double k = Math.floor((2 * a / us + b) * u + c);
+			if (k < 0 || k > n)
+				continue;
+			if (us >= 0.07 && v <= vr)
+				return (int) k;
+			if (v <= 0)
+				continue;
+			v = Math.log(v * alpha / (a / (us * us) + b));
+			if (v <= h - logFactorial(k) - logFactorial(n - k) + (k - m) * lpq)
+				return (int) k;
+		}
+	}
+
+	private static final double[] LOG_FACTORIAL = new double[256];
+	static {
+		for (int i = 2; i < LOG_FACTORIAL.length; i++)
+			LOG_FACTORIAL[i] = LOG_FACTORIAL[i - 1] + Math.log(i);
+	}
+
+	/**
+	 * log(k!) : tabulated for small k, Stirling series otherwise.
+	 */
+	private static double logFactorial(double k) {
+		if (k < LOG_FACTORIAL.length)
+			return LOG_FACTORIAL[(int) k];
+		double k2 = k * k;
+		return (k + 0.5) * Math.log(k) - k + 0.5 * Math.log(2 * Math.PI) + (1 / 12.0 - (1 / 360.0 - 1 / (1260.0 * k2)) / k2) / k;
 	}
 
 	/**
@@ -200,6 +517,24 @@ public class Random {
 		return x;
 	}
 
+	/**
+	 * Fill an array with random numbers from a Cauchy random variable.
+	 * 
+	 * @param d
+	 *            Array to fill.
+	 * @param n
+	 *            Number of values to generate.
+	 * @param mu
+	 *            Median of the Cauchy random variable.
+	 * @param sigma
+	 *            Second parameter of the Cauchy random variable.
+	 */
+	public static void cauchy(double[] d, int n, double mu, double sigma) {
+		engine().raw(d, n);
+		for (int i = 0; i < n; i++)
+			d[i] = sigma * Math.tan(Math.PI * (d[i] - 0.5)) + mu;
+	}
+
 	/**
 	 * Generate a random number from a Weibull random variable.
 	 * 
@@ -214,10 +549,31 @@ public class Random {
 		return x;
 	}
 
+	/**
+	 * Fill an array with random numbers from a Weibull random variable.
+	 * 
+	 * @param d
+	 *            Array to fill.
+	 * @param n
+	 *            Number of values to generate.
+	 * @param lambda
+	 *            First parameter of the Weibull random variable.
+	 * @param c
+	 *            Second parameter of the Weibull random variable.
+	 */
+	public static void weibull(double[] d, int n, double lambda, double c) {
+		engine().raw(d, n);
+		for (int i = 0; i < n; i++)
+			d[i] = Math.pow(-Math.log(1 - d[i]), 1 / c) / lambda;
+	}
+
 	/**
 	 * Generate a random number from a random variable definied by its density
 	 * function, using the rejection technic. !!! WARNING : this simulation
-	 * technic can take a very long time !!!
+	 * technic can take a very long time !!! To draw many values of a
+	 * log-concave density, build an AdaptiveRejection once and reuse it. An
+	 * EnvelopeRejection is faster for other peaked densities, but only exact
+	 * for densities monotone between the nodes of its grid.
 	 * 
 	 * @param fun
 	 *            Density function (may be not normalized) of the random
@@ -0,0 +1,121 @@
+package org.math.array.util;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import edu.cornell.lassp.houle.RngPack.RanMT;
+import edu.cornell.lassp.houle.RngPack.RanSplitMix64;
+import edu.cornell.lassp.houle.RngPack.RandomSeedable;
+
+/**
+ * Factory of independent random number generators derived from one master
+ * seed.
+ * <P>
+ * Stream number i is a Mersenne Twister seeded with a 256 bits key computed
+ * from (seed, i) with the SplitMix64 mixing function, so streams are
+ * reproducible and uncorrelated. Each thread gets its own stream through
+ * <code>current()</code>, without any lock. A thread bound to stream i by
+ * <code>setCurrent(i)</code> draws the numbers of <code>stream(i)</code>.
+ * Threads which are not bound get streams of their own, numbered apart from
+ * the positive indexes of <code>stream</code> and <code>setCurrent</code>,
+ * so they never replay the numbers of a bound thread; which one depends on
+ * the thread scheduling. To make the numbers reproducible, bind each task to
+ * a fixed stream with <code>setCurrent(task)</code> or use
+ * <code>stream(task)</code> directly.
+ * <P>
+ * To route all the Random and StatisticSample methods through per-thread
+ * streams:
+ * <PRE>
+ * Random.setStreams(new RandomStreams(seed));
+ * </PRE>
+ * <P>
+ * BSD License
+ */
+public class RandomStreams {
+
+	private static final int KEY_LENGTH = 8;
+
+	// the streams of the threads which are not bound have the high bit set
+	private static final long UNBOUND = Long.MIN_VALUE;
+
+	private final long seed;
+
+	private final AtomicInteger nextThreadStream = new AtomicInteger();
+
+	private final ThreadLocal<RandomSeedable> local = new ThreadLocal<RandomSeedable>() {
+		protected RandomSeedable initialValue() {
+			return build(UNBOUND | nextThreadStream.getAndIncrement());
+		}
+	};
+
+	/**
+	 * Build a factory of streams seeded from the clock.
+	 */
+	public RandomStreams() {
+		this(RandomSeedable.ClockSeed());
+	}
+
+	/**
+	 * Build a factory of streams.
+	 *
+	 * @param seed
+	 *            Master seed.
+	 */
+	public RandomStreams(long seed) {
+		this.seed = seed;
+	}
+
+	/**
+	 * @return Master seed of the streams.
+	 */
+	public long getSeed() {
+		return seed;
+	}
+
+	/**
+	 * Build a new generator for a given stream. Two calls with the same index
+	 * return generators producing the same sequence.
+	 *
+	 * @param index
+	 *            Stream number, positive or zero.
+	 * @return A new generator.
+	 */
+	public RandomSeedable stream(long index) {
+		checkIndex(index);
+		return build(index);
+	}
+
+	private RandomSeedable build(long index) {
+		int[] key = new int[KEY_LENGTH];
+		long state = seed ^ RanSplitMix64.mix(index + 0x632BE59BD9B4E019L);
+		for (int i = 0; i < KEY_LENGTH; i += 2) {
+			state += 0x9E3779B97F4A7C15L;
+			long z = RanSplitMix64.mix(state);
+			key[i] = (int) z;
+			key[i + 1] = (int) (z >>> 32);
+		}
+		return new RanMT(key);
+	}
+
+	/**
+	 * @return The generator of the calling thread.
+	 */
+	public RandomSeedable current() {
+		return local.get();
+	}
+
+	/**
+	 * Bind the calling thread to a given stream, starting from its beginning.
+	 *
+	 * @param index
+	 *            Stream number, positive or zero.
+	 */
+	public void setCurrent(long index) {
+		local.set(stream(index));
+	}
+
+	private static void checkIndex(long index) {
+		if (index < 0)
+			throw new IllegalArgumentException("Stream number must be positive : " + index);
+	}
+
+}
@@ -0,0 +1,426 @@
+package org.math.array.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Rank transforms and rank correlations: Spearman's rho, the Pearson
+ * correlation of the ranks, and Kendall's tau-b.
+ * <P>
+ * Ranks start at 1. Equal values get the mean of their ranks (AVERAGE), the
+ * lowest one (MIN), or consecutive ranks per distinct value (DENSE). NaN
+ * values get a NaN rank, and make the correlations NaN.
+ * <P>
+ * Kendall's tau is computed by the algorithm of Knight (1966) in O(n log n):
+ * the pairs are sorted by the first variable, then by the second one, and
+ * the discordant pairs are the exchanges made by a merge sort of the second
+ * variable. The correlation matrices sort each column once, and compute the
+ * pairs of columns on several threads.
+ * <P>
+ * BSD License
+ */
+public final class Ranking {
+
+	/**
+	 * Equal values get the mean of their ranks.
+	 */
+	public static final int AVERAGE = 0;
+
+	/**
+	 * Equal values get the lowest of their ranks.
+	 */
+	public static final int MIN = 1;
+
+	/**
+	 * Equal values get the same rank, distinct values consecutive ranks.
+	 */
+	public static final int DENSE = 2;
+
+	private Ranking() {
+	}
+
+	/**
+	 * Rank the values of an array.
+	 *
+	 * @param values
+	 *            Array to rank.
+	 * @param ties
+	 *            AVERAGE, MIN or DENSE.
+	 * @return Rank of each value, from 1.
+	 */
+	public static double[] rank(double[] values, int ties) {
+		if (ties != AVERAGE && ties != MIN && ties != DENSE)
+			throw new IllegalArgumentException("Unknown ties method : " + ties);
+		int n = values.length;
+		int[] order = RadixSort.order(values);
+		double[] rank = new double[n];
+		int group = 0;
+		int start = 0;
+		while (start < n) {
+			double x = values[order[start]];
+			int end = start + 1;
+			while (end < n && values[order[end]] == x)
+				end++;
+			group++;
+			double r;
+			if (x != x)
+				r = Double.NaN;
+			else if (ties == AVERAGE)
+				r = (start + 1 + end) / 2.0;
+			else if (ties == MIN)
+				r = start + 1;
+			else
+				r = group;
+			for (int i = start; i < end; i++)
+				rank[order[i]] = r;
+			start = end;
+		}
+		return rank;
+	}
+
+	/**
+	 * Rank the values of each column of a matrix.
+	 *
+	 * @param values
+	 *            Matrix to rank.
+	 * @param ties
+	 *            AVERAGE, MIN or DENSE.
+	 * @return Matrix of the ranks in each column.
+	 */
+	public static double[][] rank(double[][] values, int ties) {
+		int m = values.length;
+		int n = values[0].length;
+		double[][] rank = new double[m][n];
+		double[] column = new double[m];
+		for (int j = 0; j < n; j++) {
+			for (int i = 0; i < m; i++)
+				column[i] = values[i][j];
+			double[] r = rank(column, ties);
+			for (int i = 0; i < m; i++)
+				rank[i][j] = r[i];
+		}
+		return rank;
+	}
+
+	/**
+	 * Spearman's rank correlation of two samples.
+	 *
+	 * @param x
+	 *            First sample.
+	 * @param y
+	 *            Second sample, of the same length.
+	 * @return Pearson correlation of the average ranks.
+	 */
+	public static double spearman(double[] x, double[] y) {
+		checkLengths(x.length, y.length);
+		double[] rx = standardize(rank(x, AVERAGE));
+		double[] ry = standardize(rank(y, AVERAGE));
+		return dot(rx, ry);
+	}
+
+	/**
+	 * Kendall's tau-b rank correlation of two samples.
+	 *
+	 * @param x
+	 *            First sample.
+	 * @param y
+	 *            Second sample, of the same length.
+	 * @return (concordant - discordant) pairs / sqrt(pairs not tied in x *
+	 *         pairs not tied in y).
+	 */
+	public static double kendall(double[] x, double[] y) {
+		checkLengths(x.length, y.length);
+		return new Column(x).kendall(new Column(y), new Buffers(x.length));
+	}
+
+	/**
+	 * Spearman's rank correlation of the columns of a matrix, on all
+	 * processors.
+	 *
+	 * @param values
+	 *            An m x n matrix.
+	 * @return The n x n correlation matrix.
+	 */
+	public static double[][] spearman(double[][] values) {
+		return spearman(values, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Spearman's rank correlation of the columns of a matrix.
+	 *
+	 * @param values
+	 *            An m x n matrix.
+	 * @param threads
+	 *            Number of threads.
+	 * @return The n x n correlation matrix.
+	 */
+	public static double[][] spearman(double[][] values, int threads) {
+		final double[][] columns = columns(values);
+		final double[][] X = new double[columns.length][columns.length];
+		run(columns.length, threads, new Work() {
+			public void column(int j) {
+				columns[j] = standardize(rank(columns[j], AVERAGE));
+			}
+
+			public void row(int i) {
+				for (int j = i; j < columns.length; j++) {
+					double r = dot(columns[i], columns[j]);
+					// exactly 1 on the diagonal, NaN for NaN or constant columns
+					X[i][j] = i == j && r == r ? 1 : r;
+					X[j][i] = X[i][j];
+				}
+			}
+		});
+		return X;
+	}
+
+	/**
+	 * Kendall's tau-b rank correlation of the columns of a matrix, on all
+	 * processors.
+	 *
+	 * @param values
+	 *            An m x n matrix.
+	 * @return The n x n correlation matrix.
+	 */
+	public static double[][] kendall(double[][] values) {
+		return kendall(values, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Kendall's tau-b rank correlation of the columns of a matrix.
+	 *
+	 * @param values
+	 *            An m x n matrix.
+	 * @param threads
+	 *            Number of threads.
+	 * @return The n x n correlation matrix.
+	 */
+	public static double[][] kendall(double[][] values, int threads) {
+		final double[][] columns = columns(values);
+		final int m = values.length;
+		final Column[] c = new Column[columns.length];
+		final double[][] X = new double[columns.length][columns.length];
+		run(columns.length, threads, new Work() {
+			public void column(int j) {
+				c[j] = new Column(columns[j]);
+				columns[j] = null;
+			}
+
+			public void row(int i) {
+				Buffers b = new Buffers(m);
+				for (int j = i; j < c.length; j++) {
+					X[i][j] = c[i].kendall(c[j], b);
+					X[j][i] = X[i][j];
+				}
+			}
+		});
+		return X;
+	}
+
+	private static void checkLengths(int n1, int n2) {
+		if (n1 != n2)
+			throw new IllegalArgumentException("Samples must have the same length : " + n1 + " != " + n2);
+	}
+
+	private static double[][] columns(double[][] values) {
+		int m = values.length;
+		int n = values[0].length;
+		double[][] columns = new double[n][m];
+		for (int i = 0; i < m; i++)
+			for (int j = 0; j < n; j++)
+				columns[j][i] = values[i][j];
+		return columns;
+	}
+
+	// centered and scaled to a unit norm, in place
+	private static double[] standardize(double[] v) {
+		double mean = 0;
+		for (int i = 0; i < v.length; i++)
+			mean += v[i];
+		mean /= v.length;
+		double norm = 0;
+		for (int i = 0; i < v.length; i++) {
+			v[i] -= mean;
+			norm += v[i] * v[i];
+		}
+		norm = Math.sqrt(norm);
+		for (int i = 0; i < v.length; i++)
+			v[i] /= norm;
+		return v;
+	}
+
+	private static double dot(double[] x, double[] y) {
+		double s = 0;
+		for (int i = 0; i < x.length; i++)
+			s += x[i] * y[i];
+		return s;
+	}
+
+	// work of a correlation matrix: first per column, then per row of the
+	// upper triangle
+	private interface Work {
+		void column(int j);
+
+		void row(int i);
+	}
+
+	private static void run(int n, int threads, final Work work) {
+		if (threads < 1)
+			throw new IllegalArgumentException("Number of threads must be positive : " + threads);
+		List<Runnable> tasks = new ArrayList<Runnable>(n);
+		for (int j = 0; j < n; j++) {
+			final int column = j;
+			tasks.add(new Runnable() {
+				public void run() {
+					work.column(column);
+				}
+			});
+		}
+		Parallel.run(tasks, threads);
+		tasks.clear();
+		// rows of the upper triangle get shorter: the longest first
+		for (int i = 0; i < n; i++) {
+			final int r = i;
+			tasks.add(new Runnable() {
+				public void run() {
+					work.row(r);
+				}
+			});
+		}
+		Parallel.run(tasks, threads);
+	}
+
+	// work arrays of the Kendall's tau of a pair of columns
+	private static final class Buffers {
+
+		final int[] count;
+
+		final int[] order;
+
+		final int[] y;
+
+		final int[] merge;
+
+		Buffers(int m) {
+			count = new int[m + 1];
+			order = new int[m];
+			y = new int[m];
+			merge = new int[m];
+		}
+	}
+
+	// a sample sorted once for all its Kendall's tau
+	private static final class Column {
+
+		// dense rank of each value, from 0
+		final int[] rank;
+
+		// indexes in ascending order, stable
+		final int[] order;
+
+		final int distinct;
+
+		// pairs tied
+		final long ties;
+
+		final boolean nan;
+
+		Column(double[] values) {
+			int m = values.length;
+			order = RadixSort.order(values);
+			rank = new int[m];
+			int group = -1;
+			long t = 0;
+			int start = 0;
+			boolean hasNaN = false;
+			while (start < m) {
+				double x = values[order[start]];
+				int end = start + 1;
+				while (end < m && values[order[end]] == x)
+					end++;
+				hasNaN |= x != x;
+				group++;
+				for (int i = start; i < end; i++)
+					rank[order[i]] = group;
+				t += (long) (end - start) * (end - start - 1) / 2;
+				start = end;
+			}
+			distinct = group + 1;
+			ties = t;
+			nan = hasNaN;
+		}
+
+		double kendall(Column other, Buffers b) {
+			if (nan || other.nan)
+				return Double.NaN;
+			int m = rank.length;
+			// indexes by this rank, then by the other one: a stable counting
+			// sort by this rank of the order of the other column
+			int[] count = b.count;
+			Arrays.fill(count, 0, distinct + 1, 0);
+			for (int i = 0; i < m; i++)
+				count[rank[i] + 1]++;
+			for (int r = 0; r < distinct; r++)
+				count[r + 1] += count[r];
+			int[] order = b.order;
+			for (int i = 0; i < m; i++) {
+				int k = other.order[i];
+				order[count[rank[k]]++] = k;
+			}
+			// pairs tied in both
+			long jointTies = 0;
+			int run = 1;
+			int[] y = b.y;
+			for (int i = 0; i < m; i++) {
+				y[i] = other.rank[order[i]];
+				if (i > 0 && rank[order[i]] == rank[order[i - 1]] && y[i] == y[i - 1]) {
+					run++;
+				} else {
+					jointTies += (long) run * (run - 1) / 2;
+					run = 1;
+				}
+			}
+			jointTies += (long) run * (run - 1) / 2;
+			long discordant = exchanges(y, b.merge, m);
+			long pairs = (long) m * (m - 1) / 2;
+			double n1 = pairs - ties;
+			double n2 = pairs - other.ties;
+			return (pairs - ties - other.ties + jointTies - 2 * discordant) / Math.sqrt(n1 * n2);
+		}
+	}
+
+	// number of exchanges of a bottom up merge sort: pairs i < j with
+	// y[i] > y[j]
+	private static long exchanges(int[] y, int[] buffer, int m) {
+		long exchanges = 0;
+		int[] a = y;
+		int[] b = buffer;
+		for (int width = 1; width < m; width *= 2) {
+			for (int lo = 0; lo < m; lo += 2 * width) {
+				int mid = Math.min(lo + width, m);
+				int hi = Math.min(lo + 2 * width, m);
+				int i = lo;
+				int j = mid;
+				int k = lo;
+				while (i < mid && j < hi) {
+					if (a[j] < a[i]) {
+						b[k++] = a[j++];
+						exchanges += mid - i;
+					} else {
+						b[k++] = a[i++];
+					}
+				}
+				while (i < mid)
+					b[k++] = a[i++];
+				while (j < hi)
+					b[k++] = a[j++];
+			}
+			int[] t = a;
+			a = b;
+			b = t;
+		}
+		return exchanges;
+	}
+
+}
@@ -0,0 +1,671 @@
+package org.math.array.util;
+
+/**
+ * Searches and merges of arrays sorted in ascending order, for instance by
+ * DoubleArray.sort or IntegerArray.sort: binary searches of bounds, merge of
+ * several sorted arrays, distinct values with their counts, and intersection
+ * and union of sorted sets.
+ * <P>
+ * Doubles are ordered as by Sorting: -0.0 equals 0.0 and NaN values, all
+ * equal, come after positive infinity. Arrays are not checked to be sorted,
+ * the results are undefined if they are not.
+ * <P>
+ * Searching an array of n values for k keys costs O(k log n), and only
+ * O(k log(n / k)) when the keys are sorted too: each search gallops from the
+ * bound of the previous key. Merges and set operations are linear.
+ * <P>
+ * BSD License
+ *
+ * @see Sorting
+ */
+public final class Searching {
+
+	private Searching() {
+	}
+
+	/**
+	 * Find the first value not less than a key.
+	 *
+	 * @param a
+	 *            Sorted array.
+	 * @param key
+	 *            Value to search.
+	 * @return First index i with a[i] &gt;= key, a.length if none.
+	 */
+	public static int lowerBound(double[] a, double key) {
+		return lowerBound(a, 0, a.length, key);
+	}
+
+	/**
+	 * Find the first value not less than a key, in a range of an array.
+	 *
+	 * @param a
+	 *            Array, sorted between from and to.
+	 * @param from
+	 *            First index of the range.
+	 * @param to
+	 *            Index after the range.
+	 * @param key
+	 *            Value to search.
+	 * @return First index i of the range with a[i] &gt;= key, to if none.
+	 */
+	public static int lowerBound(double[] a, int from, int to, double key) {
+		checkRange(a.length, from, to);
+		int lo = from;
+		int hi = to;
+		while (lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if (less(a[mid], key))
+				lo = mid + 1;
+			else
+				hi = mid;
+		}
+		return lo;
+	}
+
+	/**
+	 * Find the first value greater than a key.
+	 *
+	 * @param a
+	 *            Sorted array.
+	 * @param key
+	 *            Value to search.
+	 * @return First index i with a[i] &gt; key, a.length if none.
+	 */
+	public static int upperBound(double[] a, double key) {
+		return upperBound(a, 0, a.length, key);
+	}
+
+	/**
+	 * Find the first value greater than a key, in a range of an array.
+	 *
+	 * @param a
+	 *            Array, sorted between from and to.
+	 * @param from
+	 *            First index of the range.
+	 * @param to
+	 *            Index after the range.
+	 * @param key
+	 *            Value to search.
+	 * @return First index i of the range with a[i] &gt; key, to if none.
+	 */
+	public static int upperBound(double[] a, int from, int to, double key) {
+		checkRange(a.length, from, to);
+		int lo = from;
+		int hi = to;
+		while (lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if (less(key, a[mid]))
+				hi = mid;
+			else
+				lo = mid + 1;
+		}
+		return lo;
+	}
+
+	/**
+	 * Find the lower bound of several keys.
+	 *
+	 * @param a
+	 *            Sorted array.
+	 * @param keys
+	 *            Values to search, faster if they are sorted.
+	 * @return lowerBound(a, keys[i]) for each key.
+	 */
+	public static int[] lowerBound(double[] a, double[] keys) {
+		int n = a.length;
+		int[] bounds = new int[keys.length];
+		int lo = 0;
+		for (int i = 0; i < keys.length; i++) {
+			double key = keys[i];
+			if (i > 0 && less(key, keys[i - 1]))
+				lo = 0;
+			// gallop: a[j] < key for all j < lo
+			int hi = lo;
+			int step = 1;
+			while (hi < n && less(a[hi], key)) {
+				lo = hi + 1;
+				hi += step;
+				step <<= 1;
+			}
+			lo = lowerBound(a, lo, Math.min(hi, n), key);
+			bounds[i] = lo;
+		}
+		return bounds;
+	}
+
+	/**
+	 * Find the upper bound of several keys.
+	 *
+	 * @param a
+	 *            Sorted array.
+	 * @param keys
+	 *            Values to search, faster if they are sorted.
+	 * @return upperBound(a, keys[i]) for each key.
+	 */
+	public static int[] upperBound(double[] a, double[] keys) {
+		int n = a.length;
+		int[] bounds = new int[keys.length];
+		int lo = 0;
+		for (int i = 0; i < keys.length; i++) {
+			double key = keys[i];
+			if (i > 0 && less(key, keys[i - 1]))
+				lo = 0;
+			// gallop: a[j] <= key for all j < lo
+			int hi = lo;
+			int step = 1;
+			while (hi < n && !less(key, a[hi])) {
+				lo = hi + 1;
+				hi += step;
+				step <<= 1;
+			}
+			lo = upperBound(a, lo, Math.min(hi, n), key);
+			bounds[i] = lo;
+		}
+		return bounds;
+	}
+
+	/**
+	 * Find the first value not less than a key.
+	 *
+	 * @param a
+	 *            Sorted array.
+	 * @param key
+	 *            Value to search.
+	 * @return First index i with a[i] &gt;= key, a.length if none.
+	 */
+	public static int lowerBound(int[] a, int key) {
+		return lowerBound(a, 0, a.length, key);
+	}
+
+	/**
+	 * Find the first value not less than a key, in a range of an array.
+	 *
+	 * @param a
+	 *            Array, sorted between from and to.
+	 * @param from
+	 *            First index of the range.
+	 * @param to
+	 *            Index after the range.
+	 * @param key
+	 *            Value to search.
+	 * @return First index i of the range with a[i] &gt;= key, to if none.
+	 */
+	public static int lowerBound(int[] a, int from, int to, int key) {
+		checkRange(a.length, from, to);
+		int lo = from;
+		int hi = to;
+		while (lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if (a[mid] < key)
+				lo = mid + 1;
+			else
+				hi = mid;
+		}
+		return lo;
+	}
+
+	/**
+	 * Find the first value greater than a key.
+	 *
+	 * @param a
+	 *            Sorted array.
+	 * @param key
+	 *            Value to search.
+	 * @return First index i with a[i] &gt; key, a.length if none.
+	 */
+	public static int upperBound(int[] a, int key) {
+		return upperBound(a, 0, a.length, key);
+	}
+
+	/**
+	 * Find the first value greater than a key, in a range of an array.
+	 *
+	 * @param a
+	 *            Array, sorted between from and to.
+	 * @param from
+	 *            First index of the range.
+	 * @param to
+	 *            Index after the range.
+	 * @param key
+	 *            Value to search.
+	 * @return First index i of the range with a[i] &gt; key, to if none.
+	 */
+	public static int upperBound(int[] a, int from, int to, int key) {
+		checkRange(a.length, from, to);
+		int lo = from;
+		int hi = to;
+		while (lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if (key < a[mid])
+				hi = mid;
+			else
+				lo = mid + 1;
+		}
+		return lo;
+	}
+
+	/**
+	 * Find the lower bound of several keys.
+	 *
+	 * @param a
+	 *            Sorted array.
+	 * @param keys
+	 *            Values to search, faster if they are sorted.
+	 * @return lowerBound(a, keys[i]) for each key.
+	 */
+	public static int[] lowerBound(int[] a, int[] keys) {
+		int n = a.length;
+		int[] bounds = new int[keys.length];
+		int lo = 0;
+		for (int i = 0; i < keys.length; i++) {
+			int key = keys[i];
+			if (i > 0 && key < keys[i - 1])
+				lo = 0;
+			int hi = lo;
+			int step = 1;
+			while (hi < n && a[hi] < key) {
+				lo = hi + 1;
+				hi += step;
+				step <<= 1;
+			}
+			lo = lowerBound(a, lo, Math.min(hi, n), key);
+			bounds[i] = lo;
+		}
+		return bounds;
+	}
+
+	/**
+	 * Find the upper bound of several keys.
+	 *
+	 * @param a
+	 *            Sorted array.
+	 * @param keys
+	 *            Values to search, faster if they are sorted.
+	 * @return upperBound(a, keys[i]) for each key.
+	 */
+	public static int[] upperBound(int[] a, int[] keys) {
+		int n = a.length;
+		int[] bounds = new int[keys.length];
+		int lo = 0;
+		for (int i = 0; i < keys.length; i++) {
+			int key = keys[i];
+			if (i > 0 && key < keys[i - 1])
+				lo = 0;
+			int hi = lo;
+			int step = 1;
+			while (hi < n && a[hi] <= key) {
+				lo = hi + 1;
+				hi += step;
+				step <<= 1;
+			}
+			lo = upperBound(a, lo, Math.min(hi, n), key);
+			bounds[i] = lo;
+		}
+		return bounds;
+	}
+
+	/**
+	 * Merge sorted arrays into one sorted array. Equal values are taken from
+	 * the arrays in the order they are given.
+	 *
+	 * @param arrays
+	 *            Sorted arrays.
+	 * @return Sorted array of all the values.
+	 */
+	public static double[] merge(double[]... arrays) {
+		int k = arrays.length;
+		double[] merged = new double[totalLength(arrays)];
+		int[] pos = new int[k];
+		// min heap of the arrays not exhausted, by their next value then
+		// their rank
+		int[] heap = new int[k];
+		int size = 0;
+		for (int r = 0; r < k; r++) {
+			if (arrays[r].length == 0)
+				continue;
+			int c = size++;
+			while (c > 0 && before(arrays[r][0], r, arrays[heap[(c - 1) >> 1]][0], heap[(c - 1) >> 1])) {
+				heap[c] = heap[(c - 1) >> 1];
+				c = (c - 1) >> 1;
+			}
+			heap[c] = r;
+		}
+		int m = 0;
+		while (size > 0) {
+			int r = heap[0];
+			double[] a = arrays[r];
+			int p = pos[r];
+			if (size == 1) {
+				// the last array left is copied
+				System.arraycopy(a, p, merged, m, a.length - p);
+				break;
+			}
+			merged[m++] = a[p++];
+			pos[r] = p;
+			if (p == a.length)
+				r = heap[--size];
+			// sift r down from the top
+			int c = 0;
+			double x = arrays[r][pos[r]];
+			while (2 * c + 1 < size) {
+				int l = 2 * c + 1;
+				if (l + 1 < size && before(arrays[heap[l + 1]][pos[heap[l + 1]]], heap[l + 1], arrays[heap[l]][pos[heap[l]]], heap[l]))
+					l++;
+				if (!before(arrays[heap[l]][pos[heap[l]]], heap[l], x, r))
+					break;
+				heap[c] = heap[l];
+				c = l;
+			}
+			heap[c] = r;
+		}
+		return merged;
+	}
+
+	/**
+	 * Merge sorted arrays into one sorted array.
+	 *
+	 * @param arrays
+	 *            Sorted arrays.
+	 * @return Sorted array of all the values.
+	 */
+	public static int[] merge(int[]... arrays) {
+		int k = arrays.length;
+		int[] merged = new int[totalLength(arrays)];
+		int[] pos = new int[k];
+		int[] heap = new int[k];
+		int size = 0;
+		for (int r = 0; r < k; r++) {
+			if (arrays[r].length == 0)
+				continue;
+			int c = size++;
+			while (c > 0 && before(arrays[r][0], r, arrays[heap[(c - 1) >> 1]][0], heap[(c - 1) >> 1])) {
+				heap[c] = heap[(c - 1) >> 1];
+				c = (c - 1) >> 1;
+			}
+			heap[c] = r;
+		}
+		int m = 0;
+		while (size > 0) {
+			int r = heap[0];
+			int[] a = arrays[r];
+			int p = pos[r];
+			if (size == 1) {
+				System.arraycopy(a, p, merged, m, a.length - p);
+				break;
+			}
+			merged[m++] = a[p++];
+			pos[r] = p;
+			if (p == a.length)
+				r = heap[--size];
+			int c = 0;
+			int x = arrays[r][pos[r]];
+			while (2 * c + 1 < size) {
+				int l = 2 * c + 1;
+				if (l + 1 < size && before(arrays[heap[l + 1]][pos[heap[l + 1]]], heap[l + 1], arrays[heap[l]][pos[heap[l]]], heap[l]))
+					l++;
+				if (!before(arrays[heap[l]][pos[heap[l]]], heap[l], x, r))
+					break;
+				heap[c] = heap[l];
+				c = l;
+			}
+			heap[c] = r;
+		}
+		return merged;
+	}
+
+	/**
+	 * Distinct values of a sorted array.
+	 *
+	 * @param a
+	 *            Sorted array.
+	 * @return The first value of each run of equal values.
+	 */
+	public static double[] unique(double[] a) {
+		int[] counts = counts(a);
+		double[] unique = new double[counts.length];
+		int i = 0;
+		for (int u = 0; u < counts.length; u++) {
+			unique[u] = a[i];
+			i += counts[u];
+		}
+		return unique;
+	}
+
+	/**
+	 * Number of occurrences of the distinct values of a sorted array.
+	 *
+	 * @param a
+	 *            Sorted array.
+	 * @return Length of each run of equal values, in the order of
+	 *         unique(a).
+	 */
+	public static int[] counts(double[] a) {
+		int n = a.length;
+		int[] runs = new int[n];
+		int u = 0;
+		int start = 0;
+		while (start < n) {
+			int end = start + 1;
+			while (end < n && equal(a[end], a[start]))
+				end++;
+			runs[u++] = end - start;
+			start = end;
+		}
+		int[] counts = new int[u];
+		System.arraycopy(runs, 0, counts, 0, u);
+		return counts;
+	}
+
+	/**
+	 * Distinct values of a sorted array.
+	 *
+	 * @param a
+	 *            Sorted array.
+	 * @return Each value once.
+	 */
+	public static int[] unique(int[] a) {
+		int[] counts = counts(a);
+		int[] unique = new int[counts.length];
+		int i = 0;
+		for (int u = 0; u < counts.length; u++) {
+			unique[u] = a[i];
+			i += counts[u];
+		}
+		return unique;
+	}
+
+	/**
+	 * Number of occurrences of the distinct values of a sorted array.
+	 *
+	 * @param a
+	 *            Sorted array.
+	 * @return Length of each run of equal values, in the order of
+	 *         unique(a).
+	 */
+	public static int[] counts(int[] a) {
+		int n = a.length;
+		int[] runs = new int[n];
+		int u = 0;
+		int start = 0;
+		while (start < n) {
+			int end = start + 1;
+			while (end < n && a[end] == a[start])
+				end++;
+			runs[u++] = end - start;
+			start = end;
+		}
+		int[] counts = new int[u];
+		System.arraycopy(runs, 0, counts, 0, u);
+		return counts;
+	}
+
+	/**
+	 * Values present in two sorted arrays.
+	 *
+	 * @param a
+	 *            Sorted array.
+	 * @param b
+	 *            Sorted array.
+	 * @return Sorted distinct values of a which are in b.
+	 */
+	public static double[] intersection(double[] a, double[] b) {
+		double[] c = new double[Math.min(a.length, b.length)];
+		int i = 0;
+		int j = 0;
+		int k = 0;
+		while (i < a.length && j < b.length) {
+			if (less(a[i], b[j])) {
+				i++;
+			} else if (less(b[j], a[i])) {
+				j++;
+			} else {
+				if (k == 0 || !equal(c[k - 1], a[i]))
+					c[k++] = a[i];
+				i++;
+				j++;
+			}
+		}
+		return trim(c, k);
+	}
+
+	/**
+	 * Values present in any of two sorted arrays.
+	 *
+	 * @param a
+	 *            Sorted array.
+	 * @param b
+	 *            Sorted array.
+	 * @return Sorted distinct values of a and b.
+	 */
+	public static double[] union(double[] a, double[] b) {
+		double[] c = new double[a.length + b.length];
+		int i = 0;
+		int j = 0;
+		int k = 0;
+		while (i < a.length || j < b.length) {
+			double x;
+			if (j == b.length || (i < a.length && !less(b[j], a[i])))
+				x = a[i++];
+			else
+				x = b[j++];
+			if (k == 0 || !equal(c[k - 1], x))
+				c[k++] = x;
+		}
+		return trim(c, k);
+	}
+
+	/**
+	 * Values present in two sorted arrays.
+	 *
+	 * @param a
+	 *            Sorted array.
+	 * @param b
+	 *            Sorted array.
+	 * @return Sorted distinct values of a which are in b.
+	 */
+	public static int[] intersection(int[] a, int[] b) {
+		int[] c = new int[Math.min(a.length, b.length)];
+		int i = 0;
+		int j = 0;
+		int k = 0;
+		while (i < a.length && j < b.length) {
+			if (a[i] < b[j]) {
+				i++;
+			} else if (b[j] < a[i]) {
+				j++;
+			} else {
+				if (k == 0 || c[k - 1] != a[i])
+					c[k++] = a[i];
+				i++;
+				j++;
+			}
+		}
+		return trim(c, k);
+	}
+
+	/**
+	 * Values present in any of two sorted arrays.
+	 *
+	 * @param a
+	 *            Sorted array.
+	 * @param b
+	 *            Sorted array.
+	 * @return Sorted distinct values of a and b.
+	 */
+	public static int[] union(int[] a, int[] b) {
+		int[] c = new int[a.length + b.length];
+		int i = 0;
+		int j = 0;
+		int k = 0;
+		while (i < a.length || j < b.length) {
+			int x;
+			if (j == b.length || (i < a.length && a[i] <= b[j]))
+				x = a[i++];
+			else
+				x = b[j++];
+			if (k == 0 || c[k - 1] != x)
+				c[k++] = x;
+		}
+		return trim(c, k);
+	}
+
+	// order of Sorting: NaN after everything
+	private static boolean less(double x, double y) {
+		return x < y || (y != y && x == x);
+	}
+
+	private static boolean equal(double x, double y) {
+		return x == y || (x != x && y != y);
+	}
+
+	private static boolean before(double x, int r, double y, int s) {
+		return less(x, y) || (!less(y, x) && r < s);
+	}
+
+	private static boolean before(int x, int r, int y, int s) {
+		return x < y || (x == y && r < s);
+	}
+
+	private static void checkRange(int length, int from, int to) {
+		if (from < 0 || to > length || from > to)
+			throw new IllegalArgumentException("Invalid range [" + from + ", " + to + "[ of an array of length " + length);
+	}
+
+	private static int totalLength(double[][] arrays) {
+		long n = 0;
+		for (int r = 0; r < arrays.length; r++)
+			n += arrays[r].length;
+		return checkLength(n);
+	}
+
+	private static int totalLength(int[][] arrays) {
+		long n = 0;
+		for (int r = 0; r < arrays.length; r++)
+			n += arrays[r].length;
+		return checkLength(n);
+	}
+
+	private static int checkLength(long n) {
+		if (n > Integer.MAX_VALUE)
+			throw new IllegalArgumentException("Merged array would be too large : " + n);
+		return (int) n;
+	}
+
+	private static double[] trim(double[] a, int n) {
+		if (n == a.length)
+			return a;
+		double[] t = new double[n];
+		System.arraycopy(a, 0, t, 0, n);
+		return t;
+	}
+
+	private static int[] trim(int[] a, int n) {
+		if (n == a.length)
+			return a;
+		int[] t = new int[n];
+		System.arraycopy(a, 0, t, 0, n);
+		return t;
+	}
+
+}
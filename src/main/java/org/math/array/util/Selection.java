@@ -0,0 +1,353 @@
+package org.math.array.util;
+
+import java.util.Arrays;
+
+/**
+ * Selection of the k smallest or largest values of an array, without sorting
+ * the whole array. The result is the beginning of the order given by
+ * Sorting.getIndex(), ascending for the smallest values and descending for the
+ * largest ones: equal values keep their initial order and NaN values come
+ * last in both cases.
+ * <P>
+ * For a small k compared to the size of the array, a bounded heap of the k
+ * best values seen is kept while reading the array once, in O(n log k) time
+ * at worst but close to O(n) on unordered data since most values are rejected
+ * against the top of the heap. For a larger k, the array is partitioned by a
+ * quickselect, in O(n) mean time, and only the k selected values are sorted.
+ * <P>
+ * An instance of Selection is such a bounded heap, which can be filled by
+ * chunks when the data does not fit in one array: values are numbered in the
+ * order they are added.
+ * <P>
+ * Example:<br>
+ * <code>
+ * Selection s = new Selection(100, false);<br>
+ * while (...)<br>
+ * &nbsp;&nbsp;s.add(chunk);<br>
+ * long[] index = s.getIndex();<br>
+ * double[] smallest = s.getValues();<br>
+ * </code>
+ * <P>
+ * BSD License
+ *
+ * @see Sorting
+ */
+public class Selection {
+
+	// the heap is used while k is at most this fraction of the size
+	private static final int HEAP_RATIO = 64;
+
+	// the whole array is sorted when k is more than this fraction of the size
+	private static final int FULL_SORT_RATIO = 4;
+
+	private final boolean largest;
+
+	// max heap of the k best values, the worst one on top
+	private final double[] keys;
+
+	private final double[] values;
+
+	private final long[] index;
+
+	private int size;
+
+	private long count;
+
+	/**
+	 * Prepare the selection of the k smallest or largest values.
+	 *
+	 * @param k
+	 *            Number of values to keep.
+	 * @param largest
+	 *            True to keep the largest values, false for the smallest.
+	 */
+	public Selection(int k, boolean largest) {
+		if (k < 0)
+			throw new IllegalArgumentException("Number of values to select must be >= 0 : " + k);
+		this.largest = largest;
+		keys = new double[k];
+		values = new double[k];
+		index = new long[k];
+	}
+
+	/**
+	 * Add a value, numbered after the previous ones.
+	 *
+	 * @param value
+	 *            Value to add.
+	 */
+	public void add(double value) {
+		offer(key(value, largest), value, count++);
+	}
+
+	/**
+	 * Add a chunk of values, numbered after the previous ones.
+	 *
+	 * @param chunk
+	 *            Values to add.
+	 */
+	public void add(double[] chunk) {
+		add(chunk, 0, chunk.length);
+	}
+
+	/**
+	 * Add a part of a chunk of values, numbered after the previous ones.
+	 *
+	 * @param chunk
+	 *            Values to add.
+	 * @param from
+	 *            Index of the first value to add.
+	 * @param to
+	 *            Index after the last value to add.
+	 */
+	public void add(double[] chunk, int from, int to) {
+		for (int i = from; i < to; i++)
+			offer(key(chunk[i], largest), chunk[i], count++);
+	}
+
+	/**
+	 * Get the number of values added.
+	 *
+	 * @return Number of values.
+	 */
+	public long getCount() {
+		return count;
+	}
+
+	/**
+	 * Get the numbers of the values kept, best first.
+	 *
+	 * @return Index of min(k, count) values in the order of Sorting.
+	 */
+	public long[] getIndex() {
+		long[] sorted = new long[size];
+		sort(new double[size], sorted, new double[size]);
+		return sorted;
+	}
+
+	/**
+	 * Get the values kept, best first.
+	 *
+	 * @return min(k, count) values in the order of Sorting.
+	 */
+	public double[] getValues() {
+		double[] sorted = new double[size];
+		sort(new double[size], new long[size], sorted);
+		return sorted;
+	}
+
+	/**
+	 * Get the index of the k smallest values of an array, in ascending order.
+	 *
+	 * @param values
+	 *            Array to select in, not modified.
+	 * @param k
+	 *            Number of values, at most the length of the array.
+	 * @return Index of min(k, n) values.
+	 */
+	public static int[] smallest(double[] values, int k) {
+		return select(values, k, false);
+	}
+
+	/**
+	 * Get the index of the k largest values of an array, in descending order.
+	 *
+	 * @param values
+	 *            Array to select in, not modified.
+	 * @param k
+	 *            Number of values, at most the length of the array.
+	 * @return Index of min(k, n) values.
+	 */
+	public static int[] largest(double[] values, int k) {
+		return select(values, k, true);
+	}
+
+	private static int[] select(double[] values, int k, boolean largest) {
+		if (k < 0)
+			throw new IllegalArgumentException("Number of values to select must be >= 0 : " + k);
+		int n = values.length;
+		k = Math.min(k, n);
+		int[] result = new int[k];
+		if ((long) k * HEAP_RATIO <= n) {
+			Selection s = new Selection(k, largest);
+			s.add(values);
+			long[] index = s.getIndex();
+			for (int i = 0; i < k; i++)
+				result[i] = (int) index[i];
+			return result;
+		}
+		if ((long) k * FULL_SORT_RATIO > n) {
+			double[] sorted = largest ? negate(values) : values;
+			int[] order = RadixSort.order(sorted);
+			System.arraycopy(order, 0, result, 0, k);
+			return result;
+		}
+		double[] key = new double[n];
+		int[] ix = new int[n];
+		for (int i = 0; i < n; i++) {
+			key[i] = key(values[i], largest);
+			ix[i] = i;
+		}
+		quickselect(key, ix, k);
+		// stable sort of the selected keys taken in the initial order
+		Arrays.sort(ix, 0, k);
+		double[] selected = new double[k];
+		for (int i = 0; i < k; i++)
+			selected[i] = key(values[ix[i]], largest);
+		int[] order = RadixSort.order(selected);
+		for (int i = 0; i < k; i++)
+			result[i] = ix[order[i]];
+		return result;
+	}
+
+	// ordering key: smaller is better, NaN last
+	private static double key(double x, boolean largest) {
+		if (x == 0)
+			return 0.0;
+		return largest ? -x : x;
+	}
+
+	private static double[] negate(double[] values) {
+		double[] negated = new double[values.length];
+		for (int i = 0; i < values.length; i++)
+			negated[i] = -values[i];
+		return negated;
+	}
+
+	// strict order on (key, index), NaN after everything
+	private static boolean before(double a, long i, double b, long j) {
+		if (a < b)
+			return true;
+		if (a > b)
+			return false;
+		if (a == b)
+			return i < j;
+		if (a != a)
+			return b != b && i < j;
+		return true;
+	}
+
+	private void offer(double key, double value, long i) {
+		int k = keys.length;
+		if (size < k) {
+			// sift up
+			int c = size++;
+			while (c > 0) {
+				int p = (c - 1) >> 1;
+				if (!before(keys[p], index[p], key, i))
+					break;
+				keys[c] = keys[p];
+				values[c] = values[p];
+				index[c] = index[p];
+				c = p;
+			}
+			keys[c] = key;
+			values[c] = value;
+			index[c] = i;
+		} else if (k > 0 && before(key, i, keys[0], index[0])) {
+			siftDown(keys, index, values, 0, key, value, i, size);
+		}
+	}
+
+	// puts (key, value, i) at position c of the max heap and sifts it down
+	private static void siftDown(double[] keys, long[] index, double[] values, int c, double key, double value, long i, int size) {
+		int half = size >> 1;
+		while (c < half) {
+			int l = 2 * c + 1;
+			int r = l + 1;
+			if (r < size && before(keys[l], index[l], keys[r], index[r]))
+				l = r;
+			if (!before(key, i, keys[l], index[l]))
+				break;
+			keys[c] = keys[l];
+			values[c] = values[l];
+			index[c] = index[l];
+			c = l;
+		}
+		keys[c] = key;
+		values[c] = value;
+		index[c] = i;
+	}
+
+	// sorts copies of the heap arrays, best first, by a heap sort
+	private void sort(double[] k, long[] i, double[] v) {
+		System.arraycopy(keys, 0, k, 0, size);
+		System.arraycopy(index, 0, i, 0, size);
+		System.arraycopy(values, 0, v, 0, size);
+		for (int last = size - 1; last > 0; last--) {
+			// the worst remaining entry goes at the end
+			double lk = k[last];
+			long li = i[last];
+			double lv = v[last];
+			k[last] = k[0];
+			i[last] = i[0];
+			v[last] = v[0];
+			siftDown(k, i, v, 0, lk, lv, li, last);
+		}
+	}
+
+	// moves the k first entries in the order of (key, ix) to the beginning,
+	// in any order
+	private static void quickselect(double[] key, int[] ix, int k) {
+		int lo = 0;
+		int hi = key.length - 1;
+		int depth = 2 * (32 - Integer.numberOfLeadingZeros(key.length));
+		while (lo < hi && k > lo && k <= hi) {
+			if (depth-- == 0) {
+				// degenerate partitions: select the rest with a heap
+				heapSelect(key, ix, lo, hi, k);
+				return;
+			}
+			int mid = (lo + hi) >>> 1;
+			// median of three moved to lo
+			if (before(key[mid], ix[mid], key[lo], ix[lo]))
+				swap(key, ix, mid, lo);
+			if (before(key[hi], ix[hi], key[lo], ix[lo]))
+				swap(key, ix, hi, lo);
+			if (before(key[hi], ix[hi], key[mid], ix[mid]))
+				swap(key, ix, hi, mid);
+			swap(key, ix, lo, mid);
+			double pk = key[lo];
+			int pi = ix[lo];
+			int i = lo;
+			int j = hi + 1;
+			while (true) {
+				do
+					i++;
+				while (before(key[i], ix[i], pk, pi));
+				do
+					j--;
+				while (before(pk, pi, key[j], ix[j]));
+				if (i >= j)
+					break;
+				swap(key, ix, i, j);
+			}
+			swap(key, ix, lo, j);
+			// the pivot is at its final place j
+			if (j < k)
+				lo = j + 1;
+			else
+				hi = j - 1;
+		}
+	}
+
+	private static void heapSelect(double[] key, int[] ix, int lo, int hi, int k) {
+		Selection s = new Selection(k - lo, false);
+		for (int i = lo; i <= hi; i++)
+			s.offer(key[i], key[i], ix[i]);
+		for (int c = 0; c < s.size; c++) {
+			key[lo + c] = s.keys[c];
+			ix[lo + c] = (int) s.index[c];
+		}
+	}
+
+	private static void swap(double[] key, int[] ix, int i, int j) {
+		double t = key[i];
+		key[i] = key[j];
+		key[j] = t;
+		int u = ix[i];
+		ix[i] = ix[j];
+		ix[j] = u;
+	}
+
+}
@@ -1,6 +1,7 @@
 package org.math.array.util;
 
-import java.util.Vector;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.math.array.DoubleArray;
 
@@ -19,14 +20,56 @@ public class Slicing {
 
 	//public static double epsilon = 10E-7;
 
+	// smallest number of elements located by one thread
+	private static final int CHUNK_SIZE = 1 << 14;
+
 	private double[][] M;
 
 	private int numDimensions;
 
 	private Slice[] slice;
 
+	// the slices form a grid: slice i has the counter[j]-th center and width
+	// of each dimension j, counter[0] varying fastest
+	private double[][] gridCenters;
+
+	private double[][] gridWidths;
+
+	private int[] stride;
+
+	// upper bounds of the slices of the dimensions whose slices are in
+	// ascending order, searched by bisection, null for the others
+	private double[][] upperBounds;
+
+	// indexes of the elements of all the slices, slice after slice: the
+	// elements of slice k are members[offsets[k]] to members[offsets[k + 1] - 1]
+	private int[] offsets;
+
+	private int[] members;
+
+	private int threads;
+
 	public Slicing(double[][] m, int[] n, String bounds) {
+		this(m, n, bounds, 1);
+	}
+
+	/**
+	 * Slicing built on several threads: the bounds of the dimensions are
+	 * computed concurrently, and the elements are located by row blocks. The
+	 * result is the same as with one thread.
+	 * 
+	 * @param m
+	 *            matrix to slice
+	 * @param n
+	 *            number of slices per dimension
+	 * @param bounds
+	 *            AUTO_BOUNDS or UNIFORM_BOUNDS
+	 * @param threads
+	 *            number of threads
+	 */
+	public Slicing(double[][] m, int[] n, String bounds, int threads) {
 		DoubleArray.checkColumnDimension(m, n.length);
+		setThreads(threads);
 		M = m;
 		numDimensions = M[0].length;
 		if (bounds.equals(UNIFORM_BOUNDS)) {
@@ -40,14 +83,46 @@ public class Slicing {
 	}
 
 	public Slicing(double[][] m, double[][] bounds) {
+		this(m, bounds, 1);
+	}
+
+	/**
+	 * Slicing built on several threads, with the same result as with one.
+	 * 
+	 * @param m
+	 *            matrix to slice
+	 * @param bounds
+	 *            bounds of the slices per dimension
+	 * @param threads
+	 *            number of threads
+	 */
+	public Slicing(double[][] m, double[][] bounds, int threads) {
 		DoubleArray.checkColumnDimension(m, bounds.length);
+		setThreads(threads);
 		M = m;
 		numDimensions = M[0].length;
 		setSlicesBounds(bounds);
 	}
 
 	public Slicing(double[][] m, double[][] centers, double[][] widths) {
+		this(m, centers, widths, 1);
+	}
+
+	/**
+	 * Slicing built on several threads, with the same result as with one.
+	 * 
+	 * @param m
+	 *            matrix to slice
+	 * @param centers
+	 *            centers of slices per dimension
+	 * @param widths
+	 *            widths of slices per dimension
+	 * @param threads
+	 *            number of threads
+	 */
+	public Slicing(double[][] m, double[][] centers, double[][] widths, int threads) {
 		DoubleArray.checkColumnDimension(m, centers.length);
+		setThreads(threads);
 		M = m;
 		numDimensions = M[0].length;
 		setSlicesCentersnWidths(centers, widths);
@@ -95,23 +170,24 @@ public class Slicing {
 
 	public int findSlice(double[] x) {
 		DoubleArray.checkLength(x, numDimensions);
-		int s = -1;
-		for (int i = 0; i < slice.length; i++) {
-			if (slice[i].isIn(x)) {
-				s = i;
-			}
-		}
-		return s;
+		// the last slice containing x
+		return locate(x, false);
 	}
 
 	public int[][] getSlicesIndexes() {
 		int[][] s = new int[slice.length][0];
 		for (int i = 0; i < slice.length; i++) {
-			s[i] = slice[i].getIndexesArray();
+			s[i] = getSliceIndexes(i);
 		}
 		return s;
 	}
 
+	public int[] getSliceIndexes(int i) {
+		int[] s = new int[offsets[i + 1] - offsets[i]];
+		System.arraycopy(members, offsets[i], s, 0, s.length);
+		return s;
+	}
+
 	/**
 	 * Method used to build slices centers and widths from a definied number of
 	 * slices per dimension.
@@ -123,33 +199,18 @@ public class Slicing {
 	private void setSlicesBounds(double[][] bounds) {
 		DoubleArray.checkRowDimension(bounds, numDimensions);
 
-		int[] numberSlicesPerDimension = new int[numDimensions];
-		for (int i = 0; i < numDimensions; i++) {
-			numberSlicesPerDimension[i] = bounds[i].length - 1;
-		}
-
-		slice = new Slice[cumProd(numberSlicesPerDimension)];
-
-		int[] counter = new int[numDimensions];
-		double[] sliceWidth = new double[numDimensions];
-		double[] sliceCenter = new double[numDimensions];
-
-		for (int i = 0; i < slice.length; i++) {
-			for (int j = 0; j < numDimensions; j++) {
-				sliceWidth[j] = bounds[j][counter[j] + 1] - bounds[j][counter[j]];
-				sliceCenter[j] = (bounds[j][counter[j] + 1] + bounds[j][counter[j]]) / 2;
-			}
-
-			slice[i] = new Slice(sliceCenter, sliceWidth);
-			// slice[i].toCommandeLine("slice "+i);
-
-			if (i < (slice.length - 1)) {
-				incCounter(counter, numberSlicesPerDimension);
+		double[][] centers = new double[numDimensions][];
+		double[][] widths = new double[numDimensions][];
+		for (int j = 0; j < numDimensions; j++) {
+			centers[j] = new double[bounds[j].length - 1];
+			widths[j] = new double[bounds[j].length - 1];
+			for (int k = 0; k < centers[j].length; k++) {
+				widths[j][k] = bounds[j][k + 1] - bounds[j][k];
+				centers[j][k] = (bounds[j][k + 1] + bounds[j][k]) / 2;
 			}
 		}
 
-		// for slicesCardinals & elementsIndexes & slices
-		countFromBounds();
+		setSlices(centers, widths);
 	}
 
 	/**
@@ -166,33 +227,17 @@ public class Slicing {
 		DoubleArray.checkRowDimension(centers, numDimensions);
 		DoubleArray.checkRowDimension(widths, numDimensions);
 
-		int[] numberSlicesPerDimension = new int[numDimensions];
-		for (int i = 0; i < numDimensions; i++) {
-			numberSlicesPerDimension[i] = centers[i].length;
-		}
-
-		slice = new Slice[cumProd(numberSlicesPerDimension)];
-
-		int[] counter = new int[numDimensions];
-		double[] sliceWidth = new double[numDimensions];
-		double[] sliceCenter = new double[numDimensions];
-
-		for (int i = 0; i < slice.length; i++) {
-			for (int j = 0; j < numDimensions; j++) {
-				sliceWidth[j] = widths[j][counter[j]];
-				sliceCenter[j] = centers[j][counter[j]];
-			}
-
-			slice[i] = new Slice(sliceCenter, sliceWidth);
-			// slice[i].toCommandLine("slice " + i);
-
-			if (i < (slice.length - 1)) {
-				incCounter(counter, numberSlicesPerDimension);
+		double[][] c = new double[numDimensions][];
+		double[][] w = new double[numDimensions][];
+		for (int j = 0; j < numDimensions; j++) {
+			if (widths[j].length != centers[j].length) {
+				throw new IllegalArgumentException("Dimension " + j + " has " + centers[j].length + " centers but " + widths[j].length + " widths.");
 			}
+			c[j] = DoubleArray.copy(centers[j]);
+			w[j] = DoubleArray.copy(widths[j]);
 		}
 
-		// for slicesCardinals & elementsIndexes & slices
-		countFromBounds();
+		setSlices(c, w);
 	}
 
 	/**
@@ -204,40 +249,21 @@ public class Slicing {
 	 */
 
 	private void setSlicesUniformBounds(int[] numberSlicesPerDimension) {
-		slice = new Slice[cumProd(numberSlicesPerDimension)];
-
-		int[] counter = new int[numDimensions];
-		double[] sliceWidth = new double[numDimensions];
-		double[] sliceCenter = new double[numDimensions];
-
 		double[] Mmin = DoubleArray.min(M);
 		double[] Mmax = DoubleArray.max(M);
-		double[] pitch = new double[numDimensions];
+		double[][] centers = new double[numDimensions][];
+		double[][] widths = new double[numDimensions][];
 		for (int j = 0; j < numDimensions; j++) {
-			pitch[j] = (Mmax[j] - Mmin[j]) / numberSlicesPerDimension[j];
-		}
-
-		for (int i = 0; i < slice.length; i++) {
-			for (int j = 0; j < numDimensions; j++) {
-				// double min = M.getColumn(j).min().toDouble();
-				// double max = M.getColumn(j).max().toDouble();
-				// double pitch = (max - min) / numberSlicesPerDimension[j];
-				// sliceWidth.set(0, j, pitch);
-				// sliceCenter.set(0, j, min + (counter[j] + 0.5) * pitch);
-				sliceWidth[j] = pitch[j];
-				sliceCenter[j] = Mmin[j] + (counter[j] + 0.5) * pitch[j];
-			}
-
-			slice[i] = new Slice(sliceCenter, sliceWidth);
-			// slice[i].toCommandLine("slice "+i);
-
-			if (i < (slice.length - 1)) {
-				incCounter(counter, numberSlicesPerDimension);
+			double pitch = (Mmax[j] - Mmin[j]) / numberSlicesPerDimension[j];
+			centers[j] = new double[numberSlicesPerDimension[j]];
+			widths[j] = new double[numberSlicesPerDimension[j]];
+			for (int k = 0; k < centers[j].length; k++) {
+				widths[j][k] = pitch;
+				centers[j][k] = Mmin[j] + (k + 0.5) * pitch;
 			}
 		}
 
-		// for slicesCardinals & elementsIndexes & slices
-		countFromBounds();
+		setSlices(centers, widths);
 	}
 
 	/**
@@ -249,66 +275,112 @@ public class Slicing {
 	 *            array of number of slices per dimension of the matrix to slice
 	 */
 
-	private void setSlicesAutoBounds(int[] numberSlicesPerDimension) {
-		slice = new Slice[cumProd(numberSlicesPerDimension)];
-
-		int[] counter = new int[numDimensions];
-		double[] sliceWidth = new double[numDimensions];
-		double[] sliceCenter = new double[numDimensions];
-
+	private void setSlicesAutoBounds(final int[] numberSlicesPerDimension) {
 		// evaluate centers and width per dimension
-		int[] numberOfElement = new int[numDimensions];
-		double[][] centers = new double[numDimensions][];
-		double[][] widths = new double[numDimensions][];
-		//int[] sortIndex;
+		final double[][] centers = new double[numDimensions][];
+		final double[][] widths = new double[numDimensions][];
+		// threads left to sort each column
+		final int sortThreads = Math.max(1, threads / numDimensions);
+		List<Runnable> tasks = new ArrayList<Runnable>(numDimensions);
 		for (int j = 0; j < numDimensions; j++) {
-			double[] column = DoubleArray.getColumnCopy(M, j);
-			numberOfElement[j] = column.length / numberSlicesPerDimension[j];
+			final int dimension = j;
+			tasks.add(new Runnable() {
+				public void run() {
+					setAutoBounds(dimension, numberSlicesPerDimension[dimension], centers, widths, sortThreads);
+				}
+			});
+		}
+		Parallel.run(tasks, threads);
 
-			new Sorting(column, false);
+		setSlices(centers, widths);
+	}
 
-			centers[j] = new double[numberSlicesPerDimension[j]];
-			widths[j] = new double[numberSlicesPerDimension[j]];
+	/**
+	 * Method used to build the centers and widths of the slices of one
+	 * dimension, each slice having the same number of elements.
+	 * 
+	 * @param j
+	 *            dimension
+	 * @param numberSlicesPerDimension
+	 *            number of slices of the dimension
+	 * @param centers
+	 *            centers of slices per dimension, set for j
+	 * @param widths
+	 *            widths of slices per dimension, set for j
+	 * @param sortThreads
+	 *            number of threads sorting the column
+	 */
 
-			int i_min;
-			int i_max = -1;
-			for (int i = 0; i < numberSlicesPerDimension[j] - 1; i++) {
-				// System.out.println("elements : " + (i * numberOfElement[j]) +
-				// " -> " + ( (i +
-				// 1) * numberOfElement[j] - 1));
-				// System.out.println("i=" + i + " j=" + j + "
-				// numberOfElement[j]=" + numberOfElement[j]);
-
-				i_min = i_max + 1;
-				i_max = Math.max((i + 1) * numberOfElement[j] - 1, i_min);
-				// in case column[i_max] == column[i_max + 1], the two slices i
-				// and i+1 contains the same two elements, so an error will be
-				// found in countFromBounds()
-				// so I decided to add column[i_max + 1] in the slice i and
-				// offset the bound of slice i+1
-				try {
-					while (column[i_max] == column[i_max + 1]) {
-						i_max++;
-					}
-				} catch (ArrayIndexOutOfBoundsException e) {
-					throw new IllegalArgumentException("Too much slices defined for the values to slice... you should try to reduce the nyumber of slices !");
-				}
+	private void setAutoBounds(int j, int numberSlicesPerDimension, double[][] centers, double[][] widths, int sortThreads) {
+		double[] column = DoubleArray.getColumnCopy(M, j);
+		int numberOfElement = column.length / numberSlicesPerDimension;
 
-				centers[j][i] = (column[i_min] + column[i_max]) / 2;
-				widths[j][i] = column[i_max] - column[i_min];
-			}
-			// the last slice must contains all remaining elements...
-			int i = numberSlicesPerDimension[j] - 1;
-			i_min = i_max + 1;
-			i_max = column.length - 1;
+		new Sorting(column, false, sortThreads);
+
+		centers[j] = new double[numberSlicesPerDimension];
+		widths[j] = new double[numberSlicesPerDimension];
 
-			if (i_min > i_max) {
+		int i_min;
+		int i_max = -1;
+		for (int i = 0; i < numberSlicesPerDimension - 1; i++) {
+			// System.out.println("elements : " + (i * numberOfElement) +
+			// " -> " + ( (i +
+			// 1) * numberOfElement - 1));
+			// System.out.println("i=" + i + " j=" + j + "
+			// numberOfElement=" + numberOfElement);
+
+			i_min = i_max + 1;
+			i_max = Math.max((i + 1) * numberOfElement - 1, i_min);
+			// in case column[i_max] == column[i_max + 1], the two slices i
+			// and i+1 contains the same two elements, so an error will be
+			// found in countFromBounds()
+			// so I decided to add column[i_max + 1] in the slice i and
+			// offset the bound of slice i+1
+			try {
+				while (column[i_max] == column[i_max + 1]) {
+					i_max++;
+				}
+			} catch (ArrayIndexOutOfBoundsException e) {
 				throw new IllegalArgumentException("Too much slices defined for the values to slice... you should try to reduce the nyumber of slices !");
 			}
 
 			centers[j][i] = (column[i_min] + column[i_max]) / 2;
 			widths[j][i] = column[i_max] - column[i_min];
 		}
+		// the last slice must contains all remaining elements...
+		int i = numberSlicesPerDimension - 1;
+		i_min = i_max + 1;
+		i_max = column.length - 1;
+
+		if (i_min > i_max) {
+			throw new IllegalArgumentException("Too much slices defined for the values to slice... you should try to reduce the nyumber of slices !");
+		}
+
+		centers[j][i] = (column[i_min] + column[i_max]) / 2;
+		widths[j][i] = column[i_max] - column[i_min];
+	}
+
+	/**
+	 * Method used to build the slices of the grid of per dimension centers
+	 * and widths.
+	 * 
+	 * @param centers
+	 *            centers of slices per dimension.
+	 * @param widths
+	 *            widths of slices per dimension.
+	 */
+
+	private void setSlices(double[][] centers, double[][] widths) {
+		int[] numberSlicesPerDimension = new int[numDimensions];
+		for (int j = 0; j < numDimensions; j++) {
+			numberSlicesPerDimension[j] = centers[j].length;
+		}
+
+		slice = new Slice[cumProd(numberSlicesPerDimension)];
+
+		int[] counter = new int[numDimensions];
+		double[] sliceWidth = new double[numDimensions];
+		double[] sliceCenter = new double[numDimensions];
 
 		for (int i = 0; i < slice.length; i++) {
 			for (int j = 0; j < numDimensions; j++) {
@@ -317,13 +389,27 @@ public class Slicing {
 			}
 
 			slice[i] = new Slice(sliceCenter, sliceWidth);
-			// slice[i].toCommandLine("slice " + i + " !");
+			// slice[i].toCommandLine("slice " + i);
 
 			if (i < (slice.length - 1)) {
 				incCounter(counter, numberSlicesPerDimension);
 			}
 		}
 
+		gridCenters = centers;
+		gridWidths = widths;
+		stride = new int[numDimensions];
+		upperBounds = new double[numDimensions][];
+		for (int j = 0; j < numDimensions; j++) {
+			stride[j] = j == 0 ? 1 : stride[j - 1] * numberSlicesPerDimension[j - 1];
+			if (isAscending(centers[j], widths[j])) {
+				upperBounds[j] = new double[centers[j].length];
+				for (int k = 0; k < centers[j].length; k++) {
+					upperBounds[j][k] = centers[j][k] + widths[j][k] / 2;
+				}
+			}
+		}
+
 		// for slicesCardinals & elementsIndexes & slices
 		countFromBounds();
 	}
@@ -368,59 +454,175 @@ public class Slicing {
 
 	private void countFromBounds() {
 
-		int numOE = M.length;
-		// int in;
-		for (int i = 0; i < numOE; i++) {
-			Vector<Integer> inv = new Vector<Integer>(0);
-			// in = 0;
-			for (int j = 0; j < slice.length; j++) {
-				if (slice[j].isIn(DoubleArray.getRowCopy(M, i))) {
-					// if more than one slice contains the current element:
-					// M.getRow(i), it will be ignored...
-					// very dangerous if you're not sure of your slicing !!!
-					// just comment the following line (and it's closing braket)
-					// if you want to make the test "more than one slice
-					// containg"
-					if (inv.size() == 0) {
-						slice[j].add(DoubleArray.getRowCopy(M, i), i);
+		final int numOE = M.length;
+		final int[] sliceOf = new int[numOE];
+		// blocks of rows, each one with its own count of elements per slice
+		final int blocks = (int) Math.max(1, Math.min(threads, (long) numOE / CHUNK_SIZE));
+		final int[][] counts = new int[blocks][slice.length];
+		final int[] failed = new int[blocks];
+		List<Runnable> tasks = new ArrayList<Runnable>(blocks);
+		for (int b = 0; b < blocks; b++) {
+			final int block = b;
+			tasks.add(new Runnable() {
+				public void run() {
+					failed[block] = -1;
+					int[] count = counts[block];
+					for (int i = from(block, blocks, numOE); i < from(block + 1, blocks, numOE); i++) {
+						// if more than one slice contains the current element, it is
+						// only counted in the first one: very dangerous if you're not
+						// sure of your slicing !!!
+						sliceOf[i] = locate(M[i], true);
+						if (sliceOf[i] < 0) {
+							failed[block] = i;
+							return;
+						}
+						count[sliceOf[i]]++;
 					}
-					inv.add(new Integer(j));
-
-					// System.out.println(M.getRow(i).toString()+" is in group
-					// "+j);
-				} else {
-					// System.out.println(M.getRow(i).toString()+" is not in
-					// group "+j);
 				}
-			}
-			// "more than one slice containg" TEST
-			// this test may be not passed if your slicing is "AUTO" i.e. if
-			// slices are bounded by elements
-			// if (inv.size() > 1) {
-			//
-			// String S = "";
-			// for (int j = 0; j < inv.size(); j++) {
-			// S += slice[ ( (Integer) inv.get(j)).intValue()].toString("slice["
-			// + j + "]");
-			// }
-			//
-			// System.err.println("The element = " + M.getRow(i).toString() +
-			// " is counted in the first slice of these " + inv.size() + "
-			// slices :" + S);
-			//
-			// }
-
-			// "no slice containg" TEST
-			if (inv.size() == 0) {
+			});
+		}
+		Parallel.run(tasks, threads);
+
+		// "no slice containg" TEST, on the first such element
+		for (int b = 0; b < blocks; b++) {
+			if (failed[b] >= 0) {
+				int i = failed[b];
 				String S = "";
 				for (int j = 0; j < slice.length; j++) {
-					S += slice[ /* ( (Integer) inv.get(j)).intValue() */j].toString("slice[" + j + "]");
+					S += slice[j].toString("slice[" + j + "]");
 				}
 
 				throw new IllegalArgumentException("The element = " + DoubleArray.toString(DoubleArray.getRowsCopy(M, i, i)) + " is in 0 slices :" + S);
+			}
+		}
+
+		// counting sort of the elements by slice: the counts of each block
+		// become the position of its first element in each slice
+		offsets = new int[slice.length + 1];
+		for (int k = 0; k < slice.length; k++) {
+			int position = offsets[k];
+			for (int b = 0; b < blocks; b++) {
+				int count = counts[b][k];
+				counts[b][k] = position;
+				position += count;
+			}
+			offsets[k + 1] = position;
+			slice[k].first = offsets[k];
+			slice[k].cardinal = position - offsets[k];
+		}
+		members = new int[numOE];
+		tasks.clear();
+		for (int b = 0; b < blocks; b++) {
+			final int block = b;
+			tasks.add(new Runnable() {
+				public void run() {
+					int[] next = counts[block];
+					for (int i = from(block, blocks, numOE); i < from(block + 1, blocks, numOE); i++) {
+						members[next[sliceOf[i]]++] = i;
+					}
+				}
+			});
+		}
+		Parallel.run(tasks, threads);
+	}
+
+	private static int from(int block, int blocks, int n) {
+		return (int) ((long) n * block / blocks);
+	}
+
+	private void setThreads(int t) {
+		if (t < 1) {
+			throw new IllegalArgumentException("Number of threads must be positive : " + t);
+		}
+		threads = t;
+	}
+
+	/**
+	 * Finds the first or last slice containing a point, dimension by
+	 * dimension: as the slices form a grid, the first slice containing x has
+	 * the first interval containing x[j] in each dimension j.
+	 * 
+	 * @param x
+	 *            point to locate
+	 * @param first
+	 *            whether the first or the last slice is wanted
+	 * @return index of the slice, -1 if no slice contains x
+	 */
+
+	private int locate(double[] x, boolean first) {
+		int s = 0;
+		for (int j = 0; j < numDimensions; j++) {
+			int k = locate(j, x[j], first);
+			if (k < 0) {
+				return -1;
+			}
+			s += k * stride[j];
+		}
+		return s;
+	}
+
+	private int locate(int j, double x, boolean first) {
+		double[] c = gridCenters[j];
+		double[] w = gridWidths[j];
+		int n = c.length;
+		if (upperBounds[j] != null) {
+			// the intervals containing x follow the first one whose upper
+			// bound is not below x, but the test of isIn may differ from the
+			// bounds by a rounding
+			int k = Searching.lowerBound(upperBounds[j], x);
+			for (int l = Math.max(k - 1, 0); l <= Math.min(k + 1, n - 1); l++) {
+				if (isIn(x, c[l], w[l])) {
+					if (first) {
+						while (l > 0 && isIn(x, c[l - 1], w[l - 1])) {
+							l--;
+						}
+					} else {
+						while (l < n - 1 && isIn(x, c[l + 1], w[l + 1])) {
+							l++;
+						}
+					}
+					return l;
+				}
+			}
+		}
+		// unordered intervals, or x out of the slices
+		if (first) {
+			for (int l = 0; l < n; l++) {
+				if (isIn(x, c[l], w[l])) {
+					return l;
+				}
+			}
+		} else {
+			for (int l = n - 1; l >= 0; l--) {
+				if (isIn(x, c[l], w[l])) {
+					return l;
+				}
+			}
+		}
+		return -1;
+	}
 
+	/**
+	 * Whether the intervals of a dimension have ascending lower bounds and
+	 * upper bounds, so that the intervals containing a value are consecutive.
+	 */
+
+	private static boolean isAscending(double[] c, double[] w) {
+		for (int k = 0; k < c.length; k++) {
+			if (!(w[k] >= 0)) {
+				return false;
+			}
+			if (k > 0 && !(c[k] - w[k] / 2 >= c[k - 1] - w[k - 1] / 2 && c[k] + w[k] / 2 >= c[k - 1] + w[k - 1] / 2)) {
+				return false;
 			}
 		}
+		return true;
+	}
+
+	private static boolean isIn(double x, double center, double width) {
+		// not exact test, needed for precision problems. Set epsilon to
+		// 0 if you want an exact test.
+		return (Math.abs(x - center) - width / 2) <= 0.0/*epsilon*/;
 	}
 
 	/**
@@ -479,10 +681,11 @@ public class Slicing {
 
 	private class Slice {
 
-		public Vector<Integer> indexes;
-
 		public int cardinal;
 
+		// position of the first element in members
+		public int first;
+
 		public double[] center;
 
 		public double[] width;
@@ -490,7 +693,6 @@ public class Slicing {
 		public Slice(double[] c, double[] w) {
 			center = DoubleArray.copy(c);
 			width = DoubleArray.copy(w);
-			indexes = new Vector<Integer>();
 		}
 
 		public boolean isIn(double[] x) {
@@ -503,28 +705,13 @@ public class Slicing {
 
 				// not exact test, needed for precision problems. Set epsilon to
 				// 0 if you want an exact test.
-				boolean inj = ((Math.abs(x[j] - center[j]) - width[j] / 2) <= 0.0/*epsilon*/);
+				boolean inj = Slicing.isIn(x[j], center[j], width[j]);
 
 				in = in && inj;
 			}
 			return in;
 		}
 
-		public void add(double[] x, int i) {
-			// if (!isIn(x)) throw new IllegalArgumentException("Element x=
-			// "+x.toString()+" is not include in this slice !");
-			cardinal++;
-			indexes.add(new Integer(i));
-		}
-
-		public int[] getIndexesArray() {
-			int[] array = new int[indexes.size()];
-			for (int i = 0; i < array.length; i++) {
-				array[i] = ((Integer) (indexes.get(i))).intValue();
-			}
-			return array;
-		}
-
 		public String toString(String s) {
 			StringBuffer st;
 			st = new StringBuffer("\n" + s);
@@ -535,8 +722,8 @@ public class Slicing {
 			st.append("  min = " + DoubleArray.toString(minus(center, times(width, 0.5))) + "  max = " + DoubleArray.toString(plus(center, times(width, 0.5)))
 					+ "\n");
 			st.append("  elements indices : \n");
-			for (int i = 0; i < indexes.size(); i++) {
-				st.append(" " + ((Integer) (indexes.get(i))).intValue());
+			for (int i = 0; i < cardinal; i++) {
+				st.append(" " + members[first + i]);
 			}
 			return st.toString();
 		}
@@ -0,0 +1,300 @@
+package org.math.array.util;
+
+import edu.cornell.lassp.houle.RngPack.RandomElement;
+
+/**
+ * Sobol low-discrepancy sequence in up to 51 dimensions, with the direction
+ * numbers of Joe and Kuo, optionally scrambled.
+ * <P>
+ * Point i of the sequence is built from the bits of the Gray code of i, so
+ * any point can be computed directly: <code>setIndex</code> and
+ * <code>skip</code> cost O(dimension x 52), and <code>points(start, n)</code>
+ * gives a chunk of the sequence without changing the state of the generator,
+ * so that several threads can share one Sobol object, each computing its own
+ * range of indexes.
+ * <P>
+ * The sequence starts with the origin (index 0). Its first 2^k points are
+ * evenly spread: use powers of two as sample sizes, and skip the origin before
+ * mapping the points through an unbounded inverse CDF.
+ * <P>
+ * The scrambled version applies to each coordinate a random linear matrix
+ * scrambling followed by a random digital shift (Matousek), which keeps the
+ * low discrepancy of the points while making them unbiased, so that the error
+ * can be estimated from independent replicates.
+ * <P>
+ * References: S. Joe and F. Y. Kuo, <i>Constructing Sobol sequences with
+ * better two-dimensional projections</i>, SIAM J. Sci. Comput. 30 (2008)
+ * 2635-2654. J. Matousek, <i>On the L2-discrepancy for anchored boxes</i>, J.
+ * Complexity 14 (1998) 527-556.
+ * <P>
+ * BSD License
+ *
+ * @see Halton
+ * @see InverseCDF
+ */
+public class Sobol {
+
+	/**
+	 * Maximal dimension of the sequence.
+	 */
+	public static final int MAX_DIMENSION = 51;
+
+	// bits of each coordinate, so at most 2^BITS points
+	private static final int BITS = 52;
+
+	private static final double SCALE = 1.0 / (1L << BITS);
+
+	// Joe-Kuo direction numbers (new-joe-kuo-6.21201) for dimensions 2 to
+	// 51: degree s and coefficients a of the primitive polynomial, then the
+	// s initial numbers m
+	private static final int[][] DIRECTIONS = { { 1, 0, 1 }, { 2, 1, 1, 3 }, { 3, 1, 1, 3, 1 }, { 3, 2, 1, 1, 1 }, { 4, 1, 1, 1, 3, 3 },
+			{ 4, 4, 1, 3, 5, 13 }, { 5, 2, 1, 1, 5, 5, 17 }, { 5, 4, 1, 1, 5, 5, 5 }, { 5, 7, 1, 1, 7, 11, 19 }, { 5, 11, 1, 1, 5, 1, 1 },
+			{ 5, 13, 1, 1, 1, 3, 11 }, { 5, 14, 1, 3, 5, 5, 31 }, { 6, 1, 1, 3, 3, 9, 7, 49 }, { 6, 13, 1, 1, 1, 15, 21, 21 },
+			{ 6, 16, 1, 3, 1, 13, 27, 49 }, { 6, 19, 1, 1, 1, 15, 7, 5 }, { 6, 22, 1, 3, 1, 15, 13, 25 }, { 6, 25, 1, 1, 5, 5, 19, 61 },
+			{ 7, 1, 1, 3, 7, 11, 23, 15, 103 }, { 7, 4, 1, 3, 7, 13, 13, 15, 69 }, { 7, 7, 1, 1, 3, 13, 7, 35, 63 },
+			{ 7, 8, 1, 3, 5, 9, 1, 25, 53 }, { 7, 14, 1, 3, 1, 13, 9, 35, 107 }, { 7, 19, 1, 3, 1, 5, 27, 61, 31 },
+			{ 7, 21, 1, 1, 5, 11, 19, 41, 61 }, { 7, 28, 1, 3, 5, 3, 3, 13, 69 }, { 7, 31, 1, 1, 7, 13, 1, 19, 1 },
+			{ 7, 32, 1, 3, 7, 5, 13, 19, 59 }, { 7, 37, 1, 1, 3, 9, 25, 29, 41 }, { 7, 41, 1, 3, 5, 13, 23, 1, 55 },
+			{ 7, 42, 1, 3, 7, 3, 13, 59, 17 }, { 7, 50, 1, 3, 1, 3, 5, 53, 69 }, { 7, 55, 1, 1, 5, 5, 23, 33, 13 },
+			{ 7, 56, 1, 1, 7, 7, 1, 61, 123 }, { 7, 59, 1, 1, 7, 9, 13, 61, 49 }, { 7, 62, 1, 3, 3, 5, 3, 55, 33 },
+			{ 8, 14, 1, 3, 1, 15, 31, 13, 49, 245 }, { 8, 21, 1, 3, 5, 15, 31, 59, 63, 97 }, { 8, 22, 1, 3, 1, 11, 11, 11, 77, 249 },
+			{ 8, 38, 1, 3, 1, 11, 27, 43, 71, 9 }, { 8, 47, 1, 1, 7, 15, 21, 11, 81, 45 }, { 8, 49, 1, 3, 7, 3, 25, 31, 65, 79 },
+			{ 8, 50, 1, 3, 1, 1, 19, 11, 3, 205 }, { 8, 52, 1, 1, 5, 9, 19, 21, 29, 157 }, { 8, 56, 1, 3, 7, 11, 1, 33, 89, 185 },
+			{ 8, 67, 1, 3, 3, 3, 15, 9, 79, 71 }, { 8, 70, 1, 3, 7, 11, 15, 39, 119, 27 }, { 8, 84, 1, 1, 3, 1, 11, 31, 97, 225 },
+			{ 8, 97, 1, 1, 1, 3, 23, 43, 57, 177 }, { 8, 103, 1, 3, 7, 7, 17, 17, 37, 71 } };
+
+	private final int dimension;
+
+	// direction numbers v[j][k], bit k of the Gray code for coordinate j
+	private final long[][] v;
+
+	// digital shift, zero when the sequence is not scrambled
+	private final long[] shift;
+
+	private long index;
+
+	private final long[] x;
+
+	/**
+	 * Build a Sobol sequence.
+	 *
+	 * @param dimension
+	 *            Dimension of the points, between 1 and MAX_DIMENSION.
+	 */
+	public Sobol(int dimension) {
+		this(dimension, null);
+	}
+
+	/**
+	 * Build a scrambled Sobol sequence.
+	 *
+	 * @param dimension
+	 *            Dimension of the points, between 1 and MAX_DIMENSION.
+	 * @param e
+	 *            Random number generator drawing the scrambling, null for
+	 *            the original sequence.
+	 */
+	public Sobol(int dimension, RandomElement e) {
+		if (dimension < 1 || dimension > MAX_DIMENSION)
+			throw new IllegalArgumentException("Dimension must be between 1 and " + MAX_DIMENSION + " : " + dimension);
+		this.dimension = dimension;
+		v = new long[dimension][BITS];
+		shift = new long[dimension];
+		for (int j = 0; j < dimension; j++) {
+			long[] m = directions(j);
+			for (int k = 0; k < BITS; k++)
+				v[j][k] = m[k] << (BITS - 1 - k);
+			if (e != null) {
+				scramble(v[j], e);
+				shift[j] = randomBits(e, BITS);
+			}
+		}
+		x = new long[dimension];
+		setIndex(0);
+	}
+
+	/**
+	 * @return Dimension of the points.
+	 */
+	public int getDimension() {
+		return dimension;
+	}
+
+	/**
+	 * @return Index of the next point.
+	 */
+	public long getIndex() {
+		return index;
+	}
+
+	/**
+	 * Jump to a given point.
+	 *
+	 * @param index
+	 *            Index of the next point.
+	 */
+	public void setIndex(long index) {
+		state(index, x);
+		this.index = index;
+	}
+
+	/**
+	 * Skip points.
+	 *
+	 * @param n
+	 *            Number of points to skip.
+	 */
+	public void skip(long n) {
+		setIndex(index + n);
+	}
+
+	/**
+	 * @return The next point.
+	 */
+	public double[] next() {
+		double[] point = new double[dimension];
+		next(point);
+		return point;
+	}
+
+	/**
+	 * Compute the next point.
+	 *
+	 * @param point
+	 *            Array receiving the coordinates.
+	 */
+	public void next(double[] point) {
+		checkIndex(index);
+		for (int j = 0; j < dimension; j++)
+			point[j] = x[j] * SCALE;
+		advance(x, ++index);
+	}
+
+	/**
+	 * Get the next points of the sequence.
+	 *
+	 * @param n
+	 *            Number of points.
+	 * @return An n x dimension matrix.
+	 */
+	public double[][] points(int n) {
+		double[][] P = new double[n][dimension];
+		for (int i = 0; i < n; i++)
+			next(P[i]);
+		return P;
+	}
+
+	/**
+	 * Get a chunk of the sequence, without changing the state of this
+	 * generator. Chunks may be computed concurrently.
+	 *
+	 * @param start
+	 *            Index of the first point.
+	 * @param n
+	 *            Number of points.
+	 * @return An n x dimension matrix.
+	 */
+	public double[][] points(long start, int n) {
+		checkIndex(start + n - 1);
+		long[] y = new long[dimension];
+		state(start, y);
+		double[][] P = new double[n][dimension];
+		for (int i = 0; i < n; i++) {
+			for (int j = 0; j < dimension; j++)
+				P[i][j] = y[j] * SCALE;
+			advance(y, start + i + 1);
+		}
+		return P;
+	}
+
+	/**
+	 * Compute one point, without changing the state of this generator.
+	 *
+	 * @param index
+	 *            Index of the point.
+	 * @return The point.
+	 */
+	public double[] point(long index) {
+		return points(index, 1)[0];
+	}
+
+	// integer coordinates of point i: xor of the direction numbers selected
+	// by the Gray code of i
+	private void state(long i, long[] y) {
+		if (i < 0)
+			throw new IllegalArgumentException("Index must be positive : " + i);
+		checkIndex(i);
+		long gray = i ^ (i >>> 1);
+		for (int j = 0; j < dimension; j++) {
+			long s = shift[j];
+			for (int k = 0; k < BITS; k++)
+				if (((gray >>> k) & 1L) != 0)
+					s ^= v[j][k];
+			y[j] = s;
+		}
+	}
+
+	// from point i-1 to point i, the Gray code changes by one bit
+	private void advance(long[] y, long i) {
+		if (i >= (1L << BITS))
+			return;
+		int k = Long.numberOfTrailingZeros(i);
+		for (int j = 0; j < dimension; j++)
+			y[j] ^= v[j][k];
+	}
+
+	private static void checkIndex(long i) {
+		if (i >= (1L << BITS))
+			throw new IllegalArgumentException("Only 2^" + BITS + " points are available.");
+	}
+
+	private static long[] directions(int j) {
+		long[] m = new long[BITS];
+		if (j == 0) {
+			// first coordinate: van der Corput sequence
+			for (int k = 0; k < BITS; k++)
+				m[k] = 1;
+			return m;
+		}
+		int[] d = DIRECTIONS[j - 1];
+		int s = d[0];
+		int a = d[1];
+		for (int k = 0; k < s; k++)
+			m[k] = d[2 + k];
+		for (int k = s; k < BITS; k++) {
+			long mk = m[k - s] ^ (m[k - s] << s);
+			for (int i = 1; i < s; i++)
+				if (((a >>> (s - 1 - i)) & 1) != 0)
+					mk ^= m[k - i] << i;
+			m[k] = mk;
+		}
+		return m;
+	}
+
+	// multiply the direction numbers by a random lower triangular matrix
+	// with unit diagonal, the most significant bit being the first row
+	private static void scramble(long[] v, RandomElement e) {
+		long[] rows = new long[BITS];
+		for (int r = 0; r < BITS; r++) {
+			long diagonal = 1L << (BITS - 1 - r);
+			long above = ~((diagonal << 1) - 1) & ((1L << BITS) - 1);
+			rows[r] = diagonal | (randomBits(e, BITS) & above);
+		}
+		for (int k = 0; k < v.length; k++) {
+			long scrambled = 0;
+			for (int r = 0; r < BITS; r++)
+				if ((Long.bitCount(rows[r] & v[k]) & 1) != 0)
+					scrambled |= 1L << (BITS - 1 - r);
+			v[k] = scrambled;
+		}
+	}
+
+	// 16 bits per uniform number, since some generators have only 24 bits
+	private static long randomBits(RandomElement e, int bits) {
+		long r = 0;
+		for (int b = 0; b < bits; b += 16)
+			r = (r << 16) | ((long) (e.raw() * 65536) & 0xffffL);
+		return r & ((1L << bits) - 1);
+	}
+
+}
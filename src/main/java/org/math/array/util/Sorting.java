@@ -1,10 +1,27 @@
 package org.math.array.util;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 /**
- * Quick Sort algoritm.
+ * Sort algoritm.
+ * <P>
+ * Allows to sort a column quickly, and to get the ascending order of its
+ * elements, using an introsort: a dual-pivot quicksort (Yaroslavskiy) which
+ * switches to heapsort when the partitions get unbalanced, so the time is
+ * O(n log(n)) for any input, and to insertion sort for small partitions. The
+ * largest partition is handled by iteration rather than recursion, so the
+ * stack depth is O(log(n)).
  * <P>
- * Allows to sort a column quickly, Using a generic version of C.A.R Hoare's
- * Quick Sort algorithm.
+ * Equal values keep their initial order, so the order is the same as the one
+ * of a stable sort, and NaN values are put last.
+ * <P>
+ * Large arrays may be sorted by several threads: the array is cut in one
+ * chunk per thread, the chunks are sorted concurrently, then merged pairwise,
+ * each merge being itself split between threads. Merges are stable, so the
+ * result is exactly the one of the sequential sort, whatever the number of
+ * threads.
  * <P>
  */
 
@@ -14,6 +31,16 @@ public class Sorting {
      * ------------------------ Class variables ------------------------
      */
 
+    /**
+     * Partitions smaller than this are sorted by insertion.
+     */
+    private static final int INSERTION_THRESHOLD = 32;
+
+    /**
+     * Arrays smaller than this are sorted by one thread.
+     */
+    private static final int PARALLEL_THRESHOLD = 1 << 16;
+
     /**
      * Array for internal storage of the matrix to sort.
      */
@@ -40,6 +67,27 @@ public class Sorting {
      */
 
     public Sorting(double[] array, boolean copyArray) {
+        this(array, copyArray, 1);
+    }
+
+    /**
+     * Construct an ascending order, using several threads.
+     * 
+     * @param array
+     *            Array to sort.
+     * @param copyArray
+     *            Specify if the sort is made directly : true then array is
+     *            modified (usefull for big arrays !), false then array is copied
+     *            and not modified (more memory used).
+     * @param threads
+     *            Number of threads. Arrays of less than 65536 elements are
+     *            sorted by the calling thread only.
+     */
+
+    public Sorting(double[] array, boolean copyArray, int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Number of threads must be positive : " + threads);
+        }
         if (copyArray) {
             A = new double[array.length];
             System.arraycopy(array, 0, A, 0, array.length);
@@ -54,7 +102,11 @@ public class Sorting {
         for (int i = 0; i < A.length; i++) {
             order[i] = i;
         }
-        sort(A);
+        if (threads == 1 || A.length < PARALLEL_THRESHOLD) {
+            sort(A, 0, A.length);
+        } else {
+            parallelSort(Math.min(threads, A.length / (PARALLEL_THRESHOLD / 4)));
+        }
     }
 
     /*
@@ -92,73 +144,422 @@ public class Sorting {
         return order;
     }
 
+    /**
+     * Get the sorted values: the sorted array itself, or its sorted copy.
+     * 
+     * @return Values in ascending order.
+     */
+
+    public double[] getSortedValues() {
+        return A;
+    }
+
     /*
      * ------------------------ Private Methods ------------------------
      */
 
     /**
-     * This is a generic version of C.A.R Hoare's Quick Sort algorithm. This
-     * will handle arrays that are already sorted, and arrays with duplicate
-     * keys. <BR>
-     * 
-     * If you think of a one dimensional array as going from the lowest index on
-     * the left to the highest index on the right then the parameters to this
-     * function are lowest index or left and highest index or right. The first
-     * time you call this function it will be with the parameters 0, a.length -
-     * 1.
-     * 
-     * @param a
-     *            A double array.
-     * @param lo0
-     *            Int.
-     * @param hi0
-     *            Int.
-     */
-
-    private void QuickSort(double a[], int lo0, int hi0) {
-
-        int lo = lo0;
-        int hi = hi0;
-        double mid;
-
-        if (hi0 > lo0) {
-            // Arbitrarily establishing partition element as the midpoint of the
-            // array.
-            mid = a[(lo0 + hi0) / 2];
-
-            // loop through the array until indices cross
-            while (lo <= hi) {
-                // find the first element that is greater than or equal to the
-                // partition element starting from the left Index.
-                while ((lo < hi0) && (a[lo] < mid)) {
-                    ++lo;
+     * Sort the elements in [from, to[.
+     */
+    private void sort(double[] a, int from, int to) {
+        // NaN values go last
+        int n = from;
+        for (int i = from; i < to; i++) {
+            if (a[i] == a[i]) {
+                if (i != n) {
+                    swap(a, i, n);
+                }
+                n++;
+            }
+        }
+        if (!ascending(a, from, n - 1)) {
+            if (descending(a, from, n - 1)) {
+                for (int i = from, j = n - 1; i < j; i++, j--) {
+                    swap(a, i, j);
+                }
+            } else {
+                introSort(a, from, n - 1, 2 * (32 - Integer.numberOfLeadingZeros(n - from)));
+            }
+        }
+        // equal values, then NaN values, in their initial order
+        int start = from;
+        for (int i = from + 1; i <= n; i++) {
+            if (i == n || a[i] != a[start]) {
+                if (i - start > 1) {
+                    sortRun(a, start, i);
+                }
+                start = i;
+            }
+        }
+        if (to - n > 1) {
+            sortRun(a, n, to);
+        }
+    }
+
+    /**
+     * Put the equal (or NaN) values in [from, to[ in their initial order.
+     */
+    private void sortRun(double[] a, int from, int to) {
+        long bits = Double.doubleToRawLongBits(a[from]);
+        int k = from + 1;
+        while (k < to && Double.doubleToRawLongBits(a[k]) == bits) {
+            k++;
+        }
+        if (k == to) {
+            Arrays.sort(order, from, to);
+            return;
+        }
+        // -0.0 and 0.0, or NaN values with other payloads: the values move
+        // with their indexes
+        long[] pairs = new long[to - from];
+        double[] values = new double[to - from];
+        for (k = from; k < to; k++) {
+            pairs[k - from] = ((long) order[k] << 32) | (k - from);
+            values[k - from] = a[k];
+        }
+        Arrays.sort(pairs);
+        for (k = from; k < to; k++) {
+            order[k] = (int) (pairs[k - from] >>> 32);
+            a[k] = values[(int) pairs[k - from]];
+        }
+    }
+
+    /**
+     * Parallel merge sort: chunks sorted concurrently, then merged pairwise.
+     */
+    private void parallelSort(int threads) {
+        final int n = A.length;
+        int[] bounds = new int[threads + 1];
+        for (int t = 0; t <= threads; t++) {
+            bounds[t] = (int) ((long) n * t / threads);
+        }
+        List<Runnable> tasks = new ArrayList<Runnable>();
+        for (int t = 0; t < threads; t++) {
+            final int from = bounds[t];
+            final int to = bounds[t + 1];
+            tasks.add(new Runnable() {
+                public void run() {
+                    sort(A, from, to);
+                }
+            });
+        }
+        Parallel.run(tasks, threads);
+
+        double[] a = A;
+        int[] o = order;
+        double[] b = new double[n];
+        int[] p = new int[n];
+        int runs = threads;
+        while (runs > 1) {
+            tasks.clear();
+            int pairs = runs / 2;
+            // output pieces per merge, so that all threads are busy
+            int pieces = Math.max(1, threads / pairs);
+            int[] merged = new int[(runs + 1) / 2 + 1];
+            for (int r = 0; r < pairs; r++) {
+                int lo = bounds[2 * r];
+                int mid = bounds[2 * r + 1];
+                int hi = bounds[2 * r + 2];
+                for (int k = 0; k < pieces; k++) {
+                    int start = lo + (int) ((long) (hi - lo) * k / pieces);
+                    int end = lo + (int) ((long) (hi - lo) * (k + 1) / pieces);
+                    tasks.add(new Merge(a, o, b, p, lo, mid, hi, start, end));
+                }
+                merged[r] = lo;
+            }
+            if (runs % 2 == 1) {
+                int lo = bounds[runs - 1];
+                System.arraycopy(a, lo, b, lo, n - lo);
+                System.arraycopy(o, lo, p, lo, n - lo);
+                merged[pairs] = lo;
+            }
+            merged[merged.length - 1] = n;
+            Parallel.run(tasks, threads);
+            double[] ta = a;
+            a = b;
+            b = ta;
+            int[] to = o;
+            o = p;
+            p = to;
+            bounds = merged;
+            runs = merged.length - 1;
+        }
+        if (a != A) {
+            System.arraycopy(a, 0, A, 0, n);
+            System.arraycopy(o, 0, order, 0, n);
+        }
+    }
+
+    /**
+     * Order of the values in the merges: NaN values last. Equal values are
+     * taken from the left run first, which holds the lowest indexes.
+     */
+    private static boolean before(double x, double y) {
+        return x < y || (x == x && y != y);
+    }
+
+    /**
+     * Part [start, end[ of the stable merge of the sorted runs [lo, mid[ and
+     * [mid, hi[ of (a, o) into (b, p).
+     */
+    private static final class Merge implements Runnable {
+
+        private final double[] a;
+        private final int[] o;
+        private final double[] b;
+        private final int[] p;
+        private final int lo;
+        private final int mid;
+        private final int hi;
+        private final int start;
+        private final int end;
+
+        Merge(double[] a, int[] o, double[] b, int[] p, int lo, int mid, int hi, int start, int end) {
+            this.a = a;
+            this.o = o;
+            this.b = b;
+            this.p = p;
+            this.lo = lo;
+            this.mid = mid;
+            this.hi = hi;
+            this.start = start;
+            this.end = end;
+        }
+
+        public void run() {
+            int i = lo + split(start - lo);
+            int j = mid + (start - lo) - (i - lo);
+            for (int k = start; k < end; k++) {
+                if (j < hi && (i == mid || before(a[j], a[i]))) {
+                    b[k] = a[j];
+                    p[k] = o[j++];
+                } else {
+                    b[k] = a[i];
+                    p[k] = o[i++];
                 }
-                // find an element that is smaller than or equal to the
-                // partition element starting from the right Index.
-                while ((hi > lo0) && (a[hi] > mid)) {
-                    --hi;
+            }
+        }
+
+        /**
+         * Number of elements of the left run among the first k elements of
+         * the merge.
+         */
+        private int split(int k) {
+            int n = mid - lo;
+            int m = hi - mid;
+            int l = Math.max(0, k - m);
+            int h = Math.min(k, n);
+            // first i such that left[i] comes after right[k-i-1]
+            while (l < h) {
+                int i = (l + h) >>> 1;
+                if (before(a[mid + k - i - 1], a[lo + i])) {
+                    h = i;
+                } else {
+                    l = i + 1;
                 }
-                // if the indexes have not crossed, swap
-                if (lo <= hi) {
-                    swap(a, lo, hi);
-                    ++lo;
-                    --hi;
+            }
+            return l;
+        }
+    }
+
+    private static boolean ascending(double[] a, int lo, int hi) {
+        for (int i = lo; i < hi; i++) {
+            if (a[i] > a[i + 1]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean descending(double[] a, int lo, int hi) {
+        for (int i = lo; i < hi; i++) {
+            if (a[i] < a[i + 1]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void introSort(double[] a, int lo, int hi, int depth) {
+        while (hi - lo + 1 > INSERTION_THRESHOLD) {
+            if (depth-- == 0) {
+                heapSort(a, lo, hi);
+                return;
+            }
+            // pivots: second and fourth of five evenly spaced elements
+            int seventh = ((hi - lo + 1) >> 3) + ((hi - lo + 1) >> 6) + 1;
+            int e3 = (lo + hi) >>> 1;
+            int e2 = e3 - seventh;
+            int e1 = e2 - seventh;
+            int e4 = e3 + seventh;
+            int e5 = e4 + seventh;
+            sort5(a, e1, e2, e3, e4, e5);
+
+            if (a[e2] == a[e4]) {
+                // many duplicates: three-way partition around a single pivot
+                double p = a[e3];
+                // [lo, lt[ < p == [lt, k[ , ]gt, hi] > p
+                int lt = lo;
+                int gt = hi;
+                int k = lo;
+                while (k <= gt) {
+                    if (a[k] < p) {
+                        swap(a, k++, lt++);
+                    } else if (a[k] > p) {
+                        swap(a, k, gt--);
+                    } else {
+                        k++;
+                    }
+                }
+                if (lt - lo < hi - gt) {
+                    introSort(a, lo, lt - 1, depth);
+                    lo = gt + 1;
+                } else {
+                    introSort(a, gt + 1, hi, depth);
+                    hi = lt - 1;
+                }
+                continue;
+            }
+
+            swap(a, lo, e2);
+            swap(a, hi, e4);
+            double p1 = a[lo];
+            double p2 = a[hi];
+
+            // [lo+1, less[ < p1 <= [less, k[ <= p2 < ]great, hi-1]
+            int less = lo + 1;
+            int great = hi - 1;
+            for (int k = less; k <= great; k++) {
+                if (a[k] < p1) {
+                    swap(a, k, less++);
+                } else if (a[k] > p2) {
+                    while (k < great && a[great] > p2) {
+                        great--;
+                    }
+                    swap(a, k, great--);
+                    if (a[k] < p1) {
+                        swap(a, k, less++);
+                    }
                 }
             }
+            swap(a, lo, --less);
+            swap(a, hi, ++great);
 
-            // If the right index has not reached the left side of array must
-            // now sort the left partition.
-            if (lo0 < hi) {
-                QuickSort(a, lo0, hi);
+            // the middle part is sorted from ]mlo, mhi[: values equal to a
+            // pivot are moved to its ends when it is large
+            int mlo = less;
+            int mhi = great;
+            if (great - less - 1 > (hi - lo + 1) / 2) {
+                int l = less + 1;
+                int g = great - 1;
+                for (int k = l; k <= g; k++) {
+                    if (a[k] == p1) {
+                        swap(a, k, l++);
+                    } else if (a[k] == p2) {
+                        while (k < g && a[g] == p2) {
+                            g--;
+                        }
+                        swap(a, k, g--);
+                        if (a[k] == p1) {
+                            swap(a, k, l++);
+                        }
+                    }
+                }
+                mlo = l - 1;
+                mhi = g + 1;
+            }
+
+            // recursion on the two smallest parts, iteration on the largest
+            int n1 = less - lo;
+            int n2 = mhi - mlo - 1;
+            int n3 = hi - great;
+            if (n1 >= n2 && n1 >= n3) {
+                introSort(a, mlo + 1, mhi - 1, depth);
+                introSort(a, great + 1, hi, depth);
+                hi = less - 1;
+            } else if (n2 >= n3) {
+                introSort(a, lo, less - 1, depth);
+                introSort(a, great + 1, hi, depth);
+                lo = mlo + 1;
+                hi = mhi - 1;
+            } else {
+                introSort(a, lo, less - 1, depth);
+                introSort(a, mlo + 1, mhi - 1, depth);
+                lo = great + 1;
+            }
+        }
+        insertionSort(a, lo, hi);
+    }
+
+    private void sort5(double[] a, int e1, int e2, int e3, int e4, int e5) {
+        if (a[e2] < a[e1]) swap(a, e1, e2);
+        if (a[e3] < a[e2]) {
+            swap(a, e2, e3);
+            if (a[e2] < a[e1]) swap(a, e1, e2);
+        }
+        if (a[e4] < a[e3]) {
+            swap(a, e3, e4);
+            if (a[e3] < a[e2]) {
+                swap(a, e2, e3);
+                if (a[e2] < a[e1]) swap(a, e1, e2);
+            }
+        }
+        if (a[e5] < a[e4]) {
+            swap(a, e4, e5);
+            if (a[e4] < a[e3]) {
+                swap(a, e3, e4);
+                if (a[e3] < a[e2]) {
+                    swap(a, e2, e3);
+                    if (a[e2] < a[e1]) swap(a, e1, e2);
+                }
+            }
+        }
+    }
 
-                // If the left index has not reached the right side of array
-                // must now sort the right partition.
+    private void insertionSort(double[] a, int lo, int hi) {
+        for (int i = lo + 1; i <= hi; i++) {
+            double key = a[i];
+            int index = order[i];
+            int j = i - 1;
+            // shift the larger elements rather than swapping them
+            while (j >= lo && key < a[j]) {
+                a[j + 1] = a[j];
+                order[j + 1] = order[j];
+                j--;
             }
-            if (lo < hi0) {
-                QuickSort(a, lo, hi0);
+            a[j + 1] = key;
+            order[j + 1] = index;
+        }
+    }
 
+    private void heapSort(double[] a, int lo, int hi) {
+        int n = hi - lo + 1;
+        for (int i = n / 2 - 1; i >= 0; i--) {
+            siftDown(a, lo, i, n);
+        }
+        for (int end = n - 1; end > 0; end--) {
+            swap(a, lo, lo + end);
+            siftDown(a, lo, 0, end);
+        }
+    }
+
+    private void siftDown(double[] a, int lo, int i, int n) {
+        double key = a[lo + i];
+        int index = order[lo + i];
+        int child;
+        while ((child = 2 * i + 1) < n) {
+            if (child + 1 < n && a[lo + child] < a[lo + child + 1]) {
+                child++;
             }
+            if (!(key < a[lo + child])) {
+                break;
+            }
+            a[lo + i] = a[lo + child];
+            order[lo + i] = order[lo + child];
+            i = child;
         }
+        a[lo + i] = key;
+        order[lo + i] = index;
     }
 
     /**
@@ -183,10 +584,6 @@ public class Sorting {
         order[j] = t;
     }
 
-    private void sort(double[] a) {
-        QuickSort(a, 0, a.length - 1);
-    }
-
     public static void main(String[] args) {
         double[] a = { 0.1, 0.2, 0.3, 0.5, 0.4, 0.2, 0.05, 0 };
         Sorting s = new Sorting(a, true);
@@ -0,0 +1,67 @@
+package edu.cornell.lassp.houle.RngPack;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Checks that raw(double[], int) gives the same numbers as successive
+ * calls to raw(), including across block boundaries.
+ */
+public class BulkRawTest {
+
+    private static final int[] LENGTHS = {1, 2, 311, 312, 313, 623, 624, 625, 3000};
+
+    private static void checkBulk(RandomElement a, RandomElement b) {
+        for (int k = 0; k < LENGTHS.length; k++) {
+            double[] d = new double[LENGTHS[k]];
+            b.raw(d, d.length);
+            for (int i = 0; i < d.length; i++) {
+                assertEquals("value " + i + " of " + d.length, a.raw(), d[i], 0.0);
+            }
+            // shift the position inside the block
+            assertEquals(a.raw(), b.raw(), 0.0);
+        }
+    }
+
+    @Test
+    public void testRanMT() {
+        System.out.println("ranmt");
+        checkBulk(new RanMT(4357L), new RanMT(4357L));
+    }
+
+    @Test
+    public void testRanlux() {
+        System.out.println("ranlux");
+        for (int lux = 0; lux <= Ranlux.maxlev; lux++) {
+            checkBulk(new Ranlux(lux, 31415L), new Ranlux(lux, 31415L));
+        }
+    }
+
+    @Test
+    public void testRandomShuffle() {
+        System.out.println("shuffle");
+        checkBulk(new RandomShuffle(new Ranecu(1L), new Ranmar(2L), 32),
+                new RandomShuffle(new Ranecu(1L), new Ranmar(2L), 32));
+        Ranmar shared = new Ranmar(3L);
+        Ranmar sharedCopy = new Ranmar(3L);
+        checkBulk(new RandomShuffle(shared, shared, 16), new RandomShuffle(sharedCopy, sharedCopy, 16));
+    }
+
+    @Test
+    public void testGaussian() {
+        System.out.println("gaussian");
+        RandomElement e = new Ranmar(17L);
+        double[] d = new double[200000];
+        e.gaussian(d, d.length);
+        double sum = 0;
+        double sum2 = 0;
+        for (int i = 0; i < d.length; i++) {
+            double x = e.gaussian();
+            sum += d[i] + x;
+            sum2 += d[i] * d[i] + x * x;
+        }
+        assertEquals(0, sum / (2 * d.length), 0.01);
+        assertEquals(1, sum2 / (2 * d.length), 0.01);
+    }
+
+}
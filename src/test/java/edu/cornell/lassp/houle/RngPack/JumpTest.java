@@ -0,0 +1,80 @@
+package edu.cornell.lassp.houle.RngPack;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Checks that jump(n) gives the same sequence as n calls to raw().
+ */
+public class JumpTest {
+
+    private static final long[] STEPS = {0, 1, 2, 96, 97, 311, 312, 313, 1000, 5003};
+
+    private static void checkJump(RandomSeedable a, RandomSeedable b) {
+        for (int i = 0; i < STEPS.length; i++) {
+            long n = STEPS[i];
+            for (long k = 0; k < n; k++) {
+                a.raw();
+            }
+            b.jump(n);
+            for (int k = 0; k < 10; k++) {
+                assertEquals("after jump of " + n, a.raw(), b.raw(), 0.0);
+            }
+        }
+    }
+
+    private static void checkSplit(RandomSeedable a, RandomSplittable b, long stride) {
+        RandomSeedable first = b.split();
+        RandomSeedable second = b.split();
+        for (int k = 0; k < 10; k++) {
+            assertEquals(a.raw(), first.raw(), 0.0);
+        }
+        a.jump(stride - 10);
+        for (int k = 0; k < 10; k++) {
+            assertEquals(a.raw(), second.raw(), 0.0);
+        }
+        a.jump(stride - 10);
+        for (int k = 0; k < 10; k++) {
+            assertEquals(a.raw(), b.raw(), 0.0);
+        }
+    }
+
+    @Test
+    public void testRanecu() {
+        System.out.println("ranecu");
+        checkJump(new Ranecu(123456789L), new Ranecu(123456789L));
+        checkSplit(new Ranecu(42L), new Ranecu(42L), Ranecu.SPLIT_STRIDE);
+    }
+
+    @Test
+    public void testRanmar() {
+        System.out.println("ranmar");
+        checkJump(new Ranmar(987654L), new Ranmar(987654L));
+        checkSplit(new Ranmar(42L), new Ranmar(42L), Ranmar.SPLIT_STRIDE);
+    }
+
+    @Test
+    public void testRanMT() {
+        System.out.println("ranmt");
+        checkJump(new RanMT(5489L), new RanMT(5489L));
+        checkSplit(new RanMT(42L), new RanMT(42L), RanMT.SPLIT_STRIDE);
+    }
+
+    private static void checkAdditive(RandomSeedable a, RandomSeedable b) {
+        a.jump((1L << 40) + 3);
+        a.jump((1L << 40) - 3);
+        b.jump(1L << 41);
+        for (int k = 0; k < 10; k++) {
+            assertEquals(a.raw(), b.raw(), 0.0);
+        }
+    }
+
+    @Test
+    public void testJumpIsAdditive() {
+        System.out.println("jump additivity");
+        checkAdditive(new Ranecu(7L), new Ranecu(7L));
+        checkAdditive(new Ranmar(7L), new Ranmar(7L));
+        checkAdditive(new RanMT(7L), new RanMT(7L));
+    }
+
+}
@@ -0,0 +1,93 @@
+package edu.cornell.lassp.houle.RngPack;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Checks RanPhilox against the known answers of the Random123 library and
+ * checks the consistency of its bulk, jump and random access methods.
+ */
+public class RanPhiloxTest {
+
+    private static void checkBlock(int[] counter, int[] key, int[] expected) {
+        int[] out = new int[4];
+        RanPhilox.philox(counter[0], counter[1], counter[2], counter[3], key[0], key[1], out, 0);
+        assertArrayEquals(expected, out);
+    }
+
+    @Test
+    public void testKnownAnswers() {
+        System.out.println("known answers");
+        checkBlock(new int[]{0, 0, 0, 0}, new int[]{0, 0},
+                new int[]{0x6627e8d5, 0xe169c58d, 0xbc57ac4c, 0x9b00dbd8});
+        checkBlock(new int[]{-1, -1, -1, -1}, new int[]{-1, -1},
+                new int[]{0x408f276d, 0x41c83b0e, 0xa20bc7c6, 0x6d5451fd});
+        checkBlock(new int[]{0x243f6a88, 0x85a308d3, 0x13198a2e, 0x03707344}, new int[]{0xa4093822, 0x299f31d0},
+                new int[]{0xd16cfe09, 0x94fdcceb, 0x5001e420, 0x24126ea1});
+    }
+
+    @Test
+    public void testBulk() {
+        System.out.println("bulk");
+        RanPhilox a = new RanPhilox(2011L);
+        RanPhilox b = new RanPhilox(2011L);
+        double[] d = new double[101];
+        for (int offset = 0; offset < 3; offset++) {
+            b.raw(d, d.length);
+            for (int i = 0; i < d.length; i++) {
+                assertEquals(a.raw(), d[i], 0.0);
+            }
+        }
+        int[] w = new int[7];
+        for (int k = 0; k < 3; k++) {
+            b.rawInt(w, w.length);
+            for (int i = 0; i < w.length; i++) {
+                assertEquals(a.rawInt(), w[i]);
+            }
+        }
+        b.raw(d, d.length);
+        for (int i = 0; i < d.length; i++) {
+            assertEquals(a.raw(), d[i], 0.0);
+        }
+    }
+
+    @Test
+    public void testRandomAccess() {
+        System.out.println("random access");
+        RanPhilox a = new RanPhilox(7L);
+        int[] block = new int[4];
+        a.block(1000, block);
+        a.setCounter(1000);
+        for (int i = 0; i < 4; i++) {
+            assertEquals(block[i], a.rawInt());
+        }
+        assertEquals(1001, a.getCounter());
+    }
+
+    @Test
+    public void testJumpAndSplit() {
+        System.out.println("jump and split");
+        long[] steps = {0, 1, 2, 3, 7, 100};
+        RanPhilox a = new RanPhilox(99L);
+        RanPhilox b = new RanPhilox(99L);
+        a.rawInt();
+        b.rawInt();
+        for (int i = 0; i < steps.length; i++) {
+            for (long k = 0; k < steps[i]; k++) {
+                a.raw();
+            }
+            b.jump(steps[i]);
+            assertEquals(a.raw(), b.raw(), 0.0);
+        }
+        RandomSeedable first = b.split();
+        for (int k = 0; k < 10; k++) {
+            assertEquals(a.raw(), first.raw(), 0.0);
+        }
+        RanPhilox c = new RanPhilox(99L);
+        c.split();
+        for (int k = 0; k < 10; k++) {
+            assertEquals(c.raw(), b.raw(), 0.0);
+        }
+    }
+
+}
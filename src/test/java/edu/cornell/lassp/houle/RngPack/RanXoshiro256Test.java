@@ -0,0 +1,86 @@
+package edu.cornell.lassp.houle.RngPack;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Checks the xoshiro256 and SplitMix64 generators against reference
+ * outputs, and their bulk and jump methods against raw().
+ */
+public class RanXoshiro256Test {
+
+    @Test
+    public void testReferenceOutput() {
+        System.out.println("reference output");
+        RanXoshiro256StarStar x = new RanXoshiro256StarStar(new long[]{1, 2, 3, 4});
+        assertEquals(11520L, x.rawLong());
+        assertEquals(0L, x.rawLong());
+        assertEquals(1509978240L, x.rawLong());
+        assertEquals(1215971899390074240L, x.rawLong());
+        RanSplitMix64 s = new RanSplitMix64(0L);
+        assertEquals(0xe220a8397b1dcdafL, s.rawLong());
+        assertEquals(0x6e789e6aa1b965f4L, s.rawLong());
+    }
+
+    private static void checkBulk(RandomElement a, RandomElement b) {
+        double[] d = new double[1001];
+        b.raw(d, d.length);
+        for (int i = 0; i < d.length; i++) {
+            assertEquals(a.raw(), d[i], 0.0);
+        }
+    }
+
+    @Test
+    public void testBulk() {
+        System.out.println("bulk");
+        checkBulk(new RanXoshiro256StarStar(5L), new RanXoshiro256StarStar(5L));
+        checkBulk(new RanXoshiro256Plus(5L), new RanXoshiro256Plus(5L));
+        checkBulk(new RanSplitMix64(5L), new RanSplitMix64(5L));
+    }
+
+    private static void checkJump(RandomSeedable a, RandomSeedable b) {
+        long[] steps = {0, 1, 255, 256, 257, 4000};
+        for (int i = 0; i < steps.length; i++) {
+            for (long k = 0; k < steps[i]; k++) {
+                a.raw();
+            }
+            b.jump(steps[i]);
+            assertEquals(a.raw(), b.raw(), 0.0);
+        }
+    }
+
+    @Test
+    public void testJump() {
+        System.out.println("jump");
+        checkJump(new RanXoshiro256StarStar(11L), new RanXoshiro256StarStar(11L));
+        checkJump(new RanXoshiro256Plus(11L), new RanXoshiro256Plus(11L));
+        checkJump(new RanSplitMix64(11L), new RanSplitMix64(11L));
+    }
+
+    @Test
+    public void testJumpsCommute() {
+        System.out.println("jumps commute");
+        RanXoshiro256StarStar a = new RanXoshiro256StarStar(3L);
+        RanXoshiro256StarStar b = new RanXoshiro256StarStar(3L);
+        a.longJump();
+        a.jump();
+        a.jump(1L << 62);
+        b.jump(1L << 62);
+        b.jump();
+        b.longJump();
+        assertArrayEquals(a.getState(), b.getState());
+    }
+
+    @Test
+    public void testSplit() {
+        System.out.println("split");
+        RanXoshiro256Plus a = new RanXoshiro256Plus(8L);
+        RanXoshiro256Plus b = new RanXoshiro256Plus(8L);
+        RandomSeedable first = a.split();
+        assertEquals(b.raw(), first.raw(), 0.0);
+        b = new RanXoshiro256Plus(8L);
+        b.jump();
+        assertArrayEquals(b.getState(), a.getState());
+    }
+
+}
@@ -0,0 +1,127 @@
+package edu.cornell.lassp.houle.RngPack;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Checks that RandomConcurrent gives each thread the substream it is bound
+ * to, whatever the scheduling.
+ */
+public class RandomConcurrentTest {
+
+    private static final int THREADS = 8;
+    private static final int COUNT = 10000;
+
+    @Test
+    public void testBoundThreads() throws InterruptedException {
+        System.out.println("bound threads");
+        final RandomConcurrent e = new RandomConcurrent(new RanXoshiro256StarStar(2024L));
+        final double[][] results = new double[THREADS][COUNT];
+        Thread[] threads = new Thread[THREADS];
+        for (int t = 0; t < THREADS; t++) {
+            final int index = THREADS - 1 - t;
+            threads[t] = new Thread() {
+                public void run() {
+                    e.bind(index);
+                    for (int i = 0; i < COUNT; i++) {
+                        results[index][i] = e.raw();
+                    }
+                }
+            };
+            threads[t].start();
+        }
+        for (int t = 0; t < THREADS; t++) {
+            threads[t].join();
+        }
+
+        RanXoshiro256StarStar master = new RanXoshiro256StarStar(2024L);
+        for (int t = 0; t < THREADS; t++) {
+            RandomSeedable expected = master.split();
+            for (int i = 0; i < COUNT; i++) {
+                assertEquals(expected.raw(), results[t][i], 0.0);
+            }
+        }
+    }
+
+    @Test
+    public void testUnboundThreads() throws InterruptedException {
+        System.out.println("unbound threads");
+        final RandomConcurrent e = new RandomConcurrent(new RanMT(5L));
+        final double[] first = new double[THREADS];
+        Thread[] threads = new Thread[THREADS];
+        for (int t = 0; t < THREADS; t++) {
+            final int slot = t;
+            threads[t] = new Thread() {
+                public void run() {
+                    first[slot] = e.current().raw();
+                }
+            };
+            threads[t].start();
+        }
+        for (int t = 0; t < THREADS; t++) {
+            threads[t].join();
+        }
+        // every thread got a different substream
+        for (int t = 0; t < THREADS; t++) {
+            for (int u = t + 1; u < THREADS; u++) {
+                assertTrue(first[t] != first[u]);
+            }
+        }
+    }
+
+    private static RandomSeedable[] inThreads(final RandomConcurrent e, final int[] bind) throws InterruptedException {
+        final RandomSeedable[] seen = new RandomSeedable[bind.length];
+        final RuntimeException[] failed = new RuntimeException[bind.length];
+        Thread[] threads = new Thread[bind.length];
+        for (int t = 0; t < bind.length; t++) {
+            final int slot = t;
+            threads[t] = new Thread() {
+                public void run() {
+                    try {
+                        if (bind[slot] >= 0) {
+                            e.bind(bind[slot]);
+                        }
+                        e.raw();
+                        seen[slot] = e.current();
+                    } catch (RuntimeException ex) {
+                        failed[slot] = ex;
+                    }
+                }
+            };
+            threads[t].start();
+            // one at a time, so that the test does not depend on the scheduling
+            threads[t].join();
+        }
+        for (int t = 0; t < bind.length; t++) {
+            if (failed[t] != null) {
+                throw failed[t];
+            }
+        }
+        return seen;
+    }
+
+    @Test
+    public void testBoundAndUnboundThreads() throws InterruptedException {
+        System.out.println("bound and unbound threads");
+        RandomConcurrent e = new RandomConcurrent(new RanMT(7L));
+        e.bind(0);
+        // unbound threads skip the substreams held by bound ones
+        RandomSeedable[] seen = inThreads(e, new int[]{-1, 2, -1, -1});
+        assertSame(e.stream(1), seen[0]);
+        assertSame(e.stream(2), seen[1]);
+        assertSame(e.stream(3), seen[2]);
+        assertSame(e.stream(4), seen[3]);
+        assertSame(e.stream(0), e.current());
+        // a thread rebinding releases its substream
+        e.bind(0);
+        e.bind(6);
+        assertSame(e.stream(0), inThreads(e, new int[]{0})[0]);
+        try {
+            inThreads(e, new int[]{6});
+            fail("substream 6 is held");
+        } catch (IllegalStateException ex) {
+            // expected
+        }
+    }
+
+}
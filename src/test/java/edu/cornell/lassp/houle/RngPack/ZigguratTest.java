@@ -0,0 +1,89 @@
+package edu.cornell.lassp.houle.RngPack;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Checks the moments and the tail mass of the Ziggurat normal and exponential
+ * deviates, from the single and the bulk methods.
+ */
+public class ZigguratTest {
+
+    private static final int N = 1000000;
+
+    private static double[] moments(double[] d) {
+        double s1 = 0;
+        double s2 = 0;
+        double s3 = 0;
+        double s4 = 0;
+        for (int i = 0; i < d.length; i++) {
+            double x = d[i];
+            s1 += x;
+            s2 += x * x;
+            s3 += x * x * x;
+            s4 += x * x * x * x;
+        }
+        return new double[]{s1 / d.length, s2 / d.length, s3 / d.length, s4 / d.length};
+    }
+
+    private static double fractionAbove(double[] d, double x) {
+        int count = 0;
+        for (int i = 0; i < d.length; i++) {
+            if (d[i] > x) {
+                count++;
+            }
+        }
+        return count / (double) d.length;
+    }
+
+    @Test
+    public void testNormal() {
+        System.out.println("normal");
+        RandomElement e = new RanMT(11);
+        double[] d = new double[N];
+        for (int i = 0; i < N / 2; i++) {
+            d[i] = Ziggurat.normal(e);
+        }
+        double[] bulk = new double[N / 2];
+        Ziggurat.normal(e, bulk, bulk.length);
+        System.arraycopy(bulk, 0, d, N / 2, bulk.length);
+
+        double[] m = moments(d);
+        assertEquals(0, m[0], 0.005);
+        assertEquals(1, m[1], 0.005);
+        assertEquals(0, m[2], 0.02);
+        assertEquals(3, m[3], 0.05);
+        // beyond the base layer: 2.88e-4 on each side
+        assertEquals(2.8803e-4, fractionAbove(d, 3.442619855899), 5e-5);
+        for (int i = 0; i < N; i++) {
+            d[i] = -d[i];
+        }
+        assertEquals(2.8803e-4, fractionAbove(d, 3.442619855899), 5e-5);
+        assertEquals(0.158655254, fractionAbove(d, 1), 0.001);
+    }
+
+    @Test
+    public void testExponential() {
+        System.out.println("exponential");
+        RandomElement e = new RanMT(13);
+        double[] d = new double[N];
+        for (int i = 0; i < N / 2; i++) {
+            d[i] = Ziggurat.exponential(e);
+        }
+        double[] bulk = new double[N / 2];
+        Ziggurat.exponential(e, bulk, bulk.length);
+        System.arraycopy(bulk, 0, d, N / 2, bulk.length);
+
+        double[] m = moments(d);
+        assertEquals(1, m[0], 0.005);
+        assertEquals(2, m[1], 0.02);
+        assertEquals(6, m[2], 0.1);
+        for (int i = 0; i < N; i++) {
+            assertTrue(d[i] > 0);
+        }
+        // beyond the base layer: exp(-7.697) = 4.54e-4
+        assertEquals(4.5378e-4, fractionAbove(d, 7.69711747013104972), 6e-5);
+        assertEquals(Math.exp(-1), fractionAbove(d, 1), 0.001);
+    }
+
+}
@@ -0,0 +1,55 @@
+package org.math.array;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Checks the multi-key row sorts of DoubleArray.
+ */
+public class DoubleArrayTest {
+
+    private static final double[][] TABLE = {
+            {2, 1, 0},
+            {1, 5, 1},
+            {2, 3, 2},
+            {1, 5, 3},
+            {0, Double.NaN, 4},
+            {2, 1, 5},
+            {0, 7, 6}};
+
+    private static void checkOrder(double[][] sorted, int... expected) {
+        assertEquals(expected.length, sorted.length);
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals("row " + i, expected[i], sorted[i][2], 0);
+        }
+    }
+
+    @Test
+    public void testSortOneColumn() {
+        // stable: equal keys keep their order
+        checkOrder(DoubleArray.sort(TABLE, 0), 4, 6, 1, 3, 0, 2, 5);
+        double[][] sorted = DoubleArray.sort(TABLE, 0);
+        assertNotSame(TABLE[4], sorted[0]);
+    }
+
+    @Test
+    public void testSortSeveralColumns() {
+        checkOrder(DoubleArray.sort(TABLE, 0, 1), 6, 4, 1, 3, 0, 5, 2);
+        // first column descending, second ascending, NaN last
+        checkOrder(DoubleArray.sort(TABLE, new int[]{0, 1}, new boolean[]{false, true}), 0, 5, 2, 1, 3, 6, 4);
+        checkOrder(DoubleArray.sort(TABLE, new int[]{1, 0}, new boolean[]{false, false}), 6, 1, 3, 2, 0, 5, 4);
+    }
+
+    @Test
+    public void testSortRowsInPlace() {
+        double[][] table = new double[TABLE.length][];
+        System.arraycopy(TABLE, 0, table, 0, TABLE.length);
+        int[] index = DoubleArray.sortRows(table, new int[]{0, 1}, new boolean[]{true, true});
+        checkOrder(table, 6, 4, 1, 3, 0, 5, 2);
+        assertArrayEquals(new int[]{6, 4, 1, 3, 0, 5, 2}, index);
+        for (int i = 0; i < table.length; i++) {
+            assertSame(TABLE[index[i]], table[i]);
+        }
+    }
+
+}
@@ -0,0 +1,151 @@
+package org.math.array.util;
+
+import edu.cornell.lassp.houle.RngPack.RanMT;
+import org.math.array.StatisticSample;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Checks the adaptive rejection samplers against known moments and quantiles,
+ * and counts the evaluations of the density.
+ */
+public class AdaptiveRejectionTest {
+
+    private static final int N = 200000;
+
+    /**
+     * Density counting its evaluations.
+     */
+    private static abstract class Counted implements Function {
+        int calls;
+
+        public double f(double x) {
+            calls++;
+            return value(x);
+        }
+
+        abstract double value(double x);
+    }
+
+    private static double fractionBelow(double[] d, double x) {
+        int count = 0;
+        for (int i = 0; i < d.length; i++) {
+            if (d[i] <= x) {
+                count++;
+            }
+        }
+        return count / (double) d.length;
+    }
+
+    @Test
+    public void testNormal() {
+        Counted logDensity = new Counted() {
+            double value(double x) {
+                return -x * x / 2;
+            }
+        };
+        AdaptiveRejection sampler = new AdaptiveRejection(logDensity, new double[]{-1, 0.5, 2},
+                Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
+        double[] d = new double[N];
+        sampler.fill(new RanMT(1), d, N);
+        assertEquals(0, StatisticSample.mean(d), 0.01);
+        assertEquals(1, StatisticSample.variance(d), 0.01);
+        assertEquals(0.841344746, fractionBelow(d, 1), 0.003);
+        assertEquals(0.022750132, fractionBelow(d, -2), 0.001);
+        assertTrue("evaluations " + logDensity.calls, logDensity.calls < N / 20);
+    }
+
+    @Test
+    public void testGammaAndBeta() {
+        // Gamma(3, 1)
+        AdaptiveRejection gamma = new AdaptiveRejection(new Function() {
+            public double f(double x) {
+                return 2 * Math.log(x) - x;
+            }
+        }, new double[]{0.5, 2, 6}, 0, Double.POSITIVE_INFINITY);
+        double[] d = new double[N];
+        gamma.fill(new RanMT(2), d, N);
+        assertEquals(3, StatisticSample.mean(d), 0.02);
+        assertEquals(3, StatisticSample.variance(d), 0.05);
+        assertEquals(0.5, fractionBelow(d, InverseCDF.gamma(3, 1).f(0.5)), 0.003);
+
+        // Beta(2, 5)
+        double[] b = StatisticSample.randomLogConcave(N, new Function() {
+            public double f(double x) {
+                return Math.log(x) + 4 * Math.log(1 - x);
+            }
+        }, 0, 1);
+        assertEquals(2 / 7.0, StatisticSample.mean(b), 0.002);
+        assertEquals(0.9, fractionBelow(b, InverseCDF.beta(2, 5).f(0.9)), 0.003);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNotLogConcave() {
+        new AdaptiveRejection(new Function() {
+            public double f(double x) {
+                return x * x;
+            }
+        }, -1, 1);
+    }
+
+    @Test
+    public void testNotLogConcaveWhileDrawing() {
+        // concave around the initial abscissae only
+        AdaptiveRejection sampler = new AdaptiveRejection(new Function() {
+            public double f(double x) {
+                return -x * x / 2 + (x > 2 && x < 2.5 ? 2 : 0);
+            }
+        }, new double[]{-1, 0, 1}, -4, 4);
+        RanMT e = new RanMT(4);
+        int failures = 0;
+        for (int i = 0; i < 20000; i++) {
+            int size = sampler.size();
+            try {
+                double t = sampler.next(e);
+                assertTrue(t >= -4 && t <= 4);
+            } catch (IllegalArgumentException ex) {
+                // the failing abscissa is not kept in the hull
+                assertEquals(size, sampler.size());
+                failures++;
+            }
+        }
+        assertTrue(failures > 0);
+    }
+
+    @Test
+    public void testFlatRejection() {
+        // oscillating within the cells of EnvelopeRejection: E[cos] = 1/2
+        Function density = new Function() {
+            public double f(double x) {
+                return 1 + Math.cos(2 * Math.PI * 96 * x);
+            }
+        };
+        double[] d = StatisticSample.randomRejection(N, density, 2, 0, 1);
+        double mean = 0;
+        for (int i = 0; i < N; i++) {
+            mean += Math.cos(2 * Math.PI * 96 * d[i]) / N;
+        }
+        assertEquals(0.5, mean, 0.01);
+    }
+
+    @Test
+    public void testEnvelope() {
+        // peaked bimodal density: the flat envelope accepts 3.8% of the draws
+        Counted density = new Counted() {
+            double value(double x) {
+                double a = (x - 0.3) / 0.01;
+                double b = (x - 0.7) / 0.01;
+                return Math.exp(-a * a / 2) + 0.5 * Math.exp(-b * b / 2);
+            }
+        };
+        EnvelopeRejection sampler = new EnvelopeRejection(density, 1, 0, 1);
+        double[] d = new double[N];
+        sampler.fill(new RanMT(3), d, N);
+        assertEquals(2 / 3.0, fractionBelow(d, 0.5), 0.003);
+        assertEquals(2 / 3.0 * 0.841344746, fractionBelow(d, 0.31), 0.003);
+        assertEquals(0.3 * 2 / 3.0 + 0.7 / 3.0, StatisticSample.mean(d), 0.001);
+        assertTrue("evaluations " + density.calls, density.calls < N / 10);
+        assertTrue("ratio " + sampler.ratio(), sampler.ratio() < 1.1);
+    }
+
+}
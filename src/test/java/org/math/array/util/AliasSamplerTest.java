@@ -0,0 +1,69 @@
+package org.math.array.util;
+
+import edu.cornell.lassp.houle.RngPack.RanMT;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Checks the frequencies of the alias sampler against the probabilities.
+ */
+public class AliasSamplerTest {
+
+    private static final int N = 400000;
+
+    private static void checkFrequencies(double[] prob, int[] counts) {
+        double sum = 0;
+        int total = 0;
+        for (int i = 0; i < prob.length; i++) {
+            sum += prob[i];
+            total += counts[i];
+        }
+        for (int i = 0; i < prob.length; i++) {
+            double p = prob[i] / sum;
+            // five standard deviations
+            double tolerance = 5 * Math.sqrt(p * (1 - p) / total) + 1e-12;
+            assertEquals("index " + i, p, counts[i] / (double) total, tolerance);
+        }
+    }
+
+    @Test
+    public void testIndexes() {
+        // not normalized, with empty, tiny and dominant cells
+        double[] prob = {3, 0, 0.01, 10, 1, 1, 0, 25, 0.5};
+        AliasSampler sampler = new AliasSampler(prob);
+        assertEquals(prob.length, sampler.size());
+        RanMT e = new RanMT(5);
+        int[] counts = new int[prob.length];
+        for (int i = 0; i < N; i++) {
+            counts[sampler.nextIndex(e)]++;
+        }
+        assertEquals(0, counts[1]);
+        assertEquals(0, counts[6]);
+        checkFrequencies(prob, counts);
+    }
+
+    @Test
+    public void testValues() {
+        double[] values = {-1, 2.5, 7};
+        double[] prob = {0.2, 0.5, 0.3};
+        AliasSampler sampler = new AliasSampler(values, prob);
+        double[] d = new double[N];
+        sampler.fill(new RanMT(7), d, N);
+        int[] counts = new int[values.length];
+        for (int i = 0; i < N; i++) {
+            int k = 0;
+            while (k < values.length && values[k] != d[i]) {
+                k++;
+            }
+            assertTrue("unexpected value " + d[i], k < values.length);
+            counts[k]++;
+        }
+        checkFrequencies(prob, counts);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegative() {
+        new AliasSampler(new double[]{0.5, -0.1, 0.6});
+    }
+
+}
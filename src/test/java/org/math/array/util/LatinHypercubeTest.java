@@ -0,0 +1,122 @@
+package org.math.array.util;
+
+import edu.cornell.lassp.houle.RngPack.RanMT;
+import org.math.array.StatisticSample;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Checks the structure of the Latin hypercube and stratified designs and the
+ * maximin optimization.
+ */
+public class LatinHypercubeTest {
+
+    private static void checkLatin(double[][] X, int m, int n) {
+        assertEquals(m, X.length);
+        for (int j = 0; j < n; j++) {
+            boolean[] seen = new boolean[m];
+            for (int i = 0; i < m; i++) {
+                int cell = (int) (X[i][j] * m);
+                assertFalse("column " + j + ", cell " + cell, seen[cell]);
+                seen[cell] = true;
+            }
+        }
+    }
+
+    @Test
+    public void testDesigns() {
+        checkLatin(LatinHypercube.random(50, 4, new RanMT(1)), 50, 4);
+        double[][] X = LatinHypercube.centered(20, 3, new RanMT(2));
+        checkLatin(X, 20, 3);
+        assertEquals(0.5, (X[0][0] * 20) % 1, 1e-12);
+        checkLatin(StatisticSample.randomLatinHypercube(100, 2), 100, 2);
+    }
+
+    private static int[] cells(double[][] X, int j) {
+        int[] p = new int[X.length];
+        for (int i = 0; i < X.length; i++) {
+            p[i] = (int) (X[i][j] * X.length);
+        }
+        return p;
+    }
+
+    @Test
+    public void testPermutations() {
+        // all the 24 permutations of 4 cells are equally likely
+        int n = 48000;
+        double[][] X = LatinHypercube.random(4, n, new RanMT(5));
+        int[] count = new int[256];
+        for (int j = 0; j < n; j++) {
+            int[] p = cells(X, j);
+            count[((p[0] * 4 + p[1]) * 4 + p[2]) * 4 + p[3]]++;
+        }
+        int permutations = 0;
+        for (int c = 0; c < count.length; c++) {
+            if (count[c] > 0) {
+                permutations++;
+                assertEquals(n / 24.0, count[c], 5 * Math.sqrt(n / 24.0));
+            }
+        }
+        assertEquals(24, permutations);
+
+        // 44 of the 120 permutations of 5 cells have no fixed point
+        X = LatinHypercube.centered(5, n, new RanMT(6));
+        int derangements = 0;
+        for (int j = 0; j < n; j++) {
+            int[] p = cells(X, j);
+            boolean fixed = false;
+            for (int i = 0; i < p.length; i++) {
+                fixed |= p[i] == i;
+            }
+            if (!fixed) {
+                derangements++;
+            }
+        }
+        assertEquals(44 / 120.0, derangements / (double) n, 0.01);
+
+        // half of the designs of 2 points are on the diagonal
+        X = LatinHypercube.random(2, n, new RanMT(7));
+        int diagonal = 0;
+        for (int j = 0; j < n; j++) {
+            if (cells(X, j)[0] == 0) {
+                diagonal++;
+            }
+        }
+        assertEquals(0.5, diagonal / (double) n, 0.01);
+    }
+
+    @Test
+    public void testMaximin() {
+        int m = 40;
+        int n = 3;
+        double random = 0;
+        for (int r = 0; r < 8; r++) {
+            random += LatinHypercube.minDistance(LatinHypercube.random(m, n, new RanMT(r))) / 8;
+        }
+        double[][] X = LatinHypercube.maximin(m, n, false, 4, 20000, new RanMT(3), 2);
+        checkLatin(X, m, n);
+        assertTrue(LatinHypercube.minDistance(X) > 1.5 * random);
+
+        // the result does not depend on the number of threads
+        double[][] Y = LatinHypercube.maximin(m, n, true, 4, 2000, new RanMT(4), 1);
+        double[][] Z = LatinHypercube.maximin(m, n, true, 4, 2000, new RanMT(4), 3);
+        for (int i = 0; i < m; i++) {
+            assertArrayEquals(Y[i], Z[i], 0);
+        }
+    }
+
+    @Test
+    public void testStratified() {
+        int[] strata = {2, 3};
+        double[][] X = StatisticSample.randomStratified(strata, 5);
+        assertEquals(30, X.length);
+        int[] count = new int[6];
+        for (int i = 0; i < X.length; i++) {
+            count[(int) (X[i][0] * 2) * 3 + (int) (X[i][1] * 3)]++;
+        }
+        for (int c = 0; c < count.length; c++) {
+            assertEquals(5, count[c]);
+        }
+    }
+
+}
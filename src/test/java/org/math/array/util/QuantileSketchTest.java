@@ -0,0 +1,135 @@
+package org.math.array.util;
+
+import edu.cornell.lassp.houle.RngPack.RandomSeedable;
+import edu.cornell.lassp.houle.RngPack.Ranmar;
+import org.math.array.DoubleArray;
+import org.math.array.StatisticSample;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Checks QuantileSketch estimates against exact quantiles of the sorted
+ * sample.
+ */
+public class QuantileSketchTest {
+
+    private static final double[] PROBABILITIES = {0.001, 0.01, 0.1, 0.25, 0.5, 0.75, 0.9, 0.99, 0.999};
+
+    private RandomSeedable engine;
+
+    /**
+     * The tolerances are checked on fixed samples, not on clock-seeded ones.
+     */
+    @Before
+    public void setUp() {
+        engine = Random.RandEngine;
+        Random.RandEngine = new Ranmar(20050606L);
+    }
+
+    @After
+    public void tearDown() {
+        Random.RandEngine = engine;
+    }
+
+    /**
+     * Fraction of the sorted sample lower than or equal to x.
+     */
+    private static double rank(double[] sorted, double x) {
+        int lo = 0;
+        int hi = sorted.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sorted[mid] <= x) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo / (double) sorted.length;
+    }
+
+    private static void checkQuantiles(QuantileSketch sketch, double[] values) {
+        double[] sorted = DoubleArray.sort(values);
+        for (int i = 0; i < PROBABILITIES.length; i++) {
+            double q = PROBABILITIES[i];
+            double estimate = sketch.quantile(q);
+            // rank error must be small relative to the tail probability
+            double tolerance = Math.max(2e-4, 0.05 * Math.min(q, 1 - q));
+            assertEquals("rank of quantile " + q, q, rank(sorted, estimate), tolerance);
+        }
+        assertEquals(sorted[0], sketch.quantile(0), 0.0);
+        assertEquals(sorted[sorted.length - 1], sketch.quantile(1), 0.0);
+    }
+
+    @Test
+    public void testQuantileUniform() {
+        System.out.println("quantile uniform");
+        double[] values = StatisticSample.randomUniform(200000, 0, 1);
+        QuantileSketch sketch = new QuantileSketch(values);
+        checkQuantiles(sketch, values);
+        assertTrue(sketch.centroidCount() <= 2 * QuantileSketch.DEFAULT_COMPRESSION);
+    }
+
+    @Test
+    public void testQuantileLogNormal() {
+        System.out.println("quantile lognormal");
+        double[] values = StatisticSample.randomLogNormal(200000, 0, 2);
+        QuantileSketch sketch = new QuantileSketch(values);
+        checkQuantiles(sketch, values);
+    }
+
+    @Test
+    public void testCdf() {
+        System.out.println("cdf");
+        double[] values = StatisticSample.randomNormal(100000, 0, 1);
+        QuantileSketch sketch = new QuantileSketch(values);
+        double[] sorted = DoubleArray.sort(values);
+        for (double x = -3; x <= 3; x += 0.5) {
+            assertEquals("cdf at " + x, rank(sorted, x), sketch.cdf(x), 2e-3);
+        }
+        assertEquals(0, sketch.cdf(sorted[0] - 1), 0.0);
+        assertEquals(1, sketch.cdf(sorted[sorted.length - 1]), 0.0);
+    }
+
+    @Test
+    public void testMerge() {
+        System.out.println("merge");
+        double[] values = new double[0];
+        QuantileSketch merged = new QuantileSketch();
+        for (int part = 0; part < 8; part++) {
+            double[] chunk = StatisticSample.randomExponential(25000, 1 + part);
+            values = DoubleArray.merge(values, chunk);
+            merged.merge(new QuantileSketch(chunk));
+        }
+        assertEquals(values.length, merged.size(), 0.0);
+        checkQuantiles(merged, values);
+    }
+
+    @Test
+    public void testSerialization() {
+        System.out.println("serialization");
+        double[] values = StatisticSample.randomNormal(50000, 10, 3);
+        QuantileSketch sketch = new QuantileSketch(values);
+        QuantileSketch copy = QuantileSketch.fromByteArray(sketch.toByteArray());
+        assertEquals(sketch.size(), copy.size(), 0.0);
+        assertEquals(sketch.min(), copy.min(), 0.0);
+        assertEquals(sketch.max(), copy.max(), 0.0);
+        for (int i = 0; i < PROBABILITIES.length; i++) {
+            assertEquals(sketch.quantile(PROBABILITIES[i]), copy.quantile(PROBABILITIES[i]), 1e-9);
+        }
+    }
+
+    @Test
+    public void testSmallSample() {
+        System.out.println("small sample");
+        QuantileSketch sketch = new QuantileSketch();
+        assertTrue(Double.isNaN(sketch.quantile(0.5)));
+        sketch.add(new double[]{3, 1, 2});
+        assertEquals(1, sketch.quantile(0), 0.0);
+        assertEquals(2, sketch.quantile(0.5), 0.0);
+        assertEquals(3, sketch.quantile(1), 0.0);
+    }
+
+}
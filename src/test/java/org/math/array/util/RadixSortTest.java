@@ -0,0 +1,70 @@
+package org.math.array.util;
+
+import java.util.Arrays;
+
+import edu.cornell.lassp.houle.RngPack.RanMT;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Checks that the radix sort gives the same order as Sorting.
+ */
+public class RadixSortTest {
+
+    @Test
+    public void testDoubles() {
+        RanMT e = new RanMT(3);
+        int[] sizes = {0, 1, 2, 100, 5000};
+        for (int k = 0; k < sizes.length; k++) {
+            int n = sizes[k];
+            double[] gaussian = new double[n];
+            double[] special = new double[n];
+            for (int i = 0; i < n; i++) {
+                gaussian[i] = e.gaussian() * 1e3;
+                double u = e.raw();
+                if (u < 0.1) {
+                    special[i] = Double.NaN;
+                } else if (u < 0.2) {
+                    special[i] = -0.0;
+                } else if (u < 0.3) {
+                    special[i] = 0.0;
+                } else if (u < 0.35) {
+                    special[i] = Double.NEGATIVE_INFINITY;
+                } else if (u < 0.4) {
+                    special[i] = Double.POSITIVE_INFINITY;
+                } else if (u < 0.45) {
+                    special[i] = Double.MIN_VALUE * e.choose(-2, 2);
+                } else {
+                    special[i] = e.choose(-3, 3);
+                }
+            }
+            assertArrayEquals(new Sorting(gaussian, true).getIndex(), RadixSort.argsort(gaussian));
+            assertArrayEquals(new Sorting(special, true).getIndex(), RadixSort.argsort(special));
+            double[] sorted = special.clone();
+            new Sorting(sorted, false);
+            assertArrayEquals(sorted, RadixSort.sort(special), 0);
+        }
+    }
+
+    @Test
+    public void testInts() {
+        RanMT e = new RanMT(5);
+        int n = 5000;
+        int[] a = new int[n];
+        for (int i = 0; i < n; i++) {
+            a[i] = i % 3 == 0 ? e.choose(-4, 4) : (int) (e.raw() * 4294967296.0 - 2147483648.0);
+        }
+        a[0] = Integer.MIN_VALUE;
+        a[1] = Integer.MAX_VALUE;
+        double[] d = new double[n];
+        for (int i = 0; i < n; i++) {
+            d[i] = a[i];
+        }
+        int[] index = RadixSort.argsort(a);
+        assertArrayEquals(new Sorting(d, true).getIndex(), index);
+        int[] sorted = a.clone();
+        Arrays.sort(sorted);
+        assertArrayEquals(sorted, RadixSort.sort(a));
+    }
+
+}
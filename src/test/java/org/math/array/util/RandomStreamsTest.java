@@ -0,0 +1,125 @@
+package org.math.array.util;
+
+import edu.cornell.lassp.houle.RngPack.RandomSeedable;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Checks that the streams are reproducible, distinct, and bound to threads.
+ */
+public class RandomStreamsTest {
+
+    private static double[] draw(RandomSeedable e, int n) {
+        double[] d = new double[n];
+        for (int i = 0; i < n; i++) {
+            d[i] = e.raw();
+        }
+        return d;
+    }
+
+    @Test
+    public void testStreams() {
+        RandomStreams streams = new RandomStreams(123);
+        assertEquals(123, streams.getSeed());
+        double[] a = draw(streams.stream(5), 100);
+        assertArrayEquals(a, draw(new RandomStreams(123).stream(5), 100), 0);
+        // other index, other master seed
+        double[][] others = {draw(streams.stream(4), 100), draw(streams.stream(6), 100), draw(new RandomStreams(124).stream(5), 100)};
+        for (int k = 0; k < others.length; k++) {
+            int equal = 0;
+            for (int i = 0; i < a.length; i++) {
+                if (a[i] == others[k][i]) {
+                    equal++;
+                }
+            }
+            assertEquals(0, equal);
+        }
+    }
+
+    @Test
+    public void testThreads() throws InterruptedException {
+        final RandomStreams streams = new RandomStreams(7);
+        streams.setCurrent(3);
+        final RandomSeedable main = streams.current();
+        assertSame(main, streams.current());
+        assertArrayEquals(draw(streams.stream(3), 10), draw(main, 10), 0);
+
+        final RandomSeedable[] seen = new RandomSeedable[2];
+        final double[][] values = new double[2][];
+        Thread thread = new Thread() {
+            public void run() {
+                seen[0] = streams.current();
+                streams.setCurrent(9);
+                seen[1] = streams.current();
+                values[0] = draw(seen[1], 10);
+            }
+        };
+        thread.start();
+        thread.join();
+        assertNotSame(main, seen[0]);
+        assertNotSame(seen[0], seen[1]);
+        assertArrayEquals(draw(streams.stream(9), 10), values[0], 0);
+        // the other thread did not rebind this one
+        assertSame(main, streams.current());
+    }
+
+    @Test
+    public void testBoundAndUnbound() throws InterruptedException {
+        final RandomStreams streams = new RandomStreams(13);
+        streams.setCurrent(0);
+        final double[][] values = new double[3][];
+        Thread[] threads = new Thread[3];
+        for (int t = 0; t < threads.length; t++) {
+            final int slot = t;
+            threads[t] = new Thread() {
+                public void run() {
+                    if (slot == 2) {
+                        streams.setCurrent(1);
+                    }
+                    values[slot] = draw(streams.current(), 100);
+                }
+            };
+            threads[t].start();
+        }
+        for (int t = 0; t < threads.length; t++) {
+            threads[t].join();
+        }
+        double[] bound = draw(streams.current(), 100);
+        assertArrayEquals(draw(streams.stream(0), 100), bound, 0);
+        assertArrayEquals(draw(streams.stream(1), 100), values[2], 0);
+        // the unbound threads replay neither the bound ones nor each other
+        double[][] others = {bound, values[2], values[1]};
+        for (int k = 0; k < others.length; k++) {
+            for (int i = 0; i < 100; i++) {
+                assertTrue(values[0][i] != others[k][i]);
+            }
+        }
+        for (int i = 0; i < 100; i++) {
+            assertTrue(values[1][i] != bound[i] && values[1][i] != values[2][i]);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeIndex() {
+        new RandomStreams(1).setCurrent(-1);
+    }
+
+    @Test
+    public void testRandom() {
+        RandomSeedable engine = Random.RandEngine;
+        try {
+            Random.setStreams(new RandomStreams(11));
+            Random.getStreams().setCurrent(2);
+            double[] a = new double[10];
+            for (int i = 0; i < a.length; i++) {
+                a[i] = Random.raw();
+            }
+            assertArrayEquals(draw(new RandomStreams(11).stream(2), 10), a, 0);
+        } finally {
+            Random.setStreams(null);
+            Random.RandEngine = engine;
+        }
+        assertSame(engine, Random.engine());
+    }
+
+}
@@ -0,0 +1,128 @@
+package org.math.array.util;
+
+import edu.cornell.lassp.houle.RngPack.RanMT;
+import edu.cornell.lassp.houle.RngPack.RandomSeedable;
+import org.math.array.StatisticSample;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Checks the means and variances of the Gamma, Beta, Poisson and binomial
+ * samplers, in each of their branches.
+ */
+public class RandomTest {
+
+    private static final int N = 200000;
+
+    private RandomSeedable engine;
+
+    @Before
+    public void seed() {
+        engine = Random.RandEngine;
+        Random.RandEngine = new RanMT(17);
+    }
+
+    @After
+    public void restore() {
+        Random.RandEngine = engine;
+    }
+
+    private static void checkMoments(String name, double[] d, double mean, double variance) {
+        // five standard errors on the mean, a relative tolerance on the
+        // variance loose enough for the heavy tailed small shapes
+        assertEquals(name + " mean", mean, StatisticSample.mean(d), 5 * Math.sqrt(variance / d.length));
+        assertEquals(name + " variance", variance, StatisticSample.variance(d), 0.05 * variance);
+    }
+
+    private static double[] gamma(double shape, double scale) {
+        double[] d = new double[N];
+        for (int i = 0; i < N; i++) {
+            d[i] = Random.gamma(shape, scale);
+        }
+        return d;
+    }
+
+    private static double[] poisson(double lambda) {
+        double[] d = new double[N];
+        for (int i = 0; i < N; i++) {
+            d[i] = Random.poisson(lambda);
+        }
+        return d;
+    }
+
+    private static double[] binomial(int n, double p) {
+        double[] d = new double[N];
+        for (int i = 0; i < N; i++) {
+            d[i] = Random.binomial(n, p);
+            assertTrue(d[i] >= 0 && d[i] <= n);
+        }
+        return d;
+    }
+
+    private static double fraction(double[] d, double x) {
+        int count = 0;
+        for (int i = 0; i < d.length; i++) {
+            if (d[i] == x) {
+                count++;
+            }
+        }
+        return count / (double) d.length;
+    }
+
+    @Test
+    public void testGamma() {
+        // small shape boost, exponential, Marsaglia-Tsang
+        double[] shapes = {0.3, 1, 4.5};
+        for (int k = 0; k < shapes.length; k++) {
+            checkMoments("gamma " + shapes[k], gamma(shapes[k], 2), 2 * shapes[k], 4 * shapes[k]);
+        }
+        double[] d = new double[N];
+        for (int i = 0; i < N; i++) {
+            d[i] = Random.beta(2, 5);
+        }
+        checkMoments("beta", d, 2 / 7.0, 10 / (49.0 * 8));
+        for (int i = 0; i < N; i++) {
+            d[i] = Random.chi2(3);
+        }
+        checkMoments("chi2", d, 3, 6);
+    }
+
+    @Test
+    public void testPoisson() {
+        // multiplication of uniforms, then PTRS
+        double[] lambdas = {0.5, 3, 10, 25, 250};
+        for (int k = 0; k < lambdas.length; k++) {
+            checkMoments("poisson " + lambdas[k], poisson(lambdas[k]), lambdas[k], lambdas[k]);
+        }
+        double[] d = poisson(25);
+        double p = Math.exp(-25 + 25 * Math.log(25) - logFactorial(25));
+        assertEquals(p, fraction(d, 25), 5 * Math.sqrt(p / N));
+        assertEquals(0, Random.poisson(0));
+    }
+
+    @Test
+    public void testBinomial() {
+        // inversion, BTRS, and both of them through the symmetry p > 0.5
+        int[] n = {20, 1000, 50, 1000};
+        double[] p = {0.3, 0.4, 0.9, 0.97};
+        for (int k = 0; k < n.length; k++) {
+            checkMoments("binomial " + n[k] + " " + p[k], binomial(n[k], p[k]), n[k] * p[k], n[k] * p[k] * (1 - p[k]));
+        }
+        double[] d = binomial(1000, 0.4);
+        double mode = Math.exp(logFactorial(1000) - logFactorial(400) - logFactorial(600) + 400 * Math.log(0.4) + 600 * Math.log(0.6));
+        assertEquals(mode, fraction(d, 400), 5 * Math.sqrt(mode / N));
+        assertEquals(0, Random.binomial(10, 0));
+        assertEquals(10, Random.binomial(10, 1));
+    }
+
+    private static double logFactorial(int k) {
+        double s = 0;
+        for (int i = 2; i <= k; i++) {
+            s += Math.log(i);
+        }
+        return s;
+    }
+
+}
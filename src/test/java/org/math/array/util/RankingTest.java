@@ -0,0 +1,130 @@
+package org.math.array.util;
+
+import edu.cornell.lassp.houle.RngPack.RanMT;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Checks the ranks and the rank correlations against direct definitions.
+ */
+public class RankingTest {
+
+    // tau-b over all the pairs
+    private static double kendallPairs(double[] x, double[] y) {
+        long concordant = 0;
+        long discordant = 0;
+        long tiedX = 0;
+        long tiedY = 0;
+        for (int i = 0; i < x.length; i++) {
+            for (int j = i + 1; j < x.length; j++) {
+                double s = Math.signum(x[i] - x[j]) * Math.signum(y[i] - y[j]);
+                if (s > 0) {
+                    concordant++;
+                } else if (s < 0) {
+                    discordant++;
+                }
+                if (x[i] == x[j]) {
+                    tiedX++;
+                }
+                if (y[i] == y[j]) {
+                    tiedY++;
+                }
+            }
+        }
+        long pairs = (long) x.length * (x.length - 1) / 2;
+        return (concordant - discordant) / Math.sqrt((double) (pairs - tiedX) * (pairs - tiedY));
+    }
+
+    private static double pearson(double[] x, double[] y) {
+        double mx = 0;
+        double my = 0;
+        for (int i = 0; i < x.length; i++) {
+            mx += x[i] / x.length;
+            my += y[i] / y.length;
+        }
+        double sxy = 0;
+        double sxx = 0;
+        double syy = 0;
+        for (int i = 0; i < x.length; i++) {
+            sxy += (x[i] - mx) * (y[i] - my);
+            sxx += (x[i] - mx) * (x[i] - mx);
+            syy += (y[i] - my) * (y[i] - my);
+        }
+        return sxy / Math.sqrt(sxx * syy);
+    }
+
+    @Test
+    public void testRanks() {
+        double[] v = {3, 1, 4, 1, 5, 9, 2, 6, 5, 3, 5};
+        assertArrayEquals(new double[]{4.5, 1.5, 6, 1.5, 8, 11, 3, 10, 8, 4.5, 8}, Ranking.rank(v, Ranking.AVERAGE), 0);
+        assertArrayEquals(new double[]{4, 1, 6, 1, 7, 11, 3, 10, 7, 4, 7}, Ranking.rank(v, Ranking.MIN), 0);
+        assertArrayEquals(new double[]{3, 1, 4, 1, 5, 7, 2, 6, 5, 3, 5}, Ranking.rank(v, Ranking.DENSE), 0);
+        double[] r = Ranking.rank(new double[]{2, Double.NaN, 1}, Ranking.AVERAGE);
+        assertEquals(2, r[0], 0);
+        assertTrue(Double.isNaN(r[1]));
+        assertEquals(1, r[2], 0);
+    }
+
+    @Test
+    public void testCorrelations() {
+        RanMT e = new RanMT(23);
+        int[] sizes = {2, 10, 500, 3000};
+        for (int k = 0; k < sizes.length; k++) {
+            int n = sizes[k];
+            double[] x = new double[n];
+            double[] y = new double[n];
+            for (int i = 0; i < n; i++) {
+                // many ties
+                x[i] = e.choose(0, 20);
+                y[i] = x[i] + e.choose(-10, 10);
+            }
+            assertEquals(kendallPairs(x, y), Ranking.kendall(x, y), 1e-12);
+            double[] rx = Ranking.rank(x, Ranking.AVERAGE);
+            double[] ry = Ranking.rank(y, Ranking.AVERAGE);
+            assertEquals(pearson(rx, ry), Ranking.spearman(x, y), 1e-12);
+        }
+        assertEquals(-1, Ranking.kendall(new double[]{1, 2, 3, 4}, new double[]{8, 7, 6, 5}), 1e-15);
+        assertTrue(Double.isNaN(Ranking.kendall(new double[]{1, 2, Double.NaN}, new double[]{1, 2, 3})));
+    }
+
+    @Test
+    public void testMatrices() {
+        RanMT e = new RanMT(29);
+        int m = 400;
+        int n = 7;
+        double[][] v = new double[m][n];
+        for (int i = 0; i < m; i++) {
+            for (int j = 0; j < n; j++) {
+                v[i][j] = j == 0 ? e.choose(0, 5) : v[i][j - 1] + e.gaussian();
+            }
+        }
+        double[][] tau = Ranking.kendall(v, 1);
+        double[][] rho = Ranking.spearman(v, 1);
+        for (int i = 0; i < n; i++) {
+            double[] a = new double[m];
+            for (int k = 0; k < m; k++) {
+                a[k] = v[k][i];
+            }
+            assertEquals(1, tau[i][i], 1e-12);
+            assertEquals(1, rho[i][i], 0);
+            for (int j = 0; j < n; j++) {
+                double[] b = new double[m];
+                for (int k = 0; k < m; k++) {
+                    b[k] = v[k][j];
+                }
+                assertEquals(Ranking.kendall(a, b), tau[i][j], 1e-12);
+                assertEquals(Ranking.spearman(a, b), rho[i][j], 1e-12);
+            }
+        }
+        int[] threads = {2, 3, 8};
+        for (int t = 0; t < threads.length; t++) {
+            double[][] parallel = Ranking.kendall(v, threads[t]);
+            double[][] spearman = Ranking.spearman(v, threads[t]);
+            for (int i = 0; i < n; i++) {
+                assertArrayEquals(tau[i], parallel[i], 0);
+                assertArrayEquals(rho[i], spearman[i], 0);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,169 @@
+package org.math.array.util;
+
+import java.util.Arrays;
+import java.util.TreeSet;
+
+import edu.cornell.lassp.houle.RngPack.RanMT;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Checks the searches and merges of sorted arrays against linear scans.
+ */
+public class SearchingTest {
+
+    private static double[] sorted(RanMT e, int n) {
+        double[] a = new double[n];
+        for (int i = 0; i < n; i++) {
+            a[i] = e.raw() < 0.05 ? Double.NaN : e.choose(-20, 20) / 2.0;
+        }
+        new Sorting(a, false);
+        return a;
+    }
+
+    private static int lowerScan(double[] a, double key) {
+        int i = 0;
+        // Double.compare orders NaN last, but -0.0 before 0.0
+        while (i < a.length && Double.compare(a[i] == 0 ? 0 : a[i], key == 0 ? 0 : key) < 0) {
+            i++;
+        }
+        return i;
+    }
+
+    private static int upperScan(double[] a, double key) {
+        int i = 0;
+        while (i < a.length && Double.compare(a[i] == 0 ? 0 : a[i], key == 0 ? 0 : key) <= 0) {
+            i++;
+        }
+        return i;
+    }
+
+    @Test
+    public void testBounds() {
+        RanMT e = new RanMT(31);
+        int[] sizes = {0, 1, 7, 300};
+        for (int s = 0; s < sizes.length; s++) {
+            double[] a = sorted(e, sizes[s]);
+            double[] keys = new double[200];
+            for (int i = 0; i < keys.length; i++) {
+                keys[i] = e.raw() < 0.05 ? Double.NaN : e.choose(-24, 24) / 2.0;
+            }
+            keys[0] = -0.0;
+            // unsorted, then sorted keys
+            for (int pass = 0; pass < 2; pass++) {
+                int[] lower = Searching.lowerBound(a, keys);
+                int[] upper = Searching.upperBound(a, keys);
+                for (int i = 0; i < keys.length; i++) {
+                    assertEquals(lowerScan(a, keys[i]), Searching.lowerBound(a, keys[i]));
+                    assertEquals(upperScan(a, keys[i]), Searching.upperBound(a, keys[i]));
+                    assertEquals(lowerScan(a, keys[i]), lower[i]);
+                    assertEquals(upperScan(a, keys[i]), upper[i]);
+                }
+                new Sorting(keys, false);
+            }
+            int[] ia = new int[a.length];
+            int[] ikeys = new int[keys.length];
+            for (int i = 0; i < a.length; i++) {
+                ia[i] = Double.isNaN(a[i]) ? Integer.MAX_VALUE : (int) Math.floor(a[i]);
+            }
+            for (int i = 0; i < keys.length; i++) {
+                ikeys[i] = Double.isNaN(keys[i]) ? Integer.MAX_VALUE : (int) Math.floor(keys[i]);
+            }
+            int[] lower = Searching.lowerBound(ia, ikeys);
+            int[] upper = Searching.upperBound(ia, ikeys);
+            for (int i = 0; i < ikeys.length; i++) {
+                int l = 0;
+                while (l < ia.length && ia[l] < ikeys[i]) {
+                    l++;
+                }
+                int u = l;
+                while (u < ia.length && ia[u] <= ikeys[i]) {
+                    u++;
+                }
+                assertEquals(l, lower[i]);
+                assertEquals(u, upper[i]);
+                assertEquals(l, Searching.lowerBound(ia, ikeys[i]));
+                assertEquals(u, Searching.upperBound(ia, ikeys[i]));
+            }
+        }
+    }
+
+    @Test
+    public void testMerge() {
+        RanMT e = new RanMT(37);
+        double[][] arrays = new double[6][];
+        int[][] ints = new int[6][];
+        int n = 0;
+        for (int r = 0; r < arrays.length; r++) {
+            arrays[r] = sorted(e, r == 2 ? 0 : e.choose(1, 50));
+            ints[r] = new int[arrays[r].length];
+            for (int i = 0; i < ints[r].length; i++) {
+                ints[r][i] = (int) (2 * arrays[r][i]);
+            }
+            Arrays.sort(ints[r]);
+            n += arrays[r].length;
+        }
+        double[] all = new double[n];
+        int[] allInts = new int[n];
+        int m = 0;
+        for (int r = 0; r < arrays.length; r++) {
+            System.arraycopy(arrays[r], 0, all, m, arrays[r].length);
+            System.arraycopy(ints[r], 0, allInts, m, ints[r].length);
+            m += arrays[r].length;
+        }
+        new Sorting(all, false);
+        Arrays.sort(allInts);
+        assertArrayEquals(all, Searching.merge(arrays), 0);
+        assertArrayEquals(allInts, Searching.merge(ints));
+        assertEquals(0, Searching.merge(new double[0][]).length);
+    }
+
+    @Test
+    public void testSets() {
+        double[] a = {-1, 0, 0, 2, 2, 2, 5, Double.NaN, Double.NaN};
+        double[] b = {-0.0, 2, 3, 5, 5, Double.NaN};
+        assertArrayEquals(new double[]{-1, 0, 2, 5, Double.NaN}, Searching.unique(a), 0);
+        assertArrayEquals(new int[]{1, 2, 3, 1, 2}, Searching.counts(a));
+        assertArrayEquals(new double[]{0, 2, 5, Double.NaN}, Searching.intersection(a, b), 0);
+        assertArrayEquals(new double[]{-1, 0, 2, 3, 5, Double.NaN}, Searching.union(a, b), 0);
+
+        RanMT e = new RanMT(41);
+        int[] x = new int[500];
+        int[] y = new int[300];
+        TreeSet<Integer> sx = new TreeSet<Integer>();
+        TreeSet<Integer> sy = new TreeSet<Integer>();
+        for (int i = 0; i < x.length; i++) {
+            x[i] = e.choose(-400, 400);
+            sx.add(x[i]);
+        }
+        for (int i = 0; i < y.length; i++) {
+            y[i] = e.choose(-400, 400);
+            sy.add(y[i]);
+        }
+        Arrays.sort(x);
+        Arrays.sort(y);
+        TreeSet<Integer> union = new TreeSet<Integer>(sx);
+        union.addAll(sy);
+        TreeSet<Integer> intersection = new TreeSet<Integer>(sx);
+        intersection.retainAll(sy);
+        assertArrayEquals(toArray(sx), Searching.unique(x));
+        assertArrayEquals(toArray(union), Searching.union(x, y));
+        assertArrayEquals(toArray(intersection), Searching.intersection(x, y));
+        int total = 0;
+        int[] counts = Searching.counts(x);
+        for (int i = 0; i < counts.length; i++) {
+            total += counts[i];
+        }
+        assertEquals(x.length, total);
+    }
+
+    private static int[] toArray(TreeSet<Integer> s) {
+        int[] a = new int[s.size()];
+        int i = 0;
+        for (Integer v : s) {
+            a[i++] = v;
+        }
+        return a;
+    }
+
+}
@@ -0,0 +1,82 @@
+package org.math.array.util;
+
+import edu.cornell.lassp.houle.RngPack.RanMT;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Checks the selections against the beginning of the order of Sorting.
+ */
+public class SelectionTest {
+
+    private static int[] prefix(int[] a, int k) {
+        int[] p = new int[Math.min(k, a.length)];
+        System.arraycopy(a, 0, p, 0, p.length);
+        return p;
+    }
+
+    private static void check(double[] a) {
+        int[] ascending = new Sorting(a, true).getIndex();
+        double[] negated = new double[a.length];
+        for (int i = 0; i < a.length; i++) {
+            negated[i] = -a[i];
+        }
+        int[] descending = new Sorting(negated, true).getIndex();
+        // both the heap and the quickselect paths
+        int[] ks = {0, 1, 3, a.length / 20, a.length / 2, a.length, a.length + 1};
+        for (int j = 0; j < ks.length; j++) {
+            int k = ks[j];
+            assertArrayEquals("k=" + k, prefix(ascending, k), Selection.smallest(a, k));
+            assertArrayEquals("k=" + k, prefix(descending, k), Selection.largest(a, k));
+        }
+    }
+
+    @Test
+    public void testInputs() {
+        RanMT e = new RanMT(13);
+        int[] sizes = {0, 1, 2, 40, 1000, 20000};
+        for (int k = 0; k < sizes.length; k++) {
+            int n = sizes[k];
+            double[] random = new double[n];
+            double[] duplicates = new double[n];
+            double[] sorted = new double[n];
+            double[] organPipe = new double[n];
+            double[] withNaN = new double[n];
+            for (int i = 0; i < n; i++) {
+                random[i] = e.raw();
+                duplicates[i] = e.choose(0, 3);
+                sorted[i] = i;
+                organPipe[i] = Math.min(i, n - i);
+                withNaN[i] = e.raw() < 0.1 ? Double.NaN : e.choose(-5, 5);
+            }
+            check(random);
+            check(duplicates);
+            check(sorted);
+            check(organPipe);
+            check(withNaN);
+        }
+    }
+
+    @Test
+    public void testChunks() {
+        RanMT e = new RanMT(17);
+        double[] a = new double[10000];
+        for (int i = 0; i < a.length; i++) {
+            a[i] = e.raw() < 0.05 ? Double.NaN : e.choose(0, 500);
+        }
+        Selection s = new Selection(250, false);
+        for (int from = 0; from < a.length; from += 777) {
+            s.add(a, from, Math.min(a.length, from + 777));
+        }
+        assertEquals(a.length, s.getCount());
+        int[] expected = Selection.smallest(a, 250);
+        long[] index = s.getIndex();
+        double[] values = s.getValues();
+        assertEquals(expected.length, index.length);
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i], index[i]);
+            assertEquals(a[expected[i]], values[i], 0);
+        }
+    }
+
+}
@@ -0,0 +1,104 @@
+package org.math.array.util;
+
+import edu.cornell.lassp.houle.RngPack.RanMT;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Checks the slices of the points against a test of every slice.
+ */
+public class SlicingTest {
+
+    private static boolean isIn(double[] x, double[] center, double[] width) {
+        for (int j = 0; j < x.length; j++) {
+            if (Math.abs(x[j] - center[j]) - width[j] / 2 > 0.0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void check(Slicing s, double[][] M) {
+        double[][] centers = s.getSlicesCenters();
+        double[][] widths = s.getSlicesWidths();
+        int[] expected = new int[centers.length];
+        for (int i = 0; i < M.length; i++) {
+            int first = -1;
+            int last = -1;
+            for (int k = 0; k < centers.length; k++) {
+                if (isIn(M[i], centers[k], widths[k])) {
+                    if (first < 0) {
+                        first = k;
+                    }
+                    last = k;
+                }
+            }
+            expected[first]++;
+            assertEquals(last, s.findSlice(M[i]));
+        }
+        int[][] indexes = s.getSlicesIndexes();
+        double[] cardinals = s.getSlicesCardinals();
+        for (int k = 0; k < centers.length; k++) {
+            assertEquals(expected[k], indexes[k].length);
+            assertEquals(expected[k], cardinals[k], 0);
+            for (int i = 0; i < indexes[k].length; i++) {
+                assertTrue(isIn(M[indexes[k][i]], centers[k], widths[k]));
+                if (i > 0) {
+                    assertTrue(indexes[k][i - 1] < indexes[k][i]);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testGrids() {
+        RanMT e = new RanMT(43);
+        double[][] M = new double[500][3];
+        for (int i = 0; i < M.length; i++) {
+            // many points on the bounds; dyadic values, as rounding errors
+            // on the bounds may leave points out of the automatic slices
+            M[i][0] = e.choose(0, 8) / 4.0;
+            M[i][1] = e.choose(-64, 64) / 16.0;
+            M[i][2] = e.choose(0, 32) / 32.0;
+        }
+        check(new Slicing(M, new int[]{3, 4, 2}, Slicing.AUTO_BOUNDS), M);
+        double[][] bounds = {{0, 0.25, 0.5, 1, 2}, {-10, -1, 0, 1, 10}, {0, 0.5, 1}};
+        check(new Slicing(M, bounds), M);
+        // overlapping intervals, not in ascending order
+        double[][] centers = {{1, 0.5, 1.5}, {0, -5}, {0.5}};
+        double[][] widths = {{2, 1, 1}, {4, 20}, {1}};
+        check(new Slicing(M, centers, widths), M);
+        assertEquals(-1, new Slicing(M, bounds).findSlice(new double[]{3, 0, 0}));
+    }
+
+    @Test
+    public void testParallel() {
+        RanMT e = new RanMT(47);
+        // several blocks of rows
+        double[][] M = new double[70000][2];
+        for (int i = 0; i < M.length; i++) {
+            M[i][0] = e.choose(0, 1024) / 64.0;
+            M[i][1] = e.choose(-512, 512) / 128.0;
+        }
+        Slicing sequential = new Slicing(M, new int[]{7, 5}, Slicing.AUTO_BOUNDS);
+        int[] threads = {2, 3, 8};
+        for (int t = 0; t < threads.length; t++) {
+            Slicing parallel = new Slicing(M, new int[]{7, 5}, Slicing.AUTO_BOUNDS, threads[t]);
+            double[][] X = sequential.getSlicingMatrix();
+            double[][] Y = parallel.getSlicingMatrix();
+            int[][] I = sequential.getSlicesIndexes();
+            int[][] J = parallel.getSlicesIndexes();
+            for (int k = 0; k < X.length; k++) {
+                assertArrayEquals(X[k], Y[k], 0);
+                assertArrayEquals(I[k], J[k]);
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testOutside() {
+        double[][] M = {{0, 0}, {1, 1}, {2, 0.5}};
+        new Slicing(M, new double[][]{{0, 1}, {0, 1}});
+    }
+
+}
@@ -0,0 +1,100 @@
+package org.math.array.util;
+
+import edu.cornell.lassp.houle.RngPack.RanMT;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Checks the Sobol and Halton sequences and the inverse CDF adapters.
+ */
+public class SobolTest {
+
+    @Test
+    public void testFirstPoints() {
+        double[][] expected = {{0, 0}, {0.5, 0.5}, {0.75, 0.25}, {0.25, 0.75}, {0.375, 0.375}, {0.875, 0.875}};
+        Sobol s = new Sobol(2);
+        for (int i = 0; i < expected.length; i++) {
+            assertArrayEquals("point " + i, expected[i], s.next(), 0);
+        }
+        Halton h = new Halton(2);
+        h.skip(1);
+        assertArrayEquals(new double[]{0.5, 1 / 3.0}, h.next(), 1e-15);
+        assertArrayEquals(new double[]{0.25, 2 / 3.0}, h.next(), 1e-15);
+        assertArrayEquals(new double[]{0.75, 1 / 9.0}, h.next(), 1e-15);
+    }
+
+    @Test
+    public void testChunks() {
+        Sobol[] sequences = {new Sobol(Sobol.MAX_DIMENSION), new Sobol(7, new RanMT(5))};
+        for (int k = 0; k < sequences.length; k++) {
+            Sobol s = sequences[k];
+            double[][] all = s.points(1000);
+            assertEquals(1000, s.getIndex());
+            double[][] chunk = s.points(337, 400);
+            for (int i = 0; i < chunk.length; i++) {
+                assertArrayEquals(all[337 + i], chunk[i], 0);
+            }
+            s.setIndex(0);
+            s.skip(999);
+            assertArrayEquals(all[999], s.next(), 0);
+        }
+        Halton h = new Halton(10, new RanMT(5));
+        double[][] all = h.points(100);
+        assertArrayEquals(all[42], h.point(42), 0);
+    }
+
+    @Test
+    public void testStratification() {
+        // each of the 2^k intervals of width 2^-k holds exactly one of the
+        // first 2^k points, in every coordinate, scrambled or not
+        int n = 1024;
+        Sobol[] sequences = {new Sobol(Sobol.MAX_DIMENSION), new Sobol(Sobol.MAX_DIMENSION, new RanMT(11))};
+        for (int k = 0; k < sequences.length; k++) {
+            double[][] P = sequences[k].points(n);
+            for (int j = 0; j < Sobol.MAX_DIMENSION; j++) {
+                boolean[] seen = new boolean[n];
+                for (int i = 0; i < n; i++) {
+                    int cell = (int) (P[i][j] * n);
+                    assertFalse("coordinate " + j, seen[cell]);
+                    seen[cell] = true;
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testInverseCDF() {
+        assertEquals(0, InverseCDF.normal(0.5), 0);
+        assertEquals(1.959963984540054, InverseCDF.normal(0.975), 1e-14);
+        assertEquals(-3.090232306167813, InverseCDF.normal(0.001), 1e-14);
+        assertEquals(-6.361340902404056, InverseCDF.normal(1e-10), 1e-13);
+        assertEquals(7.814727903251178, InverseCDF.chi2(3).f(0.95), 1e-10);
+        // arcsine law
+        assertEquals(Math.pow(Math.sin(Math.PI * 0.1), 2), InverseCDF.beta(0.5, 0.5).f(0.2), 1e-12);
+        assertEquals(2, InverseCDF.poisson(3.5).f(0.3), 0);
+        // the summed probabilities stay below u in the far tail
+        double[] lambdas = {0.5, 100, 1000};
+        for (int i = 0; i < lambdas.length; i++) {
+            Function poisson = InverseCDF.poisson(lambdas[i]);
+            double k = poisson.f(1 - 1e-15);
+            assertTrue(k > lambdas[i] && k < lambdas[i] + 40 * Math.sqrt(lambdas[i]) + 40);
+            double last = poisson.f(Math.nextAfter(1.0, 0));
+            assertTrue(last >= k && last < lambdas[i] + 40 * Math.sqrt(lambdas[i]) + 40);
+        }
+        assertEquals(4, InverseCDF.binomial(10, 0.3).f(0.8), 0);
+        Function dirac = InverseCDF.dirac(new double[]{1, 2, 3}, new double[]{1, 0, 3});
+        assertEquals(1, dirac.f(0.2), 0);
+        assertEquals(3, dirac.f(0.25), 0);
+
+        // mean of exponential(2) by quasi Monte Carlo
+        Sobol s = new Sobol(1);
+        s.skip(1);
+        double[][] X = InverseCDF.apply(s.points(4095), InverseCDF.exponential(2));
+        double mean = 0;
+        for (int i = 0; i < X.length; i++) {
+            mean += X[i][0] / X.length;
+        }
+        assertEquals(0.5, mean, 2e-3);
+    }
+
+}
@@ -0,0 +1,110 @@
+package org.math.array.util;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+import edu.cornell.lassp.houle.RngPack.RanMT;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Checks the order given by Sorting against a stable sort, on inputs which
+ * used to degrade the quicksort.
+ */
+public class SortingTest {
+
+    private static int[] stableOrder(final double[] a) {
+        Integer[] order = new Integer[a.length];
+        for (int i = 0; i < a.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, new Comparator<Integer>() {
+            public int compare(Integer i, Integer j) {
+                // Double.compare puts NaN last, but also -0.0 before 0.0
+                double x = a[i] == 0 ? 0 : a[i];
+                double y = a[j] == 0 ? 0 : a[j];
+                return Double.compare(x, y);
+            }
+        });
+        int[] result = new int[a.length];
+        for (int i = 0; i < a.length; i++) {
+            result[i] = order[i];
+        }
+        return result;
+    }
+
+    private static void check(double[] a) {
+        double[] copy = a.clone();
+        Sorting s = new Sorting(a, true);
+        assertArrayEquals(copy, a, 0);
+        assertArrayEquals(stableOrder(a), s.getIndex());
+        Sorting t = new Sorting(copy, false);
+        double[] values = s.getSortedValues();
+        for (int i = 0; i < a.length; i++) {
+            // -0.0 and 0.0 are equal, but move with their indexes
+            assertEquals(Double.doubleToRawLongBits(a[s.getIndex(i)]), Double.doubleToRawLongBits(values[i]));
+            assertEquals(Double.doubleToRawLongBits(a[t.getIndex(i)]), Double.doubleToRawLongBits(copy[i]));
+        }
+    }
+
+    @Test
+    public void testInputs() {
+        RanMT e = new RanMT(7);
+        int[] sizes = {0, 1, 2, 5, 31, 33, 100, 1000, 100000};
+        for (int k = 0; k < sizes.length; k++) {
+            int n = sizes[k];
+            double[] random = new double[n];
+            double[] duplicates = new double[n];
+            double[] sorted = new double[n];
+            double[] reversed = new double[n];
+            double[] organPipe = new double[n];
+            double[] withNaN = new double[n];
+            for (int i = 0; i < n; i++) {
+                random[i] = e.raw();
+                duplicates[i] = e.choose(0, 3);
+                sorted[i] = i;
+                reversed[i] = n - i;
+                organPipe[i] = Math.min(i, n - i);
+                withNaN[i] = e.raw() < 0.1 ? Double.NaN : e.choose(-5, 5);
+                if (withNaN[i] == 0 && e.raw() < 0.5) {
+                    withNaN[i] = -0.0;
+                }
+            }
+            check(random);
+            check(duplicates);
+            check(sorted);
+            check(reversed);
+            check(organPipe);
+            check(withNaN);
+        }
+        check(new double[]{1, 0.0, -0.0});
+    }
+
+    @Test
+    public void testLargeConstant() {
+        // the recursive quicksort needed a deep stack here
+        double[] a = new double[2000000];
+        Sorting s = new Sorting(a, false);
+        for (int i = 0; i < a.length; i++) {
+            assertEquals(i, s.getIndex(i));
+        }
+    }
+
+    @Test
+    public void testParallel() {
+        RanMT e = new RanMT(11);
+        int n = 300001;
+        double[] a = new double[n];
+        for (int i = 0; i < n; i++) {
+            a[i] = e.raw() < 0.01 ? Double.NaN : e.choose(0, 1000) / 10.0;
+        }
+        Sorting sequential = new Sorting(a, true);
+        int[] threads = {2, 3, 5, 8};
+        for (int k = 0; k < threads.length; k++) {
+            Sorting parallel = new Sorting(a, true, threads[k]);
+            assertArrayEquals(sequential.getIndex(), parallel.getIndex());
+            assertArrayEquals(sequential.getSortedValues(), parallel.getSortedValues(), 0);
+        }
+    }
+
+}